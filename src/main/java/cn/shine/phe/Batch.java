@@ -0,0 +1,75 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   Batch
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 03:40
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * todo Class Batch: runs an action on a range of indices, split in halves over a fork-join pool
+ *
+ * @author Zhan Shi
+ */
+final class Batch extends RecursiveAction {
+    /**
+     * from:  the first index
+     * to:    the index after the last one
+     * grain: the number of indices below which the range is not split any further
+     */
+    private final int from, to, grain;
+    /**
+     * action: the action on one index
+     */
+    private final IntConsumer action;
+
+    /**
+     * todo Function Batch(int, int, int, IntConsumer): Class Batch init
+     *
+     * @param from   the first index
+     * @param to     the index after the last one
+     * @param grain  the number of indices below which the range is not split any further
+     * @param action the action on one index
+     */
+    private Batch(int from, int to, int grain, @NotNull IntConsumer action) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.action = action;
+    }
+
+    /**
+     * todo Static Function forEach(ForkJoinPool, int, int, IntConsumer): run action on every index of [0, size)
+     *
+     * @param pool   the fork-join pool, or null for the common pool
+     * @param size   the number of indices
+     * @param grain  the number of indices below which the range is not split any further
+     * @param action the action on one index
+     */
+    static void forEach(ForkJoinPool pool, int size, int grain, @NotNull IntConsumer action) {
+        (pool == null ? ForkJoinPool.commonPool() : pool).invoke(new Batch(0, size, Math.max(1, grain), action));
+    }
+
+    @Override
+    protected void compute() {
+        if (this.to - this.from <= this.grain) {
+            for (int i = this.from; i < this.to; i++) {
+                this.action.accept(i);
+            }
+        } else {
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new Batch(this.from, middle, this.grain, this.action),
+                    new Batch(middle, this.to, this.grain, this.action));
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   CiphertextCodec
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 08:40
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * todo Public Class CiphertextCodec: the binary wire format of the encrypted numbers of one public key
+ * <p>
+ * A message is a header of HEADER_BYTES, the version, the kind and the key fingerprint, followed by one record, or by
+ * the record count as a varint and that many records. A record is the exponent as a zigzag varint and the ciphertext
+ * as a big-endian field of width = ceil(bitLength(n^2) / 8) bytes, so one 2048-bit ciphertext takes 512 bytes plus a
+ * few, where its decimal string takes about 1233 characters. Every number read or written uses the current position
+ * of the buffer, heap or direct, whatever its byte order. Numbers are exported by ciphertext(true), so a lazily
+ * obfuscated number is obfuscated before it leaves, and imported as obfuscated.
+ *
+ * @author Zhan Shi
+ */
+public class CiphertextCodec {
+    /**
+     * VERSION: the version of the wire format
+     */
+    public static final byte VERSION = 1;
+    /**
+     * HEADER_BYTES: the version, the kind and the 8-byte key fingerprint
+     */
+    public static final int HEADER_BYTES = 10;
+    /**
+     * SINGLE: the kind of a message of one record
+     * BATCH:  the kind of a message of counted records
+     */
+    private static final byte SINGLE = 0, BATCH = 1;
+    /**
+     * MAX_VARINT_BYTES: the longest varint of a long
+     */
+    private static final int MAX_VARINT_BYTES = 10;
+    /**
+     * publicKey: the public key of every encrypted number
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * width: the bytes of a ciphertext, ceil(bitLength(n^2) / 8)
+     */
+    public final int width;
+    /**
+     * fingerprint: the first 8 bytes of the SHA-256 of n, big-endian
+     */
+    public final long fingerprint;
+
+    /**
+     * todo Public Function CiphertextCodec(PaillierPublicKey): Class CiphertextCodec init
+     *
+     * @param publicKey the public key of every encrypted number
+     */
+    public CiphertextCodec(@NotNull Paillier.PaillierPublicKey publicKey) {
+        this.publicKey = publicKey;
+        this.width = (publicKey.nSquare.bitLength() + 7) / 8;
+        this.fingerprint = fingerprint(publicKey);
+    }
+
+    /**
+     * todo Public Static Function fingerprint(PaillierPublicKey): the key fingerprint of the header
+     *
+     * @param publicKey the public key
+     * @return long the first 8 bytes of the SHA-256 of the big-endian bytes of n
+     */
+    public static long fingerprint(@NotNull Paillier.PaillierPublicKey publicKey) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(publicKey.n.toByteArray());
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implements SHA-256
+            throw new Util.NotImplementedErrorException(e.getMessage());
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            fingerprint = fingerprint << 8 | digest[i] & 0xFF;
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * todo Public Function size(EncryptedNumber): the bytes of the message of one number
+     *
+     * @param encryptedNumber the encrypted number
+     * @return int
+     */
+    public int size(@NotNull Paillier.EncryptedNumber encryptedNumber) {
+        return HEADER_BYTES + recordSize(encryptedNumber);
+    }
+
+    /**
+     * todo Public Function size(EncryptedNumber[]): the bytes of the message of many numbers
+     *
+     * @param numbers the encrypted numbers
+     * @return long
+     */
+    public long size(Paillier.EncryptedNumber @NotNull [] numbers) {
+        long size = HEADER_BYTES + varintSize(numbers.length);
+        for (Paillier.EncryptedNumber number : numbers) {
+            size += recordSize(number);
+        }
+
+        return size;
+    }
+
+    /**
+     * todo Public Function write(ByteBuffer, EncryptedNumber): write the message of one number
+     *
+     * @param buffer          the buffer, with size(encryptedNumber) bytes remaining
+     * @param encryptedNumber the encrypted number, obfuscated if it is not yet
+     * @throws Util.ValueErrorException if public key is not match, or the exponent is not a long
+     */
+    public void write(@NotNull ByteBuffer buffer, @NotNull Paillier.EncryptedNumber encryptedNumber)
+            throws Util.ValueErrorException {
+        check(encryptedNumber);
+        writeHeader(buffer, SINGLE);
+        writeRecord(buffer, encryptedNumber);
+    }
+
+    /**
+     * todo Public Function writeAll(ByteBuffer, EncryptedNumber[]): write the message of many numbers
+     * <p>
+     * Numbers not yet obfuscated are obfuscated in parallel first, by EncryptedNumber#obfuscateAll.
+     *
+     * @param buffer  the buffer, with size(numbers) bytes remaining
+     * @param numbers the encrypted numbers
+     * @throws Util.ValueErrorException if some public key is not match, or some exponent is not a long
+     */
+    public void writeAll(@NotNull ByteBuffer buffer, Paillier.EncryptedNumber @NotNull [] numbers)
+            throws Util.ValueErrorException {
+        for (Paillier.EncryptedNumber number : numbers) {
+            check(number);
+        }
+        Paillier.EncryptedNumber.obfuscateAll(Arrays.asList(numbers));
+
+        writeHeader(buffer, BATCH);
+        writeVarint(buffer, numbers.length);
+        for (Paillier.EncryptedNumber number : numbers) {
+            writeRecord(buffer, number);
+        }
+    }
+
+    /**
+     * todo Public Function read(ByteBuffer): read the message of one number
+     *
+     * @param buffer the buffer
+     * @return EncryptedNumber
+     * @throws Util.ValueErrorException if the message is truncated, of another version, kind or key, or malformed
+     */
+    public @NotNull Paillier.EncryptedNumber read(@NotNull ByteBuffer buffer) throws Util.ValueErrorException {
+        try {
+            readHeader(buffer, SINGLE);
+            return readRecord(buffer, buffer.hasArray() ? null : new byte[this.width]);
+        } catch (BufferUnderflowException e) {
+            throw new Util.ValueErrorException("truncated encrypted number");
+        }
+    }
+
+    /**
+     * todo Public Function readAll(ByteBuffer): read the message of many numbers
+     *
+     * @param buffer the buffer
+     * @return EncryptedNumber[]
+     * @throws Util.ValueErrorException if the message is truncated, of another version, kind or key, or malformed
+     */
+    public Paillier.EncryptedNumber @NotNull [] readAll(@NotNull ByteBuffer buffer) throws Util.ValueErrorException {
+        try {
+            readHeader(buffer, BATCH);
+            long count = readVarint(buffer);
+            // a record takes at least one byte of exponent and a ciphertext
+            if (count < 0 || count > buffer.remaining() / (1 + this.width)) {
+                throw new Util.ValueErrorException(String.format("invalid record count %d", count));
+            }
+
+            // one scratch array serves every record of a direct buffer
+            byte[] scratch = buffer.hasArray() ? null : new byte[this.width];
+            Paillier.EncryptedNumber[] numbers = new Paillier.EncryptedNumber[(int) count];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = readRecord(buffer, scratch);
+            }
+
+            return numbers;
+        } catch (BufferUnderflowException e) {
+            throw new Util.ValueErrorException("truncated encrypted numbers");
+        }
+    }
+
+    /**
+     * todo Function writeCiphertext(ByteBuffer, BigInteger): write a ciphertext as width big-endian bytes
+     *
+     * @param buffer     the buffer
+     * @param ciphertext the ciphertext, 0 <= ciphertext < n^2
+     */
+    void writeCiphertext(@NotNull ByteBuffer buffer, @NotNull BigInteger ciphertext) {
+        // the sign byte of toByteArray is dropped, and the magnitude is left-padded with zeros
+        byte[] magnitude = ciphertext.toByteArray();
+        int offset = magnitude[0] == 0 ? 1 : 0, length = magnitude.length - offset;
+        for (int i = length; i < this.width; i++) {
+            buffer.put((byte) 0);
+        }
+        buffer.put(magnitude, offset, length);
+    }
+
+    /**
+     * todo Function readCiphertext(ByteBuffer, byte[]): read a ciphertext of width big-endian bytes
+     *
+     * @param buffer  the buffer
+     * @param scratch width bytes to copy a ciphertext of a direct buffer through, null for a heap buffer
+     * @return BigInteger
+     * @throws Util.ValueErrorException if the ciphertext is 0 or not less than n^2
+     */
+    @NotNull BigInteger readCiphertext(@NotNull ByteBuffer buffer, byte[] scratch) throws Util.ValueErrorException {
+        if (buffer.remaining() < this.width) {
+            throw new BufferUnderflowException();
+        }
+        BigInteger ciphertext;
+        if (scratch == null) {
+            // a heap buffer is read in place
+            int position = buffer.position();
+            ciphertext = new BigInteger(1, buffer.array(), buffer.arrayOffset() + position, this.width);
+            buffer.position(position + this.width);
+        } else {
+            buffer.get(scratch, 0, this.width);
+            ciphertext = new BigInteger(1, scratch);
+        }
+        if (ciphertext.signum() == 0 || ciphertext.compareTo(this.publicKey.nSquare) >= 0) {
+            throw new Util.ValueErrorException("ciphertext out of range");
+        }
+
+        return ciphertext;
+    }
+
+    /**
+     * todo Private Function check(EncryptedNumber): check a number can be written
+     *
+     * @param encryptedNumber the encrypted number
+     * @throws Util.ValueErrorException if public key is not match, or the exponent is not a long
+     */
+    private void check(@NotNull Paillier.EncryptedNumber encryptedNumber) throws Util.ValueErrorException {
+        if (!this.publicKey.equals(encryptedNumber.publicKey)) {
+            throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+        }
+        if (encryptedNumber.exponent.bitLength() >= Long.SIZE) {
+            throw new Util.ValueErrorException(String.format("exponent out of range: %s", encryptedNumber.exponent));
+        }
+    }
+
+    /**
+     * todo Private Function recordSize(EncryptedNumber): the bytes of the record of a number
+     *
+     * @param encryptedNumber the encrypted number
+     * @return int
+     */
+    private int recordSize(@NotNull Paillier.EncryptedNumber encryptedNumber) {
+        return varintSize(zigzag(encryptedNumber.exponent.longValue())) + this.width;
+    }
+
+    /**
+     * todo Private Function writeHeader(ByteBuffer, byte): write the version, the kind and the fingerprint
+     *
+     * @param buffer the buffer
+     * @param kind   SINGLE or BATCH
+     */
+    private void writeHeader(@NotNull ByteBuffer buffer, byte kind) {
+        buffer.put(VERSION).put(kind);
+        for (int shift = Long.SIZE - 8; shift >= 0; shift -= 8) {
+            buffer.put((byte) (this.fingerprint >>> shift));
+        }
+    }
+
+    /**
+     * todo Private Function readHeader(ByteBuffer, byte): read and check the version, the kind and the fingerprint
+     *
+     * @param buffer the buffer
+     * @param kind   SINGLE or BATCH
+     * @throws Util.ValueErrorException if the version, the kind or the fingerprint is not match
+     */
+    private void readHeader(@NotNull ByteBuffer buffer, byte kind) throws Util.ValueErrorException {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new Util.ValueErrorException(String.format("unsupported wire format version %d", version));
+        }
+        if (buffer.get() != kind) {
+            throw new Util.ValueErrorException(kind == BATCH ? "not a batch of encrypted numbers"
+                    : "not a single encrypted number");
+        }
+        long fingerprint = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            fingerprint = fingerprint << 8 | buffer.get() & 0xFF;
+        }
+        if (fingerprint != this.fingerprint) {
+            throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+        }
+    }
+
+    /**
+     * todo Private Function writeRecord(ByteBuffer, EncryptedNumber): write the exponent and the ciphertext
+     *
+     * @param buffer          the buffer
+     * @param encryptedNumber the encrypted number
+     */
+    private void writeRecord(@NotNull ByteBuffer buffer, @NotNull Paillier.EncryptedNumber encryptedNumber) {
+        boolean beSecure = true;
+        BigInteger ciphertext = encryptedNumber.ciphertext(beSecure);
+        writeVarint(buffer, zigzag(encryptedNumber.exponent.longValue()));
+        writeCiphertext(buffer, ciphertext);
+    }
+
+    /**
+     * todo Private Function readRecord(ByteBuffer, byte[]): read the exponent and the ciphertext
+     *
+     * @param buffer  the buffer
+     * @param scratch width bytes for a direct buffer, null for a heap buffer
+     * @return EncryptedNumber
+     * @throws Util.ValueErrorException if the record is malformed
+     */
+    private @NotNull Paillier.EncryptedNumber readRecord(@NotNull ByteBuffer buffer, byte[] scratch)
+            throws Util.ValueErrorException {
+        long zigzag = readVarint(buffer);
+        BigInteger exponent = BigInteger.valueOf(zigzag >>> 1 ^ -(zigzag & 1));
+        BigInteger ciphertext = readCiphertext(buffer, scratch);
+
+        return Paillier.EncryptedNumber.obfuscated(this.publicKey, ciphertext, exponent);
+    }
+
+    /**
+     * todo Private Static Function zigzag(long): a signed value as an unsigned one, small magnitudes first
+     *
+     * @param value the value
+     * @return long 2 * value if value >= 0, else -2 * value - 1
+     */
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    /**
+     * todo Private Static Function varintSize(long): the bytes of an unsigned varint
+     *
+     * @param value the value, unsigned
+     * @return int
+     */
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * todo Private Static Function writeVarint(ByteBuffer, long): 7 bits per byte, least significant first
+     *
+     * @param buffer the buffer
+     * @param value  the value, unsigned
+     */
+    private static void writeVarint(@NotNull ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * todo Private Static Function readVarint(ByteBuffer): read an unsigned varint
+     *
+     * @param buffer the buffer
+     * @return long
+     * @throws Util.ValueErrorException if the varint is longer than a long
+     */
+    private static long readVarint(@NotNull ByteBuffer buffer) throws Util.ValueErrorException {
+        long value = 0;
+        for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << 7 * i;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new Util.ValueErrorException("varint too long");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<CiphertextCodec width=%d fingerprint=%016x>", this.width, this.fingerprint);
+    }
+}
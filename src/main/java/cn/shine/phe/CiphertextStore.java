@@ -0,0 +1,576 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   CiphertextStore
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 09:10
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * todo Public Class CiphertextStore: a file of encrypted numbers of one public key, read through FileChannel.map
+ * <p>
+ * The file is a header of HEADER_BYTES, the magic, the version, the key fingerprint of CiphertextCodec, the ciphertext
+ * width, the rows of a block and the row count, followed by blocks of blockRows rows. A block is an exponent column of
+ * one big-endian long per row, then a ciphertext column of one width-byte slot per row, so row i is found by
+ * arithmetic alone and a block maps into a single MappedByteBuffer however many rows the file holds. Rows are read
+ * into BigIntegers only when they are visited, by get(long), by the Spliterator of a scan, or by sum(), which folds the
+ * rows of each block straight from the mapped column into an EncryptedAccumulator.
+ * <p>
+ * Appends are serialized and readers may scan concurrently. Every syncInterval appends, and on close(), the blocks are
+ * forced to the disk before the row count of the header, so a file reopened after a crash holds the rows of the last
+ * sync and never a row that was not written.
+ *
+ * @author Zhan Shi
+ */
+public class CiphertextStore implements AutoCloseable {
+    /**
+     * MAGIC: "PHEC", the first four bytes of the file
+     */
+    public static final int MAGIC = 0x50484543;
+    /**
+     * VERSION: the version of the file format
+     */
+    public static final byte VERSION = 1;
+    /**
+     * HEADER_BYTES: the bytes of the header, the first block starts after them
+     */
+    public static final int HEADER_BYTES = 64;
+    /**
+     * DEFAULT_BLOCK_ROWS:    the rows of a block of a new file, about 8 MB for a 2048-bit key
+     * DEFAULT_SYNC_INTERVAL: the appends between two syncs
+     */
+    public static final Integer DEFAULT_BLOCK_ROWS = 1 << 14, DEFAULT_SYNC_INTERVAL = 4096;
+    /**
+     * FINGERPRINT_OFFSET, WIDTH_OFFSET, BLOCK_ROWS_OFFSET, COUNT_OFFSET: the fields of the header after the magic and
+     * the version
+     */
+    private static final int FINGERPRINT_OFFSET = 8, WIDTH_OFFSET = 16, BLOCK_ROWS_OFFSET = 20, COUNT_OFFSET = 24;
+    /**
+     * EXPONENT_BYTES: the bytes of an exponent slot
+     */
+    private static final int EXPONENT_BYTES = Long.BYTES;
+    /**
+     * publicKey: the public key of every row
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * blockRows: the rows of a block
+     */
+    public final int blockRows;
+    /**
+     * codec: the fingerprint, the width and the ciphertext slots
+     */
+    private final CiphertextCodec codec;
+    /**
+     * channel: the file
+     * header:  the mapped header
+     */
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    /**
+     * syncInterval: the appends between two syncs
+     * blockBytes:   the bytes of a block
+     */
+    private final int syncInterval;
+    private final long blockBytes;
+    /**
+     * blocks: the mapped blocks, null until first used, replaced by a longer copy when the file grows
+     */
+    private volatile MappedByteBuffer[] blocks;
+    /**
+     * count:  the number of rows
+     * synced: the number of rows forced to the disk and counted by the header
+     */
+    private volatile long count;
+    private long synced;
+
+    /**
+     * todo Function CiphertextStore(PaillierPublicKey, FileChannel, Integer, Integer): Class CiphertextStore init
+     *
+     * @param publicKey    the public key of every row
+     * @param channel      the file, open to read and write
+     * @param blockRows    the rows of a block, used if the file is empty
+     * @param syncInterval the appends between two syncs
+     * @throws IOException              if the file could not be read or mapped
+     * @throws Util.ValueErrorException if the file is not a store of publicKey
+     */
+    private CiphertextStore(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull FileChannel channel,
+                            @NotNull Integer blockRows, @NotNull Integer syncInterval)
+            throws IOException, Util.ValueErrorException {
+        this.publicKey = publicKey;
+        this.codec = new CiphertextCodec(publicKey);
+        this.channel = channel;
+        this.syncInterval = syncInterval;
+
+        boolean empty = channel.size() == 0;
+        if (!empty && channel.size() < HEADER_BYTES) {
+            throw new Util.ValueErrorException("not a ciphertext store");
+        }
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (empty) {
+            this.header.putInt(0, MAGIC).put(4, VERSION).putLong(FINGERPRINT_OFFSET, this.codec.fingerprint)
+                    .putInt(WIDTH_OFFSET, this.codec.width).putInt(BLOCK_ROWS_OFFSET, blockRows)
+                    .putLong(COUNT_OFFSET, 0);
+            this.header.force();
+        } else {
+            checkHeader();
+        }
+
+        this.blockRows = this.header.getInt(BLOCK_ROWS_OFFSET);
+        this.blockBytes = (long) this.blockRows * (EXPONENT_BYTES + this.codec.width);
+        this.count = this.header.getLong(COUNT_OFFSET);
+        this.synced = this.count;
+        this.blocks = new MappedByteBuffer[0];
+        if (this.blockBytes > Integer.MAX_VALUE || this.count < 0
+                || HEADER_BYTES + blockOf(this.count + this.blockRows - 1) * this.blockBytes > channel.size()) {
+            throw new Util.ValueErrorException("corrupt ciphertext store header");
+        }
+    }
+
+    /**
+     * @param file      the file, created if it does not exist
+     * @param publicKey the public key of every row
+     * @return CiphertextStore
+     * @see CiphertextStore#open(Path, Paillier.PaillierPublicKey, Integer, Integer)
+     */
+    public static @NotNull CiphertextStore open(@NotNull Path file, @NotNull Paillier.PaillierPublicKey publicKey) {
+        return open(file, publicKey, DEFAULT_BLOCK_ROWS, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * todo Public Static Function open(Path, PaillierPublicKey, Integer, Integer): open or create a store
+     *
+     * @param file         the file, created if it does not exist
+     * @param publicKey    the public key of every row
+     * @param blockRows    the rows of a block of a new file, lowered so a block stays below 2 GB; an existing file
+     *                     keeps its own
+     * @param syncInterval the appends between two syncs
+     * @return CiphertextStore
+     * @throws Util.ValueErrorException if blockRows or syncInterval is not positive, or the file is not a store of
+     *                                  publicKey
+     * @throws UncheckedIOException     if the file could not be opened or mapped
+     */
+    public static @NotNull CiphertextStore open(@NotNull Path file, @NotNull Paillier.PaillierPublicKey publicKey,
+                                                @NotNull Integer blockRows, @NotNull Integer syncInterval)
+            throws Util.ValueErrorException, UncheckedIOException {
+        if (blockRows <= 0 || syncInterval <= 0) {
+            throw new Util.ValueErrorException("blockRows and syncInterval should be positive");
+        }
+        int width = new CiphertextCodec(publicKey).width;
+        int rows = Math.min(blockRows, Integer.MAX_VALUE / (EXPONENT_BYTES + width));
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new CiphertextStore(publicKey, channel, rows, syncInterval);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException(e);
+        } catch (Util.ValueErrorException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * todo Public Function size(): the number of rows
+     *
+     * @return long
+     */
+    public long size() {
+        return this.count;
+    }
+
+    /**
+     * todo Public Function get(long): row index
+     *
+     * @param index the index
+     * @return EncryptedNumber, marked obfuscated as it was obfuscated when appended
+     * @throws IndexOutOfBoundsException if index is not in [0, size())
+     */
+    public @NotNull Paillier.EncryptedNumber get(long index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException(String.format("row %d of %d", index, this.count));
+        }
+
+        return row(index, new byte[this.codec.width]);
+    }
+
+    /**
+     * todo Public Function append(EncryptedNumber): add a row at the end
+     *
+     * @param encryptedNumber the encrypted number, obfuscated if it is not yet
+     * @return long the index of the row
+     * @throws Util.ValueErrorException if public key is not match, or the exponent is not a long
+     * @throws UncheckedIOException     if the file could not grow
+     */
+    public synchronized long append(@NotNull Paillier.EncryptedNumber encryptedNumber)
+            throws Util.ValueErrorException, UncheckedIOException {
+        check(encryptedNumber);
+        boolean beSecure = true;
+        BigInteger ciphertext = encryptedNumber.ciphertext(beSecure);
+
+        long index = this.count;
+        int row = rowOf(index);
+        MappedByteBuffer block = block(blockOf(index));
+        block.putLong(row * EXPONENT_BYTES, encryptedNumber.exponent.longValue());
+        ByteBuffer slot = block.duplicate();
+        slot.position(this.blockRows * EXPONENT_BYTES + row * this.codec.width);
+        this.codec.writeCiphertext(slot, ciphertext);
+        this.count = index + 1;
+
+        if (this.count - this.synced >= this.syncInterval) {
+            sync();
+        }
+
+        return index;
+    }
+
+    /**
+     * todo Public Function appendAll(Collection): add rows at the end, in iteration order
+     * <p>
+     * Numbers not yet obfuscated are obfuscated in parallel first, by EncryptedNumber#obfuscateAll.
+     *
+     * @param numbers the encrypted numbers
+     * @return long the index of the first row
+     * @throws Util.ValueErrorException if some public key is not match, or some exponent is not a long
+     * @throws UncheckedIOException     if the file could not grow
+     */
+    public synchronized long appendAll(@NotNull Collection<Paillier.EncryptedNumber> numbers)
+            throws Util.ValueErrorException, UncheckedIOException {
+        for (Paillier.EncryptedNumber number : numbers) {
+            check(number);
+        }
+        Paillier.EncryptedNumber.obfuscateAll(numbers);
+
+        long first = this.count;
+        for (Paillier.EncryptedNumber number : numbers) {
+            append(number);
+        }
+
+        return first;
+    }
+
+    /**
+     * todo Public Function sync(): force the rows to the disk, then count them in the header
+     *
+     * @throws UncheckedIOException if the file could not be forced
+     */
+    public synchronized void sync() throws UncheckedIOException {
+        if (this.synced == this.count) {
+            return;
+        }
+        for (long b = blockOf(this.synced); b <= blockOf(this.count - 1); b++) {
+            block(b).force();
+        }
+        this.header.putLong(COUNT_OFFSET, this.count);
+        this.header.force();
+        this.synced = this.count;
+    }
+
+    /**
+     * todo Public Function spliterator(): the rows of [0, size()), split by halves for a parallel scan
+     *
+     * @return Spliterator of EncryptedNumber
+     */
+    public @NotNull Spliterator<Paillier.EncryptedNumber> spliterator() {
+        return new Rows(0, this.count);
+    }
+
+    /**
+     * todo Public Function stream(boolean): the rows of [0, size())
+     *
+     * @param parallel a parallel stream or not
+     * @return Stream of EncryptedNumber
+     */
+    public @NotNull Stream<Paillier.EncryptedNumber> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
+
+    /**
+     * @return EncryptedNumber the sum of every row
+     * @see CiphertextStore#sum(ForkJoinPool)
+     */
+    public @NotNull Paillier.EncryptedNumber sum() {
+        return sum(null);
+    }
+
+    /**
+     * todo Public Function sum(ForkJoinPool): the sum of every row, one block per task
+     * <p>
+     * The ciphertexts of a block are read in order from its mapped column into an EncryptedAccumulator, with one
+     * scratch array per block and no EncryptedNumber per row, and the accumulators of the blocks are merged.
+     *
+     * @param pool the fork-join pool, null for the common pool
+     * @return EncryptedNumber the sum of the rows of [0, size()), at their least exponent
+     */
+    public @NotNull Paillier.EncryptedNumber sum(ForkJoinPool pool) {
+        long rows = this.count;
+        EncryptedAccumulator[] partial = new EncryptedAccumulator[Math.toIntExact(blockOf(rows + this.blockRows - 1))];
+        Batch.forEach(pool, partial.length, 1, b -> partial[b] = sumBlock(b, rows));
+
+        EncryptedAccumulator sum = new EncryptedAccumulator(this.publicKey);
+        for (EncryptedAccumulator accumulator : partial) {
+            sum.merge(accumulator);
+        }
+
+        return sum.result();
+    }
+
+    /**
+     * todo Public Function close(): sync, then close the file
+     *
+     * @throws UncheckedIOException if the file could not be forced or closed
+     */
+    @Override
+    public synchronized void close() throws UncheckedIOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        sync();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * todo Private Function sumBlock(int, long): the accumulator of the rows of block b below rows
+     *
+     * @param b    the block
+     * @param rows the number of rows summed
+     * @return EncryptedAccumulator
+     */
+    private @NotNull EncryptedAccumulator sumBlock(int b, long rows) {
+        EncryptedAccumulator accumulator = new EncryptedAccumulator(this.publicKey);
+        MappedByteBuffer block = block(b);
+        ByteBuffer ciphertexts = block.duplicate();
+        ciphertexts.position(this.blockRows * EXPONENT_BYTES);
+        byte[] scratch = new byte[this.codec.width];
+        int size = (int) Math.min(this.blockRows, rows - (long) b * this.blockRows);
+        for (int row = 0; row < size; row++) {
+            BigInteger exponent = BigInteger.valueOf(block.getLong(row * EXPONENT_BYTES));
+            accumulator.add(exponent, this.codec.readCiphertext(ciphertexts, scratch));
+        }
+
+        return accumulator;
+    }
+
+    /**
+     * todo Private Function row(long, byte[]): read row index
+     *
+     * @param index   the index, in [0, size())
+     * @param scratch width bytes to copy the ciphertext through
+     * @return EncryptedNumber
+     */
+    private @NotNull Paillier.EncryptedNumber row(long index, byte @NotNull [] scratch) {
+        int row = rowOf(index);
+        MappedByteBuffer block = block(blockOf(index));
+        BigInteger exponent = BigInteger.valueOf(block.getLong(row * EXPONENT_BYTES));
+        ByteBuffer slot = block.duplicate();
+        slot.position(this.blockRows * EXPONENT_BYTES + row * this.codec.width);
+
+        return Paillier.EncryptedNumber.obfuscated(this.publicKey, this.codec.readCiphertext(slot, scratch), exponent);
+    }
+
+    /**
+     * todo Private Function block(long): block b, mapped on first use, which grows the file to hold it
+     *
+     * @param b the block
+     * @return MappedByteBuffer
+     * @throws UncheckedIOException if the block could not be mapped
+     */
+    private @NotNull MappedByteBuffer block(long b) throws UncheckedIOException {
+        MappedByteBuffer[] blocks = this.blocks;
+        if (b < blocks.length && blocks[(int) b] != null) {
+            return blocks[(int) b];
+        }
+
+        synchronized (this.channel) {
+            blocks = this.blocks;
+            if (b < blocks.length && blocks[(int) b] != null) {
+                return blocks[(int) b];
+            }
+            // a new array is published, readers never see the one being filled
+            blocks = Arrays.copyOf(blocks, (int) Math.max(b + 1, blocks.length));
+            try {
+                blocks[(int) b] = this.channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + b * this.blockBytes,
+                        this.blockBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.blocks = blocks;
+
+            return blocks[(int) b];
+        }
+    }
+
+    /**
+     * todo Private Function blockOf(long): the block of row index
+     *
+     * @param index the index
+     * @return long
+     */
+    private long blockOf(long index) {
+        return index / this.blockRows;
+    }
+
+    /**
+     * todo Private Function rowOf(long): the row of index in its block
+     *
+     * @param index the index
+     * @return int
+     */
+    private int rowOf(long index) {
+        return (int) (index % this.blockRows);
+    }
+
+    /**
+     * todo Private Function check(EncryptedNumber): check a number can be appended
+     *
+     * @param encryptedNumber the encrypted number
+     * @throws Util.ValueErrorException if public key is not match, or the exponent is not a long
+     */
+    private void check(@NotNull Paillier.EncryptedNumber encryptedNumber) throws Util.ValueErrorException {
+        if (!this.publicKey.equals(encryptedNumber.publicKey)) {
+            throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+        }
+        if (encryptedNumber.exponent.bitLength() >= Long.SIZE) {
+            throw new Util.ValueErrorException(String.format("exponent out of range: %s", encryptedNumber.exponent));
+        }
+    }
+
+    /**
+     * todo Private Function checkHeader(): check the header of an existing file
+     *
+     * @throws Util.ValueErrorException if the file is not a store of this version and public key
+     */
+    private void checkHeader() throws Util.ValueErrorException {
+        if (this.header.getInt(0) != MAGIC) {
+            throw new Util.ValueErrorException("not a ciphertext store");
+        }
+        if (this.header.get(4) != VERSION) {
+            throw new Util.ValueErrorException(String.format("unsupported store version %d", this.header.get(4)));
+        }
+        if (this.header.getLong(FINGERPRINT_OFFSET) != this.codec.fingerprint
+                || this.header.getInt(WIDTH_OFFSET) != this.codec.width) {
+            throw new Util.ValueErrorException("the store was written against a different key");
+        }
+        if (this.header.getInt(BLOCK_ROWS_OFFSET) <= 0) {
+            throw new Util.ValueErrorException("corrupt ciphertext store header");
+        }
+    }
+
+    /**
+     * todo Private Static Function closeQuietly(FileChannel): close a channel that failed to open as a store
+     *
+     * @param channel the channel, or null
+     */
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the failure to open is reported instead
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<CiphertextStore size=%d blockRows=%d width=%d>", this.count, this.blockRows,
+                this.codec.width);
+    }
+
+    /**
+     * todo Private Class Rows: the rows of [from, to), each read when visited
+     */
+    private class Rows implements Spliterator<Paillier.EncryptedNumber> {
+        /**
+         * from: the next row
+         * to:   the row after the last one
+         */
+        private long from;
+        private final long to;
+        /**
+         * scratch: width bytes to copy the ciphertexts through, one per spliterator
+         */
+        private final byte[] scratch;
+
+        /**
+         * todo Function Rows(long, long): Class Rows init
+         *
+         * @param from the first row
+         * @param to   the row after the last one
+         */
+        Rows(long from, long to) {
+            this.from = from;
+            this.to = to;
+            this.scratch = new byte[CiphertextStore.this.codec.width];
+        }
+
+        @Override
+        public boolean tryAdvance(@NotNull Consumer<? super Paillier.EncryptedNumber> action) {
+            if (this.from >= this.to) {
+                return false;
+            }
+            action.accept(row(this.from++, this.scratch));
+
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(@NotNull Consumer<? super Paillier.EncryptedNumber> action) {
+            while (this.from < this.to) {
+                action.accept(row(this.from++, this.scratch));
+            }
+        }
+
+        @Override
+        public Spliterator<Paillier.EncryptedNumber> trySplit() {
+            long middle = (this.from + this.to) >>> 1;
+            if (middle <= this.from) {
+                return null;
+            }
+            Rows prefix = new Rows(this.from, middle);
+            this.from = middle;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.to - this.from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
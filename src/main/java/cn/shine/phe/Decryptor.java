@@ -0,0 +1,373 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   Decryptor
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 02:40
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * todo Public Class Decryptor: CRT decryption with everything fixed for the private key precomputed
+ * <p>
+ * Each half keeps its exponent, h and the inverse of its prime modulo a power of two, so L(x) = (x - 1) / p is an
+ * exact Hensel division by one multiplication. BigInteger#modPow already recodes the exponent in sliding windows
+ * over Montgomery arithmetic, which is kept. With a fork-join pool the p-half runs on the pool while the calling
+ * thread computes the q-half, this halves the latency of one decryption on an idle machine.
+ * <p>
+ * rawDecryptBounded decrypts modulo p alone when the caller declares a bound on the plaintext below p / 2.
+ * <p>
+ * decryptAll splits an array of ciphertexts over the pool, or the common pool, and writes straight into primitive
+ * arrays without EncodedNumber or BigDecimal. Overflows are reported by index instead of thrown.
+ *
+ * @author Zhan Shi
+ */
+public class Decryptor {
+    /**
+     * BATCH_GRAIN: the number of ciphertexts below which a batch is not split any further
+     */
+    private static final int BATCH_GRAIN = 4;
+    /**
+     * privateKey: the private key of the decryptor
+     */
+    public final Paillier.PaillierPrivateKey privateKey;
+    /**
+     * pool: runs the p-half at the same time as the q-half, or null to run them one after the other
+     */
+    private final ForkJoinPool pool;
+    /**
+     * pHalf: decryption modulo p
+     * qHalf: decryption modulo q
+     */
+    private final Half pHalf, qHalf;
+    /**
+     * pInverse: the inverse of p modulo q
+     */
+    private final BigInteger pInverse;
+    /**
+     * negativeBound: n - maxInt, the smallest encoding of a negative number
+     */
+    private final BigInteger negativeBound;
+
+    /**
+     * @param privateKey the private key of the decryptor
+     * @see Decryptor#Decryptor(Paillier.PaillierPrivateKey, ForkJoinPool)
+     */
+    public Decryptor(@NotNull Paillier.PaillierPrivateKey privateKey) {
+        this(privateKey, null);
+    }
+
+    /**
+     * todo Public Function Decryptor(PaillierPrivateKey, ForkJoinPool): Class Decryptor init
+     *
+     * @param privateKey the private key of the decryptor
+     * @param pool       runs the p-half at the same time as the q-half, or null to run them one after the other
+     */
+    public Decryptor(@NotNull Paillier.PaillierPrivateKey privateKey, ForkJoinPool pool) {
+        this.privateKey = privateKey;
+        this.pool = pool;
+
+        BigInteger n = privateKey.publicKey.n;
+        this.pHalf = new Half(privateKey.p, n);
+        this.qHalf = new Half(privateKey.q, n);
+        this.pInverse = Util.invert(privateKey.p, privateKey.q);
+        this.negativeBound = n.subtract(privateKey.publicKey.maxInt);
+    }
+
+    /**
+     * todo Public Function rawDecrypt(BigInteger): the plaintext of ciphertext modulo n
+     *
+     * @param ciphertext the ciphertext
+     * @return BigInteger
+     */
+    public @NotNull BigInteger rawDecrypt(@NotNull BigInteger ciphertext) {
+        return rawDecrypt(ciphertext, this.pool != null);
+    }
+
+    /**
+     * todo Public Function rawDecryptModP(BigInteger): the plaintext of ciphertext modulo p, from the p-half alone
+     *
+     * @param ciphertext the ciphertext
+     * @return BigInteger
+     */
+    public @NotNull BigInteger rawDecryptModP(@NotNull BigInteger ciphertext) {
+        return this.pHalf.decrypt(ciphertext);
+    }
+
+    /**
+     * todo Public Function rawDecryptBounded(BigInteger, BigInteger): the plaintext modulo n of a bounded plaintext
+     * <p>
+     * The encoding of a signed plaintext m is m modulo n, and p divides n, so the residue modulo p is m modulo p. When
+     * 2 * bound is below p that residue determines m, and the q-half and the recombination are skipped. Larger bounds,
+     * and residues between bound and p - bound, which break the declared bound, take the full decryption. A plaintext
+     * that breaks the bound by p - 2 * bound or more is not detected.
+     *
+     * @param ciphertext the ciphertext
+     * @param bound      the largest magnitude of the signed plaintext
+     * @return BigInteger, in the maxInt encoding of rawDecrypt(BigInteger)
+     * @throws Util.ValueErrorException if bound is negative
+     */
+    public @NotNull BigInteger rawDecryptBounded(@NotNull BigInteger ciphertext, @NotNull BigInteger bound)
+            throws Util.ValueErrorException {
+        if (bound.signum() < 0) {
+            throw new Util.ValueErrorException("bound should not be negative");
+        }
+        if (bound.shiftLeft(1).compareTo(this.privateKey.p) >= 0) {
+            return rawDecrypt(ciphertext);
+        }
+
+        BigInteger residue = this.pHalf.decrypt(ciphertext);
+        if (residue.compareTo(bound) <= 0) {
+            return residue;
+        }
+        // m = residue - p, encoded as n + m
+        BigInteger magnitude = this.privateKey.p.subtract(residue);
+        if (magnitude.compareTo(bound) <= 0) {
+            return this.privateKey.publicKey.n.subtract(magnitude);
+        }
+
+        return rawDecrypt(ciphertext);
+    }
+
+    /**
+     * todo Public Function decryptAll(EncryptedNumber[], long[]): decrypt src, rounded half up, into dst
+     *
+     * @param src the encrypted numbers
+     * @param dst the plaintexts, 0 where the plaintext overflows a long
+     * @return BitSet the indices of overflows
+     * @throws Util.ValueErrorException if dst is shorter than src, or some public key is not match
+     */
+    public @NotNull BitSet decryptAll(Paillier.EncryptedNumber @NotNull [] src, long @NotNull [] dst)
+            throws Util.ValueErrorException {
+        return decryptAll(src, dst.length, (i, value) -> {
+            BigInteger integer = value == null ? null : round(value, src[i].exponent);
+            if (integer == null || integer.bitLength() >= Long.SIZE) {
+                dst[i] = 0;
+                return false;
+            }
+            dst[i] = integer.longValue();
+            return true;
+        });
+    }
+
+    /**
+     * todo Public Function decryptAll(EncryptedNumber[], double[]): decrypt src to the nearest doubles into dst
+     *
+     * @param src the encrypted numbers
+     * @param dst the plaintexts, NaN where the plaintext overflows
+     * @return BitSet the indices of overflows
+     * @throws Util.ValueErrorException if dst is shorter than src, or some public key is not match
+     */
+    public @NotNull BitSet decryptAll(Paillier.EncryptedNumber @NotNull [] src, double @NotNull [] dst)
+            throws Util.ValueErrorException {
+        return decryptAll(src, dst.length, (i, value) -> {
+            // scaling by a power of two is exact unless the result leaves the normal range
+            double decoding = value == null ? Double.NaN
+                    : Math.scalb(value.doubleValue(), EncodedNumber.LOG2_BASE * src[i].exponent.intValueExact());
+            dst[i] = Double.isInfinite(decoding) ? Double.NaN : decoding;
+            return !Double.isNaN(dst[i]);
+        });
+    }
+
+    /**
+     * todo Public Function decryptAll(EncryptedNumber[], BigInteger[]): decrypt src, rounded half up, into dst
+     *
+     * @param src the encrypted numbers
+     * @param dst the plaintexts, null where the plaintext overflows
+     * @return BitSet the indices of overflows
+     * @throws Util.ValueErrorException if dst is shorter than src, or some public key is not match
+     */
+    public @NotNull BitSet decryptAll(Paillier.EncryptedNumber @NotNull [] src, BigInteger @NotNull [] dst)
+            throws Util.ValueErrorException {
+        return decryptAll(src, dst.length, (i, value) -> {
+            dst[i] = value == null ? null : round(value, src[i].exponent);
+            return dst[i] != null;
+        });
+    }
+
+    /**
+     * todo Private Function decryptAll(EncryptedNumber[], int, Sink): decrypt src in parallel into sink
+     *
+     * @param src    the encrypted numbers
+     * @param length the length of the destination
+     * @param sink   stores the signed plaintext of each index, null on overflow, and tells whether it fits
+     * @return BitSet the indices of overflows
+     * @throws Util.ValueErrorException if the destination is shorter than src, or some public key is not match
+     */
+    private @NotNull BitSet decryptAll(Paillier.EncryptedNumber @NotNull [] src, int length, @NotNull Sink sink)
+            throws Util.ValueErrorException {
+        if (length < src.length) {
+            throw new Util.ValueErrorException(String.format("dst holds %d of %d plaintexts", length, src.length));
+        }
+        for (Paillier.EncryptedNumber encryptedNumber : src) {
+            if (!this.privateKey.publicKey.equals(encryptedNumber.publicKey)) {
+                throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+            }
+        }
+
+        BitSet overflows = new BitSet();
+        boolean beSecure = false;
+        Batch.forEach(this.pool, src.length, BATCH_GRAIN, i -> {
+            BigInteger encoding = rawDecrypt(src[i].ciphertext(beSecure), false);
+            if (!sink.store(i, signed(encoding))) {
+                synchronized (overflows) {
+                    overflows.set(i);
+                }
+            }
+        });
+
+        return overflows;
+    }
+
+    /**
+     * todo Private Function signed(BigInteger): the signed plaintext of an encoding
+     *
+     * @param encoding the decrypted encoding, below n
+     * @return BigInteger, or null if encoding is in neither the positive nor the negative range
+     */
+    private BigInteger signed(@NotNull BigInteger encoding) {
+        if (encoding.compareTo(this.privateKey.publicKey.maxInt) <= 0) {
+            return encoding;
+        } else if (encoding.compareTo(this.negativeBound) >= 0) {
+            return encoding.subtract(this.privateKey.publicKey.n);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * todo Private Static Function round(BigInteger, BigInteger): mantissa * BASE^exponent rounded half up
+     *
+     * @param mantissa the signed plaintext
+     * @param exponent the exponent
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger round(@NotNull BigInteger mantissa, @NotNull BigInteger exponent) {
+        int shift = EncodedNumber.LOG2_BASE * exponent.intValueExact();
+        if (shift >= 0) {
+            return mantissa.shiftLeft(shift);
+        }
+
+        BigInteger magnitude = mantissa.abs();
+        magnitude = magnitude.shiftRight(-shift).add(magnitude.testBit(-shift - 1) ? BigInteger.ONE : BigInteger.ZERO);
+
+        return mantissa.signum() < 0 ? magnitude.negate() : magnitude;
+    }
+
+    /**
+     * todo Private Function rawDecrypt(BigInteger, boolean): the plaintext of ciphertext modulo n
+     *
+     * @param ciphertext     the ciphertext
+     * @param parallelHalves run the p-half on the pool
+     * @return BigInteger
+     */
+    private @NotNull BigInteger rawDecrypt(@NotNull BigInteger ciphertext, boolean parallelHalves) {
+        BigInteger decryptToP, decryptToQ;
+        if (!parallelHalves) {
+            decryptToP = this.pHalf.decrypt(ciphertext);
+            decryptToQ = this.qHalf.decrypt(ciphertext);
+        } else {
+            ForkJoinTask<BigInteger> pTask = this.pool.submit(() -> this.pHalf.decrypt(ciphertext));
+            decryptToQ = this.qHalf.decrypt(ciphertext);
+            decryptToP = pTask.join();
+        }
+
+        return crt(decryptToP, decryptToQ);
+    }
+
+    /**
+     * todo Private Function crt(BigInteger, BigInteger): the solution modulo n = p * q
+     *
+     * @param mp the solution modulo p
+     * @param mq the solution modulo q
+     * @return BigInteger
+     */
+    private @NotNull BigInteger crt(@NotNull BigInteger mp, @NotNull BigInteger mq) {
+        BigInteger u = Util.mulMod(mq.subtract(mp), this.pInverse, this.privateKey.q);
+
+        return mp.add(u.multiply(this.privateKey.p));
+    }
+
+    /**
+     * todo Private Interface Sink: stores the plaintext of one index
+     */
+    private interface Sink {
+        /**
+         * todo Function store(int, BigInteger): store the plaintext of index i
+         *
+         * @param i     the index
+         * @param value the signed plaintext, null on overflow
+         * @return boolean the plaintext fits the destination
+         */
+        boolean store(int i, BigInteger value);
+    }
+
+    /**
+     * todo Private Static Class Half: decryption modulo one prime
+     */
+    private static final class Half {
+        /**
+         * prime:       the prime
+         * primeSquare: the square of the prime
+         * exponent:    prime - 1
+         * h:           L(g^(prime - 1) mod prime^2)^-1 mod prime
+         * hensel:      the inverse of the prime modulo 2^bits
+         * mask:        2^bits - 1
+         */
+        private final BigInteger prime, primeSquare, exponent, h, hensel, mask;
+
+        /**
+         * todo Function Half(BigInteger, BigInteger): Class Half init
+         *
+         * @param prime the prime
+         * @param n     the modulus of the public key
+         */
+        Half(@NotNull BigInteger prime, @NotNull BigInteger n) {
+            this.prime = prime;
+            this.primeSquare = prime.pow(2);
+            this.exponent = prime.subtract(BigInteger.ONE);
+            BigInteger twoPower = BigInteger.ONE.shiftLeft(prime.bitLength());
+            this.mask = twoPower.subtract(BigInteger.ONE);
+            this.hensel = prime.modInverse(twoPower);
+            // g = n + 1
+            BigInteger g = n.add(BigInteger.ONE);
+            this.h = Util.invert(lFunction(g.modPow(this.exponent, this.primeSquare)), prime);
+        }
+
+        /**
+         * todo Function decrypt(BigInteger): the plaintext of ciphertext modulo the prime
+         *
+         * @param ciphertext the ciphertext
+         * @return BigInteger
+         */
+        BigInteger decrypt(@NotNull BigInteger ciphertext) {
+            BigInteger x = ciphertext.modPow(this.exponent, this.primeSquare);
+
+            return Util.mulMod(lFunction(x), this.h, this.prime);
+        }
+
+        /**
+         * todo Private Function lFunction(BigInteger): L(x) = (x - 1) / prime by exact Hensel division
+         * <p>
+         * x - 1 is a multiple of the prime and the quotient is below 2^bits, so it is (x - 1) * prime^-1 mod 2^bits.
+         *
+         * @param x a number congruent to 1 modulo the prime, below prime^2
+         * @return BigInteger
+         */
+        private @NotNull BigInteger lFunction(@NotNull BigInteger x) {
+            BigInteger low = x.subtract(BigInteger.ONE).and(this.mask);
+
+            return low.multiply(this.hensel).and(this.mask);
+        }
+    }
+}
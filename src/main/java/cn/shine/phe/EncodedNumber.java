@@ -36,6 +36,10 @@ public class EncodedNumber {
      * MANTISSA_BITS: Double type mantissa bits -> 52
      */
     public static final Integer MANTISSA_BITS = 52;
+    /**
+     * INTEGRAL_DOUBLE_LIMIT: integral doubles below 1e7 are printed without an exponent and encoded as integers
+     */
+    private static final double INTEGRAL_DOUBLE_LIMIT = 1e7;
     /**
      * publicKey: the public key of ciphertext
      */
@@ -61,10 +65,10 @@ public class EncodedNumber {
 
     /**
      * @param publicKey the public key of ciphertext
-     * @param scalar    scalar to be encoded, must be BigInteger or BigDecimal
+     * @param scalar    scalar to be encoded, must be Integer, Long, Double, Float, BigInteger or BigDecimal
      * @return EncodedNumber
      * @throws Util.ValueErrorException if some value is lager than publicKey.maxInt
-     * @throws Util.TypeErrorException  if class of scalar is not BigInteger or BigDecimal
+     * @throws Util.TypeErrorException  if class of scalar is not supported
      * @see EncodedNumber#encode(Paillier.PaillierPublicKey, Object, Double, Integer)
      */
     public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, Object scalar) throws Util.ValueErrorException, Util.TypeErrorException {
@@ -73,11 +77,11 @@ public class EncodedNumber {
 
     /**
      * @param publicKey the public key of ciphertext
-     * @param scalar    scalar to be encoded, must be BigInteger or BigDecimal
+     * @param scalar    scalar to be encoded, must be Integer, Long, Double, Float, BigInteger or BigDecimal
      * @param precision encoding precision
      * @return EncodedNumber
      * @throws Util.ValueErrorException if some value is lager than publicKey.maxInt
-     * @throws Util.TypeErrorException  if class of scalar is not BigInteger or BigDecimal
+     * @throws Util.TypeErrorException  if class of scalar is not supported
      * @see EncodedNumber#encode(Paillier.PaillierPublicKey, Object, Double, Integer)
      */
     public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, Object scalar, Double precision) throws Util.ValueErrorException, Util.TypeErrorException {
@@ -86,97 +90,387 @@ public class EncodedNumber {
 
     /**
      * todo Public Static Function encode(PaillierPublicKey, Object, Double, Integer): Ciphertext encoding
+     * <p>
+     * Dispatches to the typed encode of scalar, Float is read through Util.wrapBig.
      *
      * @param publicKey   the public key of ciphertext
-     * @param scalar      scalar to be encoded, must be BigInteger or BigDecimal
+     * @param scalar      scalar to be encoded, must be Integer, Long, Double, Float, BigInteger or BigDecimal
      * @param precision   encoding precision
      * @param maxExponent encoding maximum exponent
      * @return EncodedNumber
      * @throws Util.ValueErrorException if some value is lager than publicKey.maxInt
-     * @throws Util.TypeErrorException  if class of scalar is not BigInteger or BigDecimal
+     * @throws Util.TypeErrorException  if class of scalar is not supported
      */
     public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, Object scalar, Double precision, Integer maxExponent) throws Util.ValueErrorException, Util.TypeErrorException {
-        scalar = Util.wrapBig(scalar);
-        BigInteger preExponent;
-        if (precision == null) {
-            if (scalar instanceof BigInteger) {
-                preExponent = BigInteger.ZERO;
-            } else if (scalar instanceof BigDecimal) {
-                BigDecimal scalarBigDecimal = (BigDecimal) scalar;
-                // get scalar exp
-                Integer binFltExponent = Util.Frexp.frexp(scalarBigDecimal.doubleValue()).exponent;
-                BigDecimal binLsbExponent = BigDecimal.valueOf(binFltExponent - MANTISSA_BITS);
-                // number with exponent <- floor(exp / log_2(16))
-                BigDecimal exponentBigDecimal = binLsbExponent.divide(BigDecimal.valueOf(LOG2_BASE), RoundingMode.FLOOR);
-                preExponent = exponentBigDecimal.toBigInteger();
-            } else {
-                throw new Util.TypeErrorException(String.format("Don't know the precision of type %s", scalar.getClass()));
-            }
+        if (scalar instanceof BigInteger) {
+            return encode(publicKey, (BigInteger) scalar, precision, maxExponent);
+        } else if (scalar instanceof BigDecimal) {
+            return encode(publicKey, (BigDecimal) scalar, precision, maxExponent);
+        } else if (scalar instanceof Double) {
+            return encode(publicKey, ((Double) scalar).doubleValue(), precision, maxExponent);
+        } else if (scalar instanceof Long || scalar instanceof Integer || scalar instanceof Short || scalar instanceof Byte) {
+            return encode(publicKey, ((Number) scalar).longValue(), precision, maxExponent);
+        } else if (scalar instanceof Float) {
+            return encode(publicKey, Util.wrapBig(scalar), precision, maxExponent);
         } else {
-            preExponent = BigDecimal.valueOf(FastMath.floor(FastMath.log(precision, BASE))).toBigInteger();
+            throw new Util.TypeErrorException(String.format("Don't know the precision of type %s", scalar == null ? null : scalar.getClass()));
         }
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, long, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, long scalar) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, null, null);
+    }
 
-        BigInteger exponent;
-        if (maxExponent == null) {
-            exponent = preExponent;
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @param precision encoding precision
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, long, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, long scalar, Double precision) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, precision, null);
+    }
+
+    /**
+     * todo Public Static Function encode(PaillierPublicKey, long, Double, Integer): integer encoding
+     *
+     * @param publicKey   the public key of ciphertext
+     * @param scalar      scalar to be encoded
+     * @param precision   encoding precision
+     * @param maxExponent encoding maximum exponent
+     * @return EncodedNumber
+     * @throws Util.ValueErrorException if some value is lager than publicKey.maxInt
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, long scalar, Double precision, Integer maxExponent) throws Util.ValueErrorException {
+        int exponent = exponent(0, precision, maxExponent);
+        BigInteger intRep;
+        if (scalar == Long.MIN_VALUE) {
+            intRep = scale(BigInteger.valueOf(scalar), exponent);
         } else {
-            exponent = BigInteger.valueOf(FastMath.min(maxExponent, preExponent.intValue()));
+            BigInteger magnitude = scale(Math.abs(scalar), -(long) LOG2_BASE * exponent);
+            intRep = scalar < 0 ? magnitude.negate() : magnitude;
         }
 
-        // convert double expand to int by multiplication and precision
-        BigInteger intRep;
+        return create(publicKey, intRep, exponent);
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, BigInteger, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigInteger scalar) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, null, null);
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @param precision encoding precision
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, BigInteger, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigInteger scalar, Double precision) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, precision, null);
+    }
+
+    /**
+     * todo Public Static Function encode(PaillierPublicKey, BigInteger, Double, Integer): integer encoding
+     *
+     * @param publicKey   the public key of ciphertext
+     * @param scalar      scalar to be encoded
+     * @param precision   encoding precision
+     * @param maxExponent encoding maximum exponent
+     * @return EncodedNumber
+     * @throws Util.ValueErrorException if some value is lager than publicKey.maxInt
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigInteger scalar, Double precision, Integer maxExponent) throws Util.ValueErrorException {
+        int exponent = exponent(0, precision, maxExponent);
+        BigInteger intRep = exponent == 0 ? scalar : scale(scalar, exponent);
+
+        return create(publicKey, intRep, exponent);
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, double, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, double scalar) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, null, null);
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @param precision encoding precision
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, double, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, double scalar, Double precision) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, precision, null);
+    }
+
+    /**
+     * todo Public Static Function encode(PaillierPublicKey, double, Double, Integer): floating point encoding
+     * <p>
+     * As with Util.wrapBig, integral values printed without an exponent (below 1e7) are encoded as integers. Other
+     * values are scaled from their exact binary value and rounded half up, where Util.wrapBig scaled their shortest
+     * decimal string: the two encodings can differ by up to two units.
+     *
+     * @param publicKey   the public key of ciphertext
+     * @param scalar      scalar to be encoded
+     * @param precision   encoding precision
+     * @param maxExponent encoding maximum exponent
+     * @return EncodedNumber
+     * @throws Util.ValueErrorException if scalar is not finite, or some value is lager than publicKey.maxInt
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, double scalar, Double precision, Integer maxExponent) throws Util.ValueErrorException {
+        if (!Double.isFinite(scalar)) {
+            throw new Util.ValueErrorException(String.format("Cannot encode %s", scalar));
+        }
+        if (scalar == Math.rint(scalar) && Math.abs(scalar) < INTEGRAL_DOUBLE_LIMIT) {
+            return encode(publicKey, (long) scalar, precision, maxExponent);
+        }
+
+        int exponent = exponent(floatExponent(scalar), precision, maxExponent);
+
+        return create(publicKey, scale(scalar, exponent), exponent);
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, BigDecimal, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigDecimal scalar) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, null, null);
+    }
+
+    /**
+     * @param publicKey the public key of ciphertext
+     * @param scalar    scalar to be encoded
+     * @param precision encoding precision
+     * @return EncodedNumber
+     * @see EncodedNumber#encode(Paillier.PaillierPublicKey, BigDecimal, Double, Integer)
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigDecimal scalar, Double precision) throws Util.ValueErrorException {
+        return encode(publicKey, scalar, precision, null);
+    }
+
+    /**
+     * todo Public Static Function encode(PaillierPublicKey, BigDecimal, Double, Integer): decimal encoding
+     * <p>
+     * Integral values are encoded as integers.
+     *
+     * @param publicKey   the public key of ciphertext
+     * @param scalar      scalar to be encoded
+     * @param precision   encoding precision
+     * @param maxExponent encoding maximum exponent
+     * @return EncodedNumber
+     * @throws Util.ValueErrorException if some value is lager than publicKey.maxInt
+     */
+    public static @NotNull EncodedNumber encode(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigDecimal scalar, Double precision, Integer maxExponent) throws Util.ValueErrorException {
+        if (scalar.scale() <= 0 || scalar.signum() == 0 || scalar.stripTrailingZeros().scale() <= 0) {
+            return encode(publicKey, scalar.toBigInteger(), precision, maxExponent);
+        }
+
+        int exponent = exponent(floatExponent(scalar.doubleValue()), precision, maxExponent);
+
+        return create(publicKey, scale(scalar, exponent), exponent);
+    }
+
+    /**
+     * todo Static Function exponentOf(double, Double): the exponent encode(PaillierPublicKey, double, Double) chooses
+     *
+     * @param scalar    a finite number
+     * @param precision encoding precision
+     * @return int
+     */
+    static int exponentOf(double scalar, Double precision) {
+        boolean integral = scalar == Math.rint(scalar) && Math.abs(scalar) < INTEGRAL_DOUBLE_LIMIT;
+
+        return exponent(integral ? 0 : floatExponent(scalar), precision, null);
+    }
+
+    /**
+     * todo Private Static Function floatExponent(double): the exponent keeping all mantissa bits of scalar
+     *
+     * @param scalar a finite number
+     * @return int floor((frexp(scalar).exponent - MANTISSA_BITS) / LOG2_BASE)
+     */
+    private static int floatExponent(double scalar) {
+        // Math.getExponent + 1 is the exponent of frexp, for subnormal numbers as well
+        int binFltExponent = Math.getExponent(scalar) + 1;
+
+        return Math.floorDiv(binFltExponent - MANTISSA_BITS, LOG2_BASE);
+    }
+
+    /**
+     * todo Private Static Function exponent(int, Double, Integer): the exponent of an encoding
+     *
+     * @param preExponent the exponent of the scalar itself
+     * @param precision   encoding precision, overrides preExponent
+     * @param maxExponent encoding maximum exponent
+     * @return int
+     */
+    private static int exponent(int preExponent, Double precision, Integer maxExponent) {
+        if (precision != null) {
+            preExponent = (int) FastMath.floor(FastMath.log(precision, BASE));
+        }
+
+        return maxExponent == null ? preExponent : FastMath.min(maxExponent, preExponent);
+    }
+
+    /**
+     * todo Private Static Function scale(double, int): round(scalar * BASE^-exponent) from the IEEE-754 bits
+     *
+     * @param scalar   a finite number
+     * @param exponent encoding exponent
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger scale(double scalar, int exponent) {
+        long bits = Double.doubleToRawLongBits(scalar);
+        int biasedExponent = (int) ((bits >>> MANTISSA_BITS) & 0x7ffL);
+        long mantissa = bits & ((1L << MANTISSA_BITS) - 1);
+        int binExponent;
+        if (biasedExponent == 0) {
+            // subnormal number
+            binExponent = -1074;
+        } else {
+            mantissa |= 1L << MANTISSA_BITS;
+            binExponent = biasedExponent - 1075;
+        }
+
+        // |scalar| * BASE^-exponent = mantissa * 2^shift
+        BigInteger magnitude = scale(mantissa, binExponent - (long) LOG2_BASE * exponent);
+
+        return bits < 0 ? magnitude.negate() : magnitude;
+    }
+
+    /**
+     * todo Private Static Function scale(long, long): round(magnitude * 2^shift), in long arithmetic when it fits
+     *
+     * @param magnitude a non-negative number
+     * @param shift     the power of two
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger scale(long magnitude, long shift) {
+        if (shift >= 0) {
+            if (shift < Long.numberOfLeadingZeros(magnitude)) {
+                return BigInteger.valueOf(magnitude << shift);
+            }
+            return BigInteger.valueOf(magnitude).shiftLeft(Math.toIntExact(shift));
+        }
+        if (shift <= -Long.SIZE) {
+            return BigInteger.ZERO;
+        }
+
+        // round half up: add the highest bit shifted out
+        int right = (int) -shift;
+        return BigInteger.valueOf((magnitude >>> right) + ((magnitude >>> (right - 1)) & 1L));
+    }
+
+    /**
+     * todo Private Static Function scale(BigInteger, int): round(scalar * BASE^-exponent) by shifts
+     *
+     * @param scalar   scalar to be encoded
+     * @param exponent encoding exponent
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger scale(@NotNull BigInteger scalar, int exponent) {
+        int shift = -LOG2_BASE * exponent;
+        if (shift >= 0) {
+            return scalar.shiftLeft(shift);
+        }
+
+        // round half up on the magnitude
+        BigInteger magnitude = scalar.abs();
+        magnitude = magnitude.shiftRight(-shift).add(magnitude.testBit(-shift - 1) ? BigInteger.ONE : BigInteger.ZERO);
+
+        return scalar.signum() < 0 ? magnitude.negate() : magnitude;
+    }
+
+    /**
+     * todo Private Static Function scale(BigDecimal, int): round(scalar * BASE^-exponent), exact powers of two
+     *
+     * @param scalar   scalar to be encoded
+     * @param exponent encoding exponent
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger scale(@NotNull BigDecimal scalar, int exponent) {
+        int shift = -LOG2_BASE * exponent;
         BigDecimal intRepBigDecimal;
-        if (scalar instanceof BigInteger) {
-            BigDecimal turnScalar = new BigDecimal((BigInteger) scalar);
-            intRepBigDecimal = turnScalar.multiply(BigDecimal.valueOf(FastMath.pow(BASE, -exponent.intValue())));
-        } else if (scalar instanceof BigDecimal) {
-            BigDecimal scalarBigDecimal = ((BigDecimal) scalar);
-            intRepBigDecimal = scalarBigDecimal.multiply(BigDecimal.valueOf(FastMath.pow(BASE, -exponent.intValue())));
+        if (shift >= 0) {
+            intRepBigDecimal = new BigDecimal(scalar.unscaledValue().shiftLeft(shift), scalar.scale());
         } else {
-            throw new Util.TypeErrorException(String.format("Don't know the precision of type %s", scalar.getClass()));
+            // 2^-k = 5^k / 10^k
+            intRepBigDecimal = scalar.multiply(new BigDecimal(BigInteger.valueOf(5).pow(-shift), -shift));
         }
-        intRep = intRepBigDecimal.setScale(0, RoundingMode.HALF_UP).toBigInteger();
 
-        if (intRep.abs().compareTo(publicKey.maxInt) > 0) {
+        return intRepBigDecimal.setScale(0, RoundingMode.HALF_UP).toBigInteger();
+    }
+
+    /**
+     * todo Private Static Function create(PaillierPublicKey, BigInteger, int): the encoding of intRep
+     *
+     * @param publicKey the public key of ciphertext
+     * @param intRep    scalar * BASE^-exponent
+     * @param exponent  encoding exponent
+     * @return EncodedNumber
+     * @throws Util.ValueErrorException if intRep is lager than publicKey.maxInt
+     */
+    private static @NotNull EncodedNumber create(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigInteger intRep, int exponent) throws Util.ValueErrorException {
+        if (intRep.bitLength() >= publicKey.maxInt.bitLength() && intRep.abs().compareTo(publicKey.maxInt) > 0) {
             String exception = "Integer needs to be within +/- %s but got %s";
             throw new Util.ValueErrorException(String.format(exception, publicKey.maxInt, intRep.abs()));
         }
 
-        return new EncodedNumber(publicKey, intRep.mod(publicKey.n), exponent);
+        return new EncodedNumber(publicKey, intRep.signum() < 0 ? intRep.add(publicKey.n) : intRep, BigInteger.valueOf(exponent));
     }
 
     /**
      * todo Public Function decode(): Ciphertext decoding
      *
      * @return Object -> BigInteger or BigDecimal
-     * @throws Util.ValueErrorException if this#encoding is larger than publicKey#n
-     * @throws StackOverflowError  if decode numeric overflow
+     * @throws Util.ValueErrorException    if this#encoding is larger than publicKey#n
+     * @throws Util.OverflowErrorException if decode numeric overflow
      */
-    public Object decode() throws Util.ValueErrorException, StackOverflowError {
-        BigInteger mantissa;
-
-        if (this.encoding.compareTo(this.publicKey.n) >= 0) {
-            throw new Util.ValueErrorException("Attempted to decode corrupted number");
-        } else if (this.encoding.compareTo(this.publicKey.maxInt) <= 0) {
-            mantissa = this.encoding;
-        } else if (this.encoding.compareTo(this.publicKey.n.subtract(this.publicKey.maxInt)) >= 0) {
-            mantissa = this.encoding.subtract(this.publicKey.n);
+    public Object decode() throws Util.ValueErrorException, Util.OverflowErrorException {
+        if (this.exponent.signum() >= 0) {
+            // int by shifting, no rounding
+            return mantissa().shiftLeft(LOG2_BASE * this.exponent.intValueExact());
         } else {
-            throw new Util.OverflowErrorException("Overflow detected in decrypted number");
+            return BigDecimal.valueOf(decodeDouble());
         }
+    }
 
-        if (this.exponent.compareTo(BigInteger.ZERO) >= 0) {
-            BigInteger decoding = BigDecimal.valueOf(FastMath.pow(BASE, this.exponent.intValue())).toBigInteger();
-            // double to int by multiplication
-            return mantissa.multiply(decoding);
-        } else {
-            try {
-                // double to double by division
-                return BigDecimal.valueOf(mantissa.doubleValue() / FastMath.pow(BASE, -this.exponent.intValue()));
-            } catch (Exception e) {
-                throw new Util.OverflowErrorException(String.format("decoded result too large for a float: from %s", e));
-            }
+    /**
+     * todo Public Function decodeDouble(): Ciphertext decoding to the nearest double
+     *
+     * @return double
+     * @throws Util.ValueErrorException    if this#encoding is larger than publicKey#n
+     * @throws Util.OverflowErrorException if the result is too large for a double
+     */
+    public double decodeDouble() throws Util.ValueErrorException, Util.OverflowErrorException {
+        BigInteger mantissa = mantissa();
+        // scaling a double by a power of two is exact unless the result leaves the normal range
+        double decoding = Math.scalb(mantissa.doubleValue(), LOG2_BASE * this.exponent.intValueExact());
+        if (Double.isInfinite(decoding)) {
+            throw new Util.OverflowErrorException(String.format("decoded result too large for a float: %s", mantissa));
         }
+
+        return decoding;
     }
 
     /**
@@ -192,9 +486,29 @@ public class EncodedNumber {
             throw new Util.ValueErrorException(String.format(exception, newExp, this.exponent));
         }
 
-        BigDecimal factor = BigDecimal.valueOf(FastMath.pow(BASE, this.exponent.subtract(newExp).intValue()));
-        BigInteger newEnc = Util.mulMod(this.encoding, factor.toBigInteger(), this.publicKey.n);
+        // encoding * BASE^(exponent - newExp) by shifting, negative numbers stay n - x
+        int shift = LOG2_BASE * this.exponent.subtract(newExp).intValueExact();
+        BigInteger newEnc = this.encoding.shiftLeft(shift).mod(this.publicKey.n);
 
         return new EncodedNumber(this.publicKey, newEnc, newExp);
     }
+
+    /**
+     * todo Private Function mantissa(): the signed integer of this#encoding
+     *
+     * @return BigInteger
+     * @throws Util.ValueErrorException    if this#encoding is larger than publicKey#n
+     * @throws Util.OverflowErrorException if this#encoding is in neither the positive nor the negative range
+     */
+    private @NotNull BigInteger mantissa() throws Util.ValueErrorException, Util.OverflowErrorException {
+        if (this.encoding.compareTo(this.publicKey.n) >= 0) {
+            throw new Util.ValueErrorException("Attempted to decode corrupted number");
+        } else if (this.encoding.compareTo(this.publicKey.maxInt) <= 0) {
+            return this.encoding;
+        } else if (this.encoding.compareTo(this.publicKey.n.subtract(this.publicKey.maxInt)) >= 0) {
+            return this.encoding.subtract(this.publicKey.n);
+        } else {
+            throw new Util.OverflowErrorException("Overflow detected in decrypted number");
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   EncryptedAccumulator
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 07:10
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+/**
+ * todo Public Class EncryptedAccumulator: a mutable sum of many encrypted numbers
+ * <p>
+ * One running product mod n^2 is kept per distinct exponent, so adding an encrypted number is a single multiplication
+ * with no intermediate EncryptedNumber and no exponent alignment. The buckets are aligned to the least exponent once,
+ * by one MultiExponentiation in result(). An accumulator is not thread safe; per-thread accumulators are combined by
+ * merge(EncryptedAccumulator), or by the collector() of a parallel stream.
+ *
+ * @author Zhan Shi
+ */
+public class EncryptedAccumulator {
+    /**
+     * publicKey: the public key of every summand
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * buckets: exponent -> product of the ciphertexts at that exponent mod n^2
+     */
+    private final Map<BigInteger, BigInteger> buckets;
+    /**
+     * count: the number of summands
+     */
+    private long count;
+
+    /**
+     * todo Public Function EncryptedAccumulator(PaillierPublicKey): Class EncryptedAccumulator init
+     *
+     * @param publicKey the public key of every summand
+     */
+    public EncryptedAccumulator(@NotNull Paillier.PaillierPublicKey publicKey) {
+        this.publicKey = publicKey;
+        this.buckets = new HashMap<>();
+        this.count = 0;
+    }
+
+    /**
+     * todo Public Static Function collector(PaillierPublicKey): sum a stream of encrypted numbers
+     *
+     * @param publicKey the public key of every summand
+     * @return Collector of EncryptedNumber into their sum
+     */
+    public static @NotNull Collector<Paillier.EncryptedNumber, EncryptedAccumulator, Paillier.EncryptedNumber>
+    collector(@NotNull Paillier.PaillierPublicKey publicKey) {
+        return Collector.of(() -> new EncryptedAccumulator(publicKey), EncryptedAccumulator::add,
+                EncryptedAccumulator::merge, EncryptedAccumulator::result);
+    }
+
+    /**
+     * todo Public Function add(EncryptedNumber): add an encrypted number in place
+     *
+     * @param other the encrypted number
+     * @return EncryptedAccumulator this
+     * @throws Util.ValueErrorException if public key is not match
+     */
+    public @NotNull EncryptedAccumulator add(@NotNull Paillier.EncryptedNumber other) throws Util.ValueErrorException {
+        if (this.publicKey != other.publicKey) {
+            throw new Util.ValueErrorException("Attempted to add numbers encoded against different public keys");
+        }
+        boolean beSecure = false;
+        accumulate(other.exponent, other.ciphertext(beSecure));
+        this.count++;
+
+        return this;
+    }
+
+    /**
+     * todo Function add(BigInteger, BigInteger): add a ciphertext at an exponent in place, with no EncryptedNumber
+     *
+     * @param exponent   the exponent
+     * @param ciphertext the ciphertext, against the public key of this accumulator
+     * @return EncryptedAccumulator this
+     */
+    @NotNull EncryptedAccumulator add(@NotNull BigInteger exponent, @NotNull BigInteger ciphertext) {
+        accumulate(exponent, ciphertext);
+        this.count++;
+
+        return this;
+    }
+
+    /**
+     * todo Public Function merge(EncryptedAccumulator): add every summand of another accumulator in place
+     *
+     * @param other the other accumulator, left unchanged
+     * @return EncryptedAccumulator this
+     * @throws Util.ValueErrorException if public key is not match
+     */
+    public @NotNull EncryptedAccumulator merge(@NotNull EncryptedAccumulator other) throws Util.ValueErrorException {
+        if (this.publicKey != other.publicKey) {
+            throw new Util.ValueErrorException("Attempted to merge sums encoded against different public keys");
+        }
+        for (Map.Entry<BigInteger, BigInteger> bucket : other.buckets.entrySet()) {
+            accumulate(bucket.getKey(), bucket.getValue());
+        }
+        this.count += other.count;
+
+        return this;
+    }
+
+    /**
+     * todo Public Function result(): the sum, at the least exponent of the summands
+     * <p>
+     * Bucket e is raised to BASE^(e - least exponent), the power that decreaseExponentTo would apply to each of its
+     * summands, and all buckets share one multi-exponentiation. The sum of no summands is the bare encryption of 0,
+     * and the sum is not re-randomized.
+     *
+     * @return EncryptedNumber the sum
+     */
+    public @NotNull Paillier.EncryptedNumber result() {
+        if (this.buckets.isEmpty()) {
+            return new Paillier.EncryptedNumber(this.publicKey, BigInteger.ONE, BigInteger.ZERO);
+        }
+
+        BigInteger exponent = null;
+        for (BigInteger e : this.buckets.keySet()) {
+            exponent = exponent == null || e.compareTo(exponent) < 0 ? e : exponent;
+        }
+        BigInteger[] bases = new BigInteger[this.buckets.size()], exponents = new BigInteger[bases.length];
+        int i = 0;
+        for (Map.Entry<BigInteger, BigInteger> bucket : this.buckets.entrySet()) {
+            bases[i] = bucket.getValue();
+            int shift = EncodedNumber.LOG2_BASE * bucket.getKey().subtract(exponent).intValueExact();
+            exponents[i++] = BigInteger.ONE.shiftLeft(shift);
+        }
+        BigInteger sum = bases.length == 1 ? bases[0]
+                : MultiExponentiation.product(bases, exponents, this.publicKey.nSquare);
+
+        return new Paillier.EncryptedNumber(this.publicKey, sum, exponent);
+    }
+
+    /**
+     * todo Public Function count(): the number of summands
+     *
+     * @return long
+     */
+    public long count() {
+        return this.count;
+    }
+
+    /**
+     * todo Public Function buckets(): the number of distinct exponents
+     *
+     * @return int
+     */
+    public int buckets() {
+        return this.buckets.size();
+    }
+
+    /**
+     * todo Private Function accumulate(BigInteger, BigInteger): multiply a ciphertext into the bucket of its exponent
+     *
+     * @param exponent   the exponent
+     * @param ciphertext the ciphertext
+     */
+    private void accumulate(@NotNull BigInteger exponent, @NotNull BigInteger ciphertext) {
+        BigInteger nSquare = this.publicKey.nSquare;
+        this.buckets.merge(exponent, ciphertext, (product, c) -> Util.mulMod(product, c, nSquare));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<EncryptedAccumulator count=%d buckets=%d>", this.count, this.buckets.size());
+    }
+}
@@ -0,0 +1,325 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   EncryptedFixed
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 07:40
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * todo Public Class EncryptedFixed: an encrypted fixed-point number at a configured decimal scale
+ * <p>
+ * A value v is encoded once as the integer v * 10^scale, rounded half even, the scale of BigDecimal. Every number of
+ * one ledger shares the scale, so adding and subtracting is a single multiplication mod n^2 and never aligns exponents
+ * the way EncryptedNumber#decreaseExponentTo does. Numbers of different scales are not added, the scale is a primitive
+ * int and never changes.
+ *
+ * @author Zhan Shi
+ */
+public class EncryptedFixed {
+    /**
+     * publicKey: the public key of the encrypted number
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * scale: the number of decimal digits after the point, the encrypted integer is value * 10^scale
+     */
+    public final int scale;
+    /**
+     * ciphertext: the ciphertext of value * 10^scale
+     */
+    private BigInteger ciphertext;
+    /**
+     * isObfuscated: the encrypted number is confused or not
+     */
+    private boolean isObfuscated;
+
+    /**
+     * todo Public Function EncryptedFixed(PaillierPublicKey, BigInteger, int): Class EncryptedFixed init
+     *
+     * @param publicKey  the public key of the encrypted number
+     * @param ciphertext the ciphertext of value * 10^scale
+     * @param scale      the number of decimal digits after the point
+     */
+    public EncryptedFixed(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull BigInteger ciphertext, int scale) {
+        this.publicKey = publicKey;
+        this.ciphertext = ciphertext;
+        this.scale = scale;
+        this.isObfuscated = false;
+    }
+
+    /**
+     * @param publicKey the public key
+     * @param scale     the number of decimal digits after the point
+     * @param value     the value
+     * @return EncryptedFixed
+     * @see EncryptedFixed#encrypt(Paillier.PaillierPublicKey, int, BigDecimal)
+     */
+    public static @NotNull EncryptedFixed encrypt(@NotNull Paillier.PaillierPublicKey publicKey, int scale,
+                                                  long value) {
+        return encrypt(publicKey, scale, BigDecimal.valueOf(value));
+    }
+
+    /**
+     * @param publicKey the public key
+     * @param scale     the number of decimal digits after the point
+     * @param value     the value, finite
+     * @return EncryptedFixed
+     * @see EncryptedFixed#encrypt(Paillier.PaillierPublicKey, int, BigDecimal)
+     */
+    public static @NotNull EncryptedFixed encrypt(@NotNull Paillier.PaillierPublicKey publicKey, int scale,
+                                                  double value) {
+        return encrypt(publicKey, scale, decimal(value));
+    }
+
+    /**
+     * todo Public Static Function encrypt(PaillierPublicKey, int, BigDecimal): encrypt value at scale
+     *
+     * @param publicKey the public key
+     * @param scale     the number of decimal digits after the point
+     * @param value     the value
+     * @return EncryptedFixed
+     * @throws Util.ValueErrorException if value * 10^scale is out of +/- maxInt
+     */
+    public static @NotNull EncryptedFixed encrypt(@NotNull Paillier.PaillierPublicKey publicKey, int scale,
+                                                  @NotNull BigDecimal value) throws Util.ValueErrorException {
+        // the bare ciphertext is obfuscated exactly once, or on export if obfuscation is lazy
+        BigInteger ciphertext = publicKey.encryptBare(encode(publicKey, scale, value));
+        EncryptedFixed encryptedFixed = new EncryptedFixed(publicKey, ciphertext, scale);
+        if (!publicKey.isLazyObfuscation()) {
+            encryptedFixed.obfuscate();
+        }
+
+        return encryptedFixed;
+    }
+
+    /**
+     * todo Public Function add(EncryptedFixed): add an encrypted number of the same scale
+     *
+     * @param other other number
+     * @return EncryptedFixed this + other
+     * @throws Util.ValueErrorException if public key or scale is not match
+     */
+    public @NotNull EncryptedFixed add(@NotNull EncryptedFixed other) throws Util.ValueErrorException {
+        check(other);
+        boolean beSecure = false;
+        BigInteger sum = Util.mulMod(this.ciphertext(beSecure), other.ciphertext(beSecure), this.publicKey.nSquare);
+
+        return new EncryptedFixed(this.publicKey, sum, this.scale);
+    }
+
+    /**
+     * @param other other number
+     * @return EncryptedFixed this + other
+     * @see EncryptedFixed#add(BigDecimal)
+     */
+    public @NotNull EncryptedFixed add(long other) {
+        return add(BigDecimal.valueOf(other));
+    }
+
+    /**
+     * @param other other number, finite
+     * @return EncryptedFixed this + other
+     * @see EncryptedFixed#add(BigDecimal)
+     */
+    public @NotNull EncryptedFixed add(double other) {
+        return add(decimal(other));
+    }
+
+    /**
+     * todo Public Function add(BigDecimal): add a plaintext, encoded at this scale
+     *
+     * @param other other number
+     * @return EncryptedFixed this + other
+     * @throws Util.ValueErrorException if other * 10^scale is out of +/- maxInt
+     */
+    public @NotNull EncryptedFixed add(@NotNull BigDecimal other) throws Util.ValueErrorException {
+        // 1 + n * other, a plaintext needs no obfuscator of its own
+        BigInteger encryptedScalar = this.publicKey.encryptBare(encode(this.publicKey, this.scale, other));
+        boolean beSecure = false;
+        BigInteger sum = Util.mulMod(this.ciphertext(beSecure), encryptedScalar, this.publicKey.nSquare);
+
+        return new EncryptedFixed(this.publicKey, sum, this.scale);
+    }
+
+    /**
+     * todo Public Function subtract(EncryptedFixed): subtract an encrypted number of the same scale
+     *
+     * @param other other number
+     * @return EncryptedFixed this - other
+     * @throws Util.ValueErrorException if public key or scale is not match
+     */
+    public @NotNull EncryptedFixed subtract(@NotNull EncryptedFixed other) throws Util.ValueErrorException {
+        return add(other.negate());
+    }
+
+    /**
+     * @param other other number
+     * @return EncryptedFixed this - other
+     * @see EncryptedFixed#subtract(BigDecimal)
+     */
+    public @NotNull EncryptedFixed subtract(long other) {
+        return add(BigDecimal.valueOf(other).negate());
+    }
+
+    /**
+     * @param other other number, finite
+     * @return EncryptedFixed this - other
+     * @see EncryptedFixed#subtract(BigDecimal)
+     */
+    public @NotNull EncryptedFixed subtract(double other) {
+        return add(decimal(other).negate());
+    }
+
+    /**
+     * todo Public Function subtract(BigDecimal): subtract a plaintext, encoded at this scale
+     *
+     * @param other other number
+     * @return EncryptedFixed this - other
+     * @throws Util.ValueErrorException if other * 10^scale is out of +/- maxInt
+     */
+    public @NotNull EncryptedFixed subtract(@NotNull BigDecimal other) throws Util.ValueErrorException {
+        return add(other.negate());
+    }
+
+    /**
+     * todo Public Function multiply(long): multiply an integer, the scale is kept
+     *
+     * @param other other number
+     * @return EncryptedFixed this * other
+     */
+    public @NotNull EncryptedFixed multiply(long other) {
+        boolean beSecure = false;
+        BigInteger product = ScalarMultiplication.power(this.publicKey, this.ciphertext(beSecure),
+                BigInteger.valueOf(other));
+
+        return new EncryptedFixed(this.publicKey, product, this.scale);
+    }
+
+    /**
+     * todo Public Function negate(): -this
+     *
+     * @return EncryptedFixed -this
+     */
+    public @NotNull EncryptedFixed negate() {
+        boolean beSecure = false;
+        BigInteger inverse = ScalarMultiplication.inverse(this.publicKey, this.ciphertext(beSecure));
+
+        return new EncryptedFixed(this.publicKey, inverse, this.scale);
+    }
+
+    /**
+     * todo Public Function decrypt(PaillierPrivateKey): the value
+     *
+     * @param privateKey the private key
+     * @return BigDecimal the value, at this scale
+     * @throws Util.ValueErrorException    if public key is not match
+     * @throws Util.OverflowErrorException if the sum left +/- maxInt
+     */
+    public @NotNull BigDecimal decrypt(@NotNull Paillier.PaillierPrivateKey privateKey)
+            throws Util.ValueErrorException, Util.OverflowErrorException {
+        if (this.publicKey != privateKey.publicKey) {
+            throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+        }
+        boolean beSecure = false;
+        BigInteger encoding = privateKey.rawDecrypt(this.ciphertext(beSecure));
+        BigInteger mantissa;
+        if (encoding.compareTo(this.publicKey.maxInt) <= 0) {
+            mantissa = encoding;
+        } else if (encoding.compareTo(this.publicKey.n.subtract(this.publicKey.maxInt)) >= 0) {
+            mantissa = encoding.subtract(this.publicKey.n);
+        } else {
+            throw new Util.OverflowErrorException("Overflow detected in decrypted number");
+        }
+
+        return new BigDecimal(mantissa, this.scale);
+    }
+
+    /**
+     * todo Public Function ciphertext(boolean): set the obfuscated of the ciphertext
+     *
+     * @param beSecure is obfuscated or not
+     * @return BigInteger
+     */
+    public BigInteger ciphertext(boolean beSecure) {
+        if (beSecure && !this.isObfuscated) {
+            this.obfuscate();
+        }
+        return this.ciphertext;
+    }
+
+    /**
+     * todo Public Function obfuscate(): the obfuscate function
+     */
+    public void obfuscate() {
+        BigInteger rPowN = this.publicKey.getObfuscator();
+        this.ciphertext = Util.mulMod(this.ciphertext, rPowN, this.publicKey.nSquare);
+        this.isObfuscated = true;
+    }
+
+    /**
+     * todo Static Function encode(PaillierPublicKey, int, BigDecimal): the encoding of value * 10^scale
+     *
+     * @param publicKey the public key
+     * @param scale     the number of decimal digits after the point
+     * @param value     the value
+     * @return BigInteger value * 10^scale rounded half even, n + that if negative
+     * @throws Util.ValueErrorException if value * 10^scale is out of +/- maxInt
+     */
+    static @NotNull BigInteger encode(@NotNull Paillier.PaillierPublicKey publicKey, int scale,
+                                      @NotNull BigDecimal value) throws Util.ValueErrorException {
+        BigInteger intRep = value.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue();
+        if (intRep.abs().compareTo(publicKey.maxInt) > 0) {
+            String exception = "Integer needs to be within +/- %s but got %s";
+            throw new Util.ValueErrorException(String.format(exception, publicKey.maxInt, intRep.abs()));
+        }
+
+        return intRep.signum() < 0 ? intRep.add(publicKey.n) : intRep;
+    }
+
+    /**
+     * todo Private Static Function decimal(double): the shortest decimal of a finite double
+     *
+     * @param value the value
+     * @return BigDecimal
+     * @throws Util.ValueErrorException if value is NaN or infinite
+     */
+    private static @NotNull BigDecimal decimal(double value) throws Util.ValueErrorException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new Util.ValueErrorException(String.format("Can not encode %s", value));
+        }
+
+        return BigDecimal.valueOf(value);
+    }
+
+    /**
+     * todo Private Function check(EncryptedFixed): check the key and the scale of an operand
+     *
+     * @param other the operand
+     * @throws Util.ValueErrorException if public key or scale is not match
+     */
+    private void check(@NotNull EncryptedFixed other) throws Util.ValueErrorException {
+        if (this.publicKey != other.publicKey) {
+            throw new Util.ValueErrorException("Attempted to add numbers encoded against different public keys");
+        }
+        if (this.scale != other.scale) {
+            String exception = "Attempted to add numbers of scale %d and %d";
+            throw new Util.ValueErrorException(String.format(exception, this.scale, other.scale));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<EncryptedFixed scale=%d>", this.scale);
+    }
+}
@@ -0,0 +1,361 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   EncryptedLinearAlgebra
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 05:00
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * todo Public Class EncryptedLinearAlgebra: products of plaintext matrices and encrypted vectors or matrices
+ * <p>
+ * An encrypted matrix is an array of EncryptedVector rows. A plaintext matrix is encoded once at one shared exponent.
+ * Every output element is a multi-exponentiation over the same ciphertexts, so the ciphertexts are prepared once as
+ * MultiExponentiation.Prepared tables, within TABLE_BYTES, and rows are evaluated in blocks across a fork-join pool.
+ * When the tables would not pay for themselves, each row is one Pippenger product instead.
+ *
+ * @author Zhan Shi
+ */
+public final class EncryptedLinearAlgebra {
+    /**
+     * TABLE_BYTES: the largest memory of the tables prepared for one set of ciphertexts
+     */
+    public static final Long TABLE_BYTES = 64L << 20;
+    /**
+     * ROW_BLOCK: the number of rows evaluated together against the same tables
+     */
+    private static final int ROW_BLOCK = 8;
+
+    /**
+     * todo Private Function EncryptedLinearAlgebra(): no instance
+     */
+    private EncryptedLinearAlgebra() {
+    }
+
+    /**
+     * @param matrix the plaintext matrix, m rows of x.size() columns
+     * @param x      the encrypted vector
+     * @return EncryptedVector
+     * @see EncryptedLinearAlgebra#multiply(double[][], EncryptedVector, ForkJoinPool)
+     */
+    public static @NotNull EncryptedVector multiply(double @NotNull [] @NotNull [] matrix, @NotNull EncryptedVector x)
+            throws Util.ValueErrorException {
+        return multiply(matrix, x, null);
+    }
+
+    /**
+     * todo Public Static Function multiply(double[][], EncryptedVector, ForkJoinPool): matrix * x
+     *
+     * @param matrix the plaintext matrix, m rows of x.size() columns
+     * @param x      the encrypted vector
+     * @param pool   the fork-join pool, or null for the common pool
+     * @return EncryptedVector of m elements
+     * @throws Util.ValueErrorException if the sizes are not match, or some entry can not be encoded
+     */
+    public static @NotNull EncryptedVector multiply(double @NotNull [] @NotNull [] matrix, @NotNull EncryptedVector x,
+                                                    ForkJoinPool pool) throws Util.ValueErrorException {
+        checkColumns(matrix, x.size());
+
+        int exponent = sharedExponent(matrix);
+
+        return multiply(mantissas(x.publicKey, matrix, exponent), exponent, x, pool);
+    }
+
+    /**
+     * @param x      the encrypted vector
+     * @param matrix the plaintext matrix, x.size() rows of p columns
+     * @return EncryptedVector
+     * @see EncryptedLinearAlgebra#multiply(EncryptedVector, double[][], ForkJoinPool)
+     */
+    public static @NotNull EncryptedVector multiply(@NotNull EncryptedVector x, double @NotNull [] @NotNull [] matrix)
+            throws Util.ValueErrorException {
+        return multiply(x, matrix, null);
+    }
+
+    /**
+     * todo Public Static Function multiply(EncryptedVector, double[][], ForkJoinPool): x^T * matrix
+     *
+     * @param x      the encrypted vector
+     * @param matrix the plaintext matrix, x.size() rows of p columns
+     * @param pool   the fork-join pool, or null for the common pool
+     * @return EncryptedVector of p elements
+     * @throws Util.ValueErrorException if the sizes are not match, or some entry can not be encoded
+     */
+    public static @NotNull EncryptedVector multiply(@NotNull EncryptedVector x, double @NotNull [] @NotNull [] matrix,
+                                                    ForkJoinPool pool) throws Util.ValueErrorException {
+        return multiply(new EncryptedVector[]{x}, matrix, pool)[0];
+    }
+
+    /**
+     * @param matrix the plaintext matrix, m rows of x.length columns
+     * @param x      the encrypted matrix, rows of one size
+     * @return EncryptedVector[]
+     * @see EncryptedLinearAlgebra#multiply(double[][], EncryptedVector[], ForkJoinPool)
+     */
+    public static EncryptedVector @NotNull [] multiply(double @NotNull [] @NotNull [] matrix,
+                                                       EncryptedVector @NotNull [] x)
+            throws Util.ValueErrorException {
+        return multiply(matrix, x, null);
+    }
+
+    /**
+     * todo Public Static Function multiply(double[][], EncryptedVector[], ForkJoinPool): matrix * x
+     * <p>
+     * Column c of the product is matrix times column c of x, over the prepared ciphertexts of that column.
+     *
+     * @param matrix the plaintext matrix, m rows of x.length columns
+     * @param x      the encrypted matrix, rows of one size p and one public key
+     * @param pool   the fork-join pool, or null for the common pool
+     * @return EncryptedVector[] m rows of p elements
+     * @throws Util.ValueErrorException if the sizes or public keys are not match, or some entry can not be encoded
+     */
+    public static EncryptedVector @NotNull [] multiply(double @NotNull [] @NotNull [] matrix,
+                                                       EncryptedVector @NotNull [] x, ForkJoinPool pool)
+            throws Util.ValueErrorException {
+        checkColumns(matrix, x.length);
+        EncryptedVector[] aligned = align(x);
+        Paillier.PaillierPublicKey publicKey = aligned[0].publicKey;
+        int columns = aligned[0].size();
+
+        int exponent = sharedExponent(matrix);
+        BigInteger[][] mantissas = mantissas(publicKey, matrix, exponent);
+        BigInteger[][] product = new BigInteger[matrix.length][columns];
+        BigInteger[] column = new BigInteger[x.length];
+        for (int c = 0; c < columns; c++) {
+            for (int j = 0; j < x.length; j++) {
+                column[j] = aligned[j].ciphertexts[c];
+            }
+            BigInteger[] ciphertexts = products(column, mantissas, publicKey.nSquare, pool);
+            for (int i = 0; i < matrix.length; i++) {
+                product[i][c] = ciphertexts[i];
+            }
+        }
+
+        BigInteger productExponent = aligned[0].exponent.add(BigInteger.valueOf(exponent));
+        EncryptedVector[] rows = new EncryptedVector[matrix.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new EncryptedVector(publicKey, product[i], productExponent);
+        }
+
+        return rows;
+    }
+
+    /**
+     * @param x      the encrypted matrix, rows of matrix.length elements
+     * @param matrix the plaintext matrix
+     * @return EncryptedVector[]
+     * @see EncryptedLinearAlgebra#multiply(EncryptedVector[], double[][], ForkJoinPool)
+     */
+    public static EncryptedVector @NotNull [] multiply(EncryptedVector @NotNull [] x,
+                                                       double @NotNull [] @NotNull [] matrix)
+            throws Util.ValueErrorException {
+        return multiply(x, matrix, null);
+    }
+
+    /**
+     * todo Public Static Function multiply(EncryptedVector[], double[][], ForkJoinPool): x * matrix
+     * <p>
+     * Row i of the product is row i of x against every column of matrix, over the prepared ciphertexts of that row.
+     *
+     * @param x      the encrypted matrix, rows of matrix.length elements
+     * @param matrix the plaintext matrix, rows of one size p
+     * @param pool   the fork-join pool, or null for the common pool
+     * @return EncryptedVector[] x.length rows of p elements
+     * @throws Util.ValueErrorException if the sizes are not match, or some entry can not be encoded
+     */
+    public static EncryptedVector @NotNull [] multiply(EncryptedVector @NotNull [] x,
+                                                       double @NotNull [] @NotNull [] matrix, ForkJoinPool pool)
+            throws Util.ValueErrorException {
+        int columns = matrix.length == 0 ? 0 : matrix[0].length;
+        checkColumns(matrix, columns);
+        // the columns of matrix are the rows of exponents
+        double[][] transposed = new double[columns][matrix.length];
+        for (int j = 0; j < matrix.length; j++) {
+            for (int c = 0; c < columns; c++) {
+                transposed[c][j] = matrix[j][c];
+            }
+        }
+
+        int exponent = sharedExponent(transposed);
+        Paillier.PaillierPublicKey encodedKey = null;
+        BigInteger[][] mantissas = null;
+        EncryptedVector[] rows = new EncryptedVector[x.length];
+        for (int i = 0; i < x.length; i++) {
+            if (x[i].size() != matrix.length) {
+                throw new Util.ValueErrorException(String.format("Sizes %d and %d are not match", x[i].size(),
+                        matrix.length));
+            }
+            // the encodings depend on n, rows of one public key share them
+            if (x[i].publicKey != encodedKey) {
+                encodedKey = x[i].publicKey;
+                mantissas = mantissas(encodedKey, transposed, exponent);
+            }
+            rows[i] = multiply(mantissas, exponent, x[i], pool);
+        }
+
+        return rows;
+    }
+
+    /**
+     * todo Private Static Function multiply(BigInteger[][], int, EncryptedVector, ForkJoinPool): encoded matrix * x
+     *
+     * @param mantissas the signed encodings of the matrix, rows of x.size() entries
+     * @param exponent  the shared exponent of the matrix
+     * @param x         the encrypted vector
+     * @param pool      the fork-join pool, or null for the common pool
+     * @return EncryptedVector
+     */
+    private static @NotNull EncryptedVector multiply(BigInteger @NotNull [] @NotNull [] mantissas, int exponent,
+                                                     @NotNull EncryptedVector x, ForkJoinPool pool) {
+        BigInteger[] ciphertexts = products(x.ciphertexts, mantissas, x.publicKey.nSquare, pool);
+
+        return new EncryptedVector(x.publicKey, ciphertexts, x.exponent.add(BigInteger.valueOf(exponent)));
+    }
+
+    /**
+     * todo Private Static Function products(BigInteger[], BigInteger[][], BigInteger, ForkJoinPool): one product per row
+     *
+     * @param bases     the ciphertexts
+     * @param exponents the rows of signed mantissas
+     * @param modulus   n^2
+     * @param pool      the fork-join pool, or null for the common pool
+     * @return BigInteger[] prod bases[j]^exponents[i][j] mod n^2 for every row i
+     */
+    private static BigInteger @NotNull [] products(BigInteger @NotNull [] bases,
+                                                   BigInteger @NotNull [] @NotNull [] exponents,
+                                                   @NotNull BigInteger modulus, ForkJoinPool pool) {
+        BigInteger[] results = new BigInteger[exponents.length];
+        int bits = 0;
+        for (BigInteger[] row : exponents) {
+            for (BigInteger exponent : row) {
+                bits = Math.max(bits, exponent.bitLength());
+            }
+        }
+
+        int window = window(bases.length, bits, exponents.length, modulus.bitLength());
+        if (window == 0) {
+            Batch.forEach(pool, exponents.length, 1,
+                    i -> results[i] = MultiExponentiation.product(bases, exponents[i], modulus));
+        } else {
+            MultiExponentiation.Prepared prepared = MultiExponentiation.prepare(bases, modulus, window);
+            int blocks = (exponents.length + ROW_BLOCK - 1) / ROW_BLOCK;
+            Batch.forEach(pool, blocks, 1, b -> prepared.products(exponents, b * ROW_BLOCK,
+                    Math.min(exponents.length, (b + 1) * ROW_BLOCK), results));
+        }
+
+        return results;
+    }
+
+    /**
+     * todo Private Static Function window(int, int, int, int): the prepared window with the fewest multiplications
+     *
+     * @param count       the number of bases
+     * @param bits        the longest exponent in bits
+     * @param rows        the number of products
+     * @param modulusBits the modulus in bits
+     * @return int, 0 if one Pippenger product per row is cheaper
+     */
+    private static int window(int count, int bits, int rows, int modulusBits) {
+        long residueBytes = (modulusBits + 31) / 32 * 4L + 60;
+        int best = 0;
+        long bestCost = rows * MultiExponentiation.pippengerCost(count, bits);
+        for (int window = 1; window <= MultiExponentiation.MAX_WINDOW
+                && (long) count * ((1 << window) - 1) * residueBytes <= TABLE_BYTES; window++) {
+            // the table, then per row one multiplication per base and window, and two chains of squarings
+            long cost = (long) count * ((1 << window) - 2)
+                    + rows * ((long) count * ((bits + window - 1) / window) + 2L * bits);
+            if (cost < bestCost) {
+                best = window;
+                bestCost = cost;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * todo Private Static Function sharedExponent(double[][]): the smallest exponent of the entries of matrix
+     *
+     * @param matrix the plaintext matrix
+     * @return int
+     */
+    private static int sharedExponent(double @NotNull [] @NotNull [] matrix) {
+        int exponent = Integer.MAX_VALUE;
+        for (double[] row : matrix) {
+            exponent = Math.min(exponent, row.length == 0 ? 0 : EncryptedVector.sharedExponent(row, null));
+        }
+
+        return matrix.length == 0 ? 0 : exponent;
+    }
+
+    /**
+     * todo Private Static Function mantissas(PaillierPublicKey, double[][], int): the signed encodings of matrix
+     *
+     * @param publicKey the public key
+     * @param matrix    the plaintext matrix
+     * @param exponent  the shared exponent
+     * @return BigInteger[][]
+     */
+    private static BigInteger @NotNull [] @NotNull [] mantissas(@NotNull Paillier.PaillierPublicKey publicKey,
+                                                                double @NotNull [] @NotNull [] matrix, int exponent) {
+        BigInteger[][] mantissas = new BigInteger[matrix.length][];
+        Batch.forEach(null, matrix.length, 1, i -> mantissas[i] = EncryptedVector.mantissas(publicKey, matrix[i],
+                exponent));
+
+        return mantissas;
+    }
+
+    /**
+     * todo Private Static Function align(EncryptedVector[]): the rows at their smallest exponent
+     *
+     * @param x the encrypted matrix
+     * @return EncryptedVector[]
+     * @throws Util.ValueErrorException if x is empty, or the sizes or public keys are not match
+     */
+    private static EncryptedVector @NotNull [] align(EncryptedVector @NotNull [] x) throws Util.ValueErrorException {
+        if (x.length == 0) {
+            throw new Util.ValueErrorException("the encrypted matrix has no rows");
+        }
+
+        BigInteger exponent = x[0].exponent;
+        for (EncryptedVector row : x) {
+            if (row.publicKey != x[0].publicKey || row.size() != x[0].size()) {
+                throw new Util.ValueErrorException("the rows of the encrypted matrix are not match");
+            }
+            exponent = exponent.min(row.exponent);
+        }
+
+        EncryptedVector[] aligned = new EncryptedVector[x.length];
+        for (int i = 0; i < x.length; i++) {
+            aligned[i] = x[i].decreaseExponentTo(exponent);
+        }
+
+        return aligned;
+    }
+
+    /**
+     * todo Private Static Function checkColumns(double[][], int): every row of matrix has columns entries
+     *
+     * @param matrix  the plaintext matrix
+     * @param columns the number of columns
+     * @throws Util.ValueErrorException if some row is of another size
+     */
+    private static void checkColumns(double @NotNull [] @NotNull [] matrix, int columns)
+            throws Util.ValueErrorException {
+        for (double[] row : matrix) {
+            if (row.length != columns) {
+                throw new Util.ValueErrorException(String.format("Sizes %d and %d are not match", row.length,
+                        columns));
+            }
+        }
+    }
+}
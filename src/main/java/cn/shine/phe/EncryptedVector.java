@@ -0,0 +1,414 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   EncryptedVector
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 03:40
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.function.Function;
+
+/**
+ * todo Public Class EncryptedVector: encrypted numbers of one public key with one shared exponent
+ * <p>
+ * The shared exponent is the smallest exponent EncodedNumber would choose for any element (block floating point), so
+ * every element keeps the precision of its own encoding. Operations align the exponents of two vectors once, not per
+ * element, and run as parallel loops on the common fork-join pool. dot(double[]) is one multi-exponentiation. Results
+ * are not obfuscated, as with EncryptedNumber, until obfuscate() is called.
+ *
+ * @author Zhan Shi
+ */
+public class EncryptedVector {
+    /**
+     * POW_GRAIN:      the elements of one task when each costs a modPow
+     * MULTIPLY_GRAIN: the elements of one task when each costs a multiplication
+     */
+    static final int POW_GRAIN = 4, MULTIPLY_GRAIN = 256;
+    /**
+     * publicKey: the public key of the vector
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * exponent: the shared exponent of the vector
+     */
+    public final BigInteger exponent;
+    /**
+     * ciphertexts: the ciphertexts of the elements
+     */
+    final BigInteger[] ciphertexts;
+
+    /**
+     * todo Public Function EncryptedVector(PaillierPublicKey, BigInteger[], BigInteger): Class EncryptedVector init
+     *
+     * @param publicKey   the public key of the vector
+     * @param ciphertexts the ciphertexts of the elements, not copied
+     * @param exponent    the shared exponent of the vector
+     */
+    public EncryptedVector(@NotNull Paillier.PaillierPublicKey publicKey, BigInteger @NotNull [] ciphertexts,
+                           @NotNull BigInteger exponent) {
+        this.publicKey = publicKey;
+        this.ciphertexts = ciphertexts;
+        this.exponent = exponent;
+    }
+
+    /**
+     * @param publicKey the public key
+     * @param values    the values to be encrypted
+     * @return EncryptedVector
+     * @see EncryptedVector#encrypt(Paillier.PaillierPublicKey, double[], Double)
+     */
+    public static @NotNull EncryptedVector encrypt(@NotNull Paillier.PaillierPublicKey publicKey,
+                                                   double @NotNull [] values) throws Util.ValueErrorException {
+        return encrypt(publicKey, values, null);
+    }
+
+    /**
+     * todo Public Static Function encrypt(PaillierPublicKey, double[], Double): encrypt values with a shared exponent
+     *
+     * @param publicKey the public key
+     * @param values    the values to be encrypted
+     * @param precision encoding precision
+     * @return EncryptedVector
+     * @throws Util.ValueErrorException if some value is not finite, or larger than publicKey.maxInt at the shared
+     *                                  exponent
+     */
+    public static @NotNull EncryptedVector encrypt(@NotNull Paillier.PaillierPublicKey publicKey,
+                                                   double @NotNull [] values, Double precision)
+            throws Util.ValueErrorException {
+        return encrypt(publicKey, values, precision, publicKey::encryptEncoded);
+    }
+
+    /**
+     * todo Public Static Function encrypt(PaillierPrivateKey, double[], Double): encrypt values as the key owner
+     *
+     * @param privateKey the private key, whose obfuscators are computed by Chinese-remaindering
+     * @param values     the values to be encrypted
+     * @param precision  encoding precision
+     * @return EncryptedVector
+     * @throws Util.ValueErrorException if some value is not finite, or larger than publicKey.maxInt at the shared
+     *                                  exponent
+     */
+    public static @NotNull EncryptedVector encrypt(@NotNull Paillier.PaillierPrivateKey privateKey,
+                                                   double @NotNull [] values, Double precision)
+            throws Util.ValueErrorException {
+        return encrypt(privateKey.publicKey, values, precision, privateKey::encryptEncoded);
+    }
+
+    /**
+     * todo Public Function size(): the number of elements
+     *
+     * @return int
+     */
+    public int size() {
+        return this.ciphertexts.length;
+    }
+
+    /**
+     * todo Public Function get(int): element i
+     *
+     * @param i the index
+     * @return EncryptedNumber
+     */
+    public @NotNull Paillier.EncryptedNumber get(int i) {
+        return new Paillier.EncryptedNumber(this.publicKey, this.ciphertexts[i], this.exponent);
+    }
+
+    /**
+     * todo Public Function add(EncryptedVector): element-wise sum
+     *
+     * @param other the other vector
+     * @return EncryptedVector this + other
+     * @throws Util.ValueErrorException if public keys or sizes are not match
+     */
+    public @NotNull EncryptedVector add(@NotNull EncryptedVector other) throws Util.ValueErrorException {
+        check(other.publicKey, other.size());
+
+        BigInteger exponent = this.exponent.min(other.exponent);
+        BigInteger[] a = this.decreaseExponentTo(exponent).ciphertexts;
+        BigInteger[] b = other.decreaseExponentTo(exponent).ciphertexts;
+        BigInteger[] sum = new BigInteger[a.length];
+        Batch.forEach(null, sum.length, MULTIPLY_GRAIN,
+                i -> sum[i] = Util.mulMod(a[i], b[i], this.publicKey.nSquare));
+
+        return new EncryptedVector(this.publicKey, sum, exponent);
+    }
+
+    /**
+     * todo Public Function add(double[]): element-wise sum with plaintext values
+     *
+     * @param values the values
+     * @return EncryptedVector this + values
+     * @throws Util.ValueErrorException if sizes are not match, or some value can not be encoded
+     */
+    public @NotNull EncryptedVector add(double @NotNull [] values) throws Util.ValueErrorException {
+        check(this.publicKey, values.length);
+
+        Integer exponent = Math.min(this.exponent.intValueExact(), sharedExponent(values, null));
+        BigInteger[] a = this.decreaseExponentTo(BigInteger.valueOf(exponent)).ciphertexts;
+        BigInteger[] sum = new BigInteger[a.length];
+        Batch.forEach(null, sum.length, MULTIPLY_GRAIN, i -> {
+            // 1 + n * m, a plaintext needs no obfuscator of its own
+            EncodedNumber encoded = EncodedNumber.encode(this.publicKey, values[i], null, exponent);
+            sum[i] = Util.mulMod(a[i], this.publicKey.encryptBare(encoded.encoding), this.publicKey.nSquare);
+        });
+
+        return new EncryptedVector(this.publicKey, sum, BigInteger.valueOf(exponent));
+    }
+
+    /**
+     * todo Public Function subtract(EncryptedVector): element-wise difference
+     *
+     * @param other the other vector
+     * @return EncryptedVector this - other
+     * @throws Util.ValueErrorException if public keys or sizes are not match
+     */
+    public @NotNull EncryptedVector subtract(@NotNull EncryptedVector other) throws Util.ValueErrorException {
+        check(other.publicKey, other.size());
+
+        return add(other.negate());
+    }
+
+    /**
+     * todo Public Function subtract(double[]): element-wise difference with plaintext values
+     *
+     * @param values the values
+     * @return EncryptedVector this - values
+     * @throws Util.ValueErrorException if sizes are not match, or some value can not be encoded
+     */
+    public @NotNull EncryptedVector subtract(double @NotNull [] values) throws Util.ValueErrorException {
+        double[] negated = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            negated[i] = -values[i];
+        }
+
+        return add(negated);
+    }
+
+    /**
+     * todo Public Function multiply(double): every element times one scalar
+     * <p>
+     * The scalar is encoded once, a negative scalar costs one batch inversion of all elements.
+     *
+     * @param scalar the scalar
+     * @return EncryptedVector this * scalar
+     * @throws Util.ValueErrorException if scalar can not be encoded
+     */
+    public @NotNull EncryptedVector multiply(double scalar) throws Util.ValueErrorException {
+        EncodedNumber encoded = EncodedNumber.encode(this.publicKey, scalar);
+        BigInteger signed = ScalarMultiplication.signed(this.publicKey, encoded.encoding);
+        BigInteger[] product = new BigInteger[size()];
+        BigInteger nSquare = this.publicKey.nSquare;
+        if (signed.signum() < 0) {
+            // c^-k = (c^-1)^k
+            BigInteger magnitude = signed.negate();
+            BigInteger[] inverses = Util.invertAll(this.ciphertexts, nSquare);
+            Batch.forEach(null, product.length, POW_GRAIN,
+                    i -> product[i] = inverses[i].modPow(magnitude, nSquare));
+        } else {
+            Batch.forEach(null, product.length, POW_GRAIN,
+                    i -> product[i] = this.ciphertexts[i].modPow(signed, nSquare));
+        }
+
+        return new EncryptedVector(this.publicKey, product, this.exponent.add(encoded.exponent));
+    }
+
+    /**
+     * todo Public Function dot(double[]): the encrypted dot product with plaintext weights
+     * <p>
+     * The weights are encoded at one shared exponent, and the product of ciphertexts[i]^weight[i] is one
+     * MultiExponentiation instead of one modPow and one exponent alignment per element.
+     *
+     * @param weights the weights
+     * @return EncryptedNumber sum this[i] * weights[i]
+     * @throws Util.ValueErrorException if sizes are not match, or some weight can not be encoded
+     */
+    public @NotNull Paillier.EncryptedNumber dot(double @NotNull [] weights) throws Util.ValueErrorException {
+        check(this.publicKey, weights.length);
+
+        int exponent = sharedExponent(weights, null);
+        BigInteger[] mantissas = mantissas(this.publicKey, weights, exponent);
+        BigInteger product = MultiExponentiation.product(this.ciphertexts, mantissas, this.publicKey.nSquare);
+
+        return new Paillier.EncryptedNumber(this.publicKey, product, this.exponent.add(BigInteger.valueOf(exponent)));
+    }
+
+    /**
+     * todo Public Function decreaseExponentTo(BigInteger): the vector at a smaller shared exponent
+     *
+     * @param newExp new exponent
+     * @return EncryptedVector, this if newExp is the exponent
+     * @throws Util.ValueErrorException if newExp > this.exponent
+     */
+    public @NotNull EncryptedVector decreaseExponentTo(@NotNull BigInteger newExp) throws Util.ValueErrorException {
+        int compare = newExp.compareTo(this.exponent);
+        if (compare > 0) {
+            String exception = "New exponent %s should be more negative than old exponent %s";
+            throw new Util.ValueErrorException(String.format(exception, newExp, this.exponent));
+        } else if (compare == 0) {
+            return this;
+        }
+
+        // BASE^(exponent - newExp) is an exact power of two
+        BigInteger factor = BigInteger.ONE.shiftLeft(
+                EncodedNumber.LOG2_BASE * this.exponent.subtract(newExp).intValueExact());
+        BigInteger[] scaled = new BigInteger[size()];
+        Batch.forEach(null, scaled.length, POW_GRAIN,
+                i -> scaled[i] = this.ciphertexts[i].modPow(factor, this.publicKey.nSquare));
+
+        return new EncryptedVector(this.publicKey, scaled, newExp);
+    }
+
+    /**
+     * todo Public Function obfuscate(): obfuscate every element in place
+     */
+    public void obfuscate() {
+        Batch.forEach(null, size(), POW_GRAIN, i -> this.ciphertexts[i] = Util.mulMod(this.ciphertexts[i],
+                this.publicKey.getObfuscator(), this.publicKey.nSquare));
+    }
+
+    /**
+     * todo Public Function decrypt(PaillierPrivateKey): the nearest doubles of the elements
+     *
+     * @param privateKey the private key
+     * @return double[]
+     * @throws Util.ValueErrorException    if public keys are not match
+     * @throws Util.OverflowErrorException if some element overflows
+     */
+    public double @NotNull [] decrypt(@NotNull Paillier.PaillierPrivateKey privateKey)
+            throws Util.ValueErrorException, Util.OverflowErrorException {
+        double[] values = new double[size()];
+        BitSet overflows = decrypt(privateKey, values);
+        if (!overflows.isEmpty()) {
+            throw new Util.OverflowErrorException(String.format("Overflow detected in elements %s", overflows));
+        }
+
+        return values;
+    }
+
+    /**
+     * todo Public Function decrypt(PaillierPrivateKey, double[]): decrypt the elements in parallel into dst
+     *
+     * @param privateKey the private key
+     * @param dst        the nearest doubles, NaN where the element overflows
+     * @return BitSet the indices of overflows
+     * @throws Util.ValueErrorException if public keys are not match, or dst is shorter than the vector
+     * @see Decryptor#decryptAll(Paillier.EncryptedNumber[], double[])
+     */
+    public @NotNull BitSet decrypt(@NotNull Paillier.PaillierPrivateKey privateKey, double @NotNull [] dst)
+            throws Util.ValueErrorException {
+        Paillier.EncryptedNumber[] src = new Paillier.EncryptedNumber[size()];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = get(i);
+        }
+
+        return privateKey.decryptAll(src, dst);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<EncryptedVector size=%d exponent=%s>", size(), this.exponent);
+    }
+
+    /**
+     * todo Static Function sharedExponent(double[], Double): the smallest exponent of the encodings of values
+     *
+     * @param values    the values
+     * @param precision encoding precision
+     * @return int, 0 for no values
+     */
+    static int sharedExponent(double @NotNull [] values, Double precision) {
+        if (values.length == 0) {
+            return 0;
+        }
+
+        int exponent = Integer.MAX_VALUE;
+        for (double value : values) {
+            exponent = Math.min(exponent, EncodedNumber.exponentOf(value, precision));
+        }
+
+        return exponent;
+    }
+
+    /**
+     * todo Static Function mantissas(PaillierPublicKey, double[], int): the signed encodings of values at exponent
+     *
+     * @param publicKey the public key
+     * @param values    the values
+     * @param exponent  the shared exponent, at most the exponent of every value
+     * @return BigInteger[] round(values[i] * BASE^-exponent)
+     * @throws Util.ValueErrorException if some value can not be encoded
+     */
+    static BigInteger @NotNull [] mantissas(@NotNull Paillier.PaillierPublicKey publicKey, double @NotNull [] values,
+                                            Integer exponent) throws Util.ValueErrorException {
+        BigInteger negativeBound = publicKey.n.subtract(publicKey.maxInt);
+        BigInteger[] mantissas = new BigInteger[values.length];
+        for (int i = 0; i < values.length; i++) {
+            BigInteger encoding = EncodedNumber.encode(publicKey, values[i], null, exponent).encoding;
+            // n - x encodes -x
+            mantissas[i] = encoding.compareTo(negativeBound) >= 0 ? encoding.subtract(publicKey.n) : encoding;
+        }
+
+        return mantissas;
+    }
+
+    /**
+     * todo Private Static Function encrypt(PaillierPublicKey, double[], Double, Function): encrypt with encryptor
+     *
+     * @param publicKey the public key
+     * @param values    the values to be encrypted
+     * @param precision encoding precision
+     * @param encryptor encrypts one encoding
+     * @return EncryptedVector
+     * @throws Util.ValueErrorException if some value is not finite, or larger than publicKey.maxInt at the shared
+     *                                  exponent
+     */
+    private static @NotNull EncryptedVector encrypt(@NotNull Paillier.PaillierPublicKey publicKey,
+                                                    double @NotNull [] values, Double precision,
+                                                    @NotNull Function<EncodedNumber, Paillier.EncryptedNumber> encryptor)
+            throws Util.ValueErrorException {
+        Integer exponent = sharedExponent(values, precision);
+        BigInteger[] ciphertexts = new BigInteger[values.length];
+        boolean beSecure = false;
+        Batch.forEach(null, values.length, POW_GRAIN, i -> {
+            EncodedNumber encoded = EncodedNumber.encode(publicKey, values[i], precision, exponent);
+            ciphertexts[i] = encryptor.apply(encoded).ciphertext(beSecure);
+        });
+
+        return new EncryptedVector(publicKey, ciphertexts, BigInteger.valueOf(exponent));
+    }
+
+    /**
+     * todo Private Function negate(): element-wise negation, one modInverse for the whole vector
+     *
+     * @return EncryptedVector -this
+     */
+    private @NotNull EncryptedVector negate() {
+        BigInteger[] negated = Util.invertAll(this.ciphertexts, this.publicKey.nSquare);
+
+        return new EncryptedVector(this.publicKey, negated, this.exponent);
+    }
+
+    /**
+     * todo Private Function check(PaillierPublicKey, int): check the key and the size of an operand
+     *
+     * @param publicKey the public key of the operand
+     * @param size      the size of the operand
+     * @throws Util.ValueErrorException if public keys or sizes are not match
+     */
+    private void check(@NotNull Paillier.PaillierPublicKey publicKey, int size) throws Util.ValueErrorException {
+        if (this.publicKey != publicKey) {
+            throw new Util.ValueErrorException("Attempted to add numbers encoded against different public keys");
+        }
+        if (size() != size) {
+            throw new Util.ValueErrorException(String.format("Sizes %d and %d are not match", size(), size));
+        }
+    }
+}
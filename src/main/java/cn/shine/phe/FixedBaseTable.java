@@ -0,0 +1,140 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   FixedBaseTable
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 01:30
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * todo Public Class FixedBaseTable: windowed fixed-base exponentiation base^e mod modulus
+ * <p>
+ * Row i holds base^(d * 2^(window * i)) for every digit d in [1, 2^window), so an exponent of exponentBits bits costs
+ * at most ceil(exponentBits / window) multiplications and no squaring. The table keeps
+ * ceil(exponentBits / window) * (2^window - 1) residues, larger windows trade memory for fewer multiplications.
+ *
+ * @author Zhan Shi
+ */
+public class FixedBaseTable {
+    /**
+     * DEFAULT_WINDOW: the window width, about 0.5 MB of residues for 256 bit exponents and 2048 bit keys
+     */
+    public static final Integer DEFAULT_WINDOW = 4;
+    /**
+     * MAX_WINDOW: the largest window width
+     */
+    public static final Integer MAX_WINDOW = 16;
+    /**
+     * base:    the fixed base
+     * modulus: the modulus
+     */
+    public final BigInteger base, modulus;
+    /**
+     * exponentBits: the longest exponent served by the table
+     * window:       the window width in bits
+     */
+    public final Integer exponentBits, window;
+    /**
+     * table: table[i][d - 1] = base^(d * 2^(window * i)) mod modulus
+     */
+    private final BigInteger[][] table;
+
+    /**
+     * todo Public Function FixedBaseTable(BigInteger, BigInteger, Integer, Integer): Class FixedBaseTable init
+     *
+     * @param base         the fixed base
+     * @param modulus      the modulus
+     * @param exponentBits the longest exponent served by the table
+     * @param window       the window width in bits
+     * @throws Util.ValueErrorException if exponentBits is not positive, or window is not in [1, MAX_WINDOW]
+     */
+    public FixedBaseTable(@NotNull BigInteger base, @NotNull BigInteger modulus, @NotNull Integer exponentBits,
+                          @NotNull Integer window) throws Util.ValueErrorException {
+        if (exponentBits <= 0) {
+            throw new Util.ValueErrorException("exponentBits should be positive");
+        }
+        if (window <= 0 || window > MAX_WINDOW) {
+            throw new Util.ValueErrorException(String.format("window should be in [1, %d]", MAX_WINDOW));
+        }
+
+        this.base = base.mod(modulus);
+        this.modulus = modulus;
+        this.exponentBits = exponentBits;
+        this.window = window;
+
+        int rows = (exponentBits + window - 1) / window, digits = (1 << window) - 1;
+        this.table = new BigInteger[rows][digits];
+        BigInteger rowBase = this.base;
+        for (int i = 0; i < rows; i++) {
+            this.table[i][0] = rowBase;
+            for (int d = 1; d < digits; d++) {
+                this.table[i][d] = Util.mulMod(this.table[i][d - 1], rowBase, modulus);
+            }
+            // rowBase^(2^window) is the base of the next row
+            rowBase = Util.mulMod(this.table[i][digits - 1], rowBase, modulus);
+        }
+    }
+
+    /**
+     * todo Public Function pow(BigInteger): base^exponent mod modulus
+     * <p>
+     * Exponents that are negative or longer than exponentBits fall back to BigInteger#modPow.
+     *
+     * @param exponent the exponent
+     * @return BigInteger
+     */
+    public @NotNull BigInteger pow(@NotNull BigInteger exponent) {
+        if (exponent.signum() < 0 || exponent.bitLength() > this.exponentBits) {
+            return this.base.modPow(exponent, this.modulus);
+        }
+
+        BigInteger result = BigInteger.ONE;
+        int bitLength = exponent.bitLength();
+        for (int i = 0, offset = 0; offset < bitLength; i++, offset += this.window) {
+            int digit = 0;
+            for (int b = Math.min(this.window, bitLength - offset) - 1; b >= 0; b--) {
+                digit = (digit << 1) | (exponent.testBit(offset + b) ? 1 : 0);
+            }
+            if (digit != 0) {
+                result = Util.mulMod(result, this.table[i][digit - 1], this.modulus);
+            }
+        }
+
+        return result.mod(this.modulus);
+    }
+
+    /**
+     * todo Public Function size(): the number of residues in the table
+     *
+     * @return Integer
+     */
+    public Integer size() {
+        return this.table.length * this.table[0].length;
+    }
+
+    /**
+     * todo Public Function memoryBytes(): an estimate of the memory held by the table
+     *
+     * @return long
+     */
+    public long memoryBytes() {
+        // magnitude words plus the BigInteger and int[] headers of each residue
+        long residueBytes = (this.modulus.bitLength() + 31) / 32 * 4L + 56;
+
+        return this.size() * (residueBytes + 4);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<FixedBaseTable exponentBits=%d window=%d size=%d>", this.exponentBits, this.window,
+                this.size());
+    }
+}
@@ -0,0 +1,341 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   KeyGenerator
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/17 21:30
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * todo Public Class KeyGenerator: parallel Paillier key pair generation on a fork-join pool
+ * <p>
+ * p and q are searched at the same time, and each of them by several candidate tasks. The two top bits of every
+ * candidate are fixed to 1, so p * q always has exactly nLength bits and no retry loop is needed.
+ *
+ * @author Zhan Shi
+ */
+public class KeyGenerator {
+    /**
+     * MIN_KEY_LENGTH: the smallest supported key length, each prime needs some room below its two fixed top bits
+     */
+    public static final Integer MIN_KEY_LENGTH = 16;
+    /**
+     * DEFAULT: the shared key generator on the common fork-join pool
+     */
+    private static final KeyGenerator DEFAULT = new KeyGenerator();
+    /**
+     * pool: the fork-join pool which runs the prime search
+     */
+    private final ForkJoinPool pool;
+    /**
+     * candidates: the number of candidate tasks per prime
+     */
+    private final Integer candidates;
+
+    /**
+     * @see KeyGenerator#KeyGenerator(ForkJoinPool, Integer)
+     */
+    public KeyGenerator() {
+        this(ForkJoinPool.commonPool(), Math.max(1, ForkJoinPool.commonPool().getParallelism() / 2));
+    }
+
+    /**
+     * todo Public Function KeyGenerator(ForkJoinPool, Integer): Class KeyGenerator init
+     *
+     * @param pool       the fork-join pool which runs the prime search
+     * @param candidates the number of candidate tasks per prime
+     * @throws Util.ValueErrorException if candidates is not positive
+     */
+    public KeyGenerator(@NotNull ForkJoinPool pool, @NotNull Integer candidates) throws Util.ValueErrorException {
+        if (candidates <= 0) {
+            throw new Util.ValueErrorException("candidates per prime should be positive");
+        }
+
+        this.pool = pool;
+        this.candidates = candidates;
+    }
+
+    /**
+     * todo Public Static Function getDefault(): the shared key generator on the common fork-join pool
+     *
+     * @return KeyGenerator
+     */
+    public static KeyGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param nLength the key pair length
+     * @return PaillierKeyPair
+     * @see KeyGenerator#generate(Integer, Cancellation)
+     */
+    public Paillier.@NotNull PaillierKeyPair generate(Integer nLength) {
+        return generate(nLength, Cancellation.none());
+    }
+
+    /**
+     * @param nLength the key pair length
+     * @param timeout the longest time to search for
+     * @param unit    the unit of timeout
+     * @return PaillierKeyPair
+     * @see KeyGenerator#generate(Integer, Cancellation)
+     */
+    public Paillier.@NotNull PaillierKeyPair generate(Integer nLength, long timeout, @NotNull TimeUnit unit) {
+        return generate(nLength, Cancellation.withTimeout(timeout, unit));
+    }
+
+    /**
+     * todo Public Function generate(Integer, Cancellation): generate PHE Key Pair with p and q searched in parallel
+     *
+     * @param nLength      the key pair length
+     * @param cancellation the cancellation token, checked between candidates
+     * @return PaillierKeyPair
+     * @throws Util.ValueErrorException   if nLength is smaller than MIN_KEY_LENGTH
+     * @throws Util.TimeoutErrorException if the deadline of cancellation passed
+     * @throws CancellationException      if cancellation was cancelled
+     */
+    public Paillier.@NotNull PaillierKeyPair generate(@NotNull Integer nLength, @NotNull Cancellation cancellation)
+            throws Util.ValueErrorException, Util.TimeoutErrorException, CancellationException {
+        if (nLength < MIN_KEY_LENGTH) {
+            throw new Util.ValueErrorException(String.format("key length should be at least %s", MIN_KEY_LENGTH));
+        }
+
+        // p takes the odd bit, so p * q lies in [2^(nLength - 1), 2^nLength)
+        KeyPairSearch search = new KeyPairSearch((nLength + 1) / 2, nLength / 2, this.candidates, cancellation);
+        BigInteger[] primes = ForkJoinTask.inForkJoinPool() ? search.invoke() : this.pool.invoke(search);
+        if (primes[0] == null || primes[1] == null) {
+            cancellation.check();
+        }
+
+        BigInteger n = primes[0].multiply(primes[1]);
+        Paillier.PaillierPublicKey publicKey = new Paillier.PaillierPublicKey(n);
+        Paillier.PaillierPrivateKey privateKey = new Paillier.PaillierPrivateKey(publicKey, primes[0], primes[1]);
+
+        return new Paillier.PaillierKeyPair(publicKey, privateKey);
+    }
+
+    /**
+     * todo Public Static Class Cancellation: the cancellation token of a key generation, with optional deadline
+     */
+    public static class Cancellation {
+        /**
+         * deadline: the System#nanoTime() deadline, or null if there is none
+         */
+        private final Long deadline;
+        /**
+         * cancelled: the generation is cancelled or not
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * todo Private Function Cancellation(Long): Class Cancellation init
+         *
+         * @param deadline the System#nanoTime() deadline, or null if there is none
+         */
+        private Cancellation(Long deadline) {
+            this.deadline = deadline;
+            this.cancelled = false;
+        }
+
+        /**
+         * todo Public Static Function none(): a cancellation token without deadline
+         *
+         * @return Cancellation
+         */
+        public static @NotNull Cancellation none() {
+            return new Cancellation(null);
+        }
+
+        /**
+         * todo Public Static Function withTimeout(long, TimeUnit): a cancellation token expiring after timeout
+         *
+         * @param timeout the longest time to search for
+         * @param unit    the unit of timeout
+         * @return Cancellation
+         */
+        public static @NotNull Cancellation withTimeout(long timeout, @NotNull TimeUnit unit) {
+            return new Cancellation(System.nanoTime() + unit.toNanos(timeout));
+        }
+
+        /**
+         * todo Public Function cancel(): cancel the generation, running tasks stop at their next candidate
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        /**
+         * todo Public Function isCancelled(): the generation is cancelled, or its deadline passed
+         *
+         * @return boolean
+         */
+        public boolean isCancelled() {
+            return this.cancelled || (this.deadline != null && System.nanoTime() - this.deadline > 0);
+        }
+
+        /**
+         * todo Function check(): throw if the generation should stop
+         *
+         * @throws CancellationException      if cancel() was called
+         * @throws Util.TimeoutErrorException if the deadline passed
+         */
+        void check() throws CancellationException, Util.TimeoutErrorException {
+            if (this.cancelled) {
+                throw new CancellationException("key generation was cancelled");
+            }
+            if (this.deadline != null && System.nanoTime() - this.deadline > 0) {
+                throw new Util.TimeoutErrorException("key generation timed out");
+            }
+        }
+    }
+
+    /**
+     * todo Private Static Class KeyPairSearch: search p and q at the same time
+     */
+    private static class KeyPairSearch extends RecursiveTask<BigInteger[]> {
+        /**
+         * pLength: the bit length of p
+         * qLength: the bit length of q
+         */
+        private final Integer pLength, qLength;
+        /**
+         * candidates: the number of candidate tasks per prime
+         */
+        private final Integer candidates;
+        /**
+         * cancellation: the cancellation token
+         */
+        private final Cancellation cancellation;
+
+        /**
+         * todo Function KeyPairSearch(Integer, Integer, Integer, Cancellation): Class KeyPairSearch init
+         *
+         * @param pLength      the bit length of p
+         * @param qLength      the bit length of q
+         * @param candidates   the number of candidate tasks per prime
+         * @param cancellation the cancellation token
+         */
+        KeyPairSearch(Integer pLength, Integer qLength, Integer candidates, Cancellation cancellation) {
+            this.pLength = pLength;
+            this.qLength = qLength;
+            this.candidates = candidates;
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        protected BigInteger[] compute() {
+            PrimeSearch pSearch = new PrimeSearch(this.pLength, this.candidates, this.cancellation);
+            PrimeSearch qSearch = new PrimeSearch(this.qLength, this.candidates, this.cancellation);
+            invokeAll(pSearch, qSearch);
+
+            BigInteger p = pSearch.join();
+            BigInteger q = qSearch.join();
+            // only reachable for tiny keys, p and q have to be different
+            while (p != null && p.equals(q)) {
+                q = new PrimeSearch(this.qLength, this.candidates, this.cancellation).invoke();
+            }
+
+            return new BigInteger[]{p, q};
+        }
+    }
+
+    /**
+     * todo Private Static Class PrimeSearch: search one prime with several candidate tasks, the first one wins
+     */
+    private static class PrimeSearch extends RecursiveTask<BigInteger> {
+        /**
+         * bitLength: the bit length of the prime
+         */
+        private final Integer bitLength;
+        /**
+         * candidates: the number of candidate tasks
+         */
+        private final Integer candidates;
+        /**
+         * cancellation: the cancellation token
+         */
+        private final Cancellation cancellation;
+        /**
+         * found: the first prime found by any candidate task
+         */
+        private final AtomicReference<BigInteger> found = new AtomicReference<>();
+
+        /**
+         * todo Function PrimeSearch(Integer, Integer, Cancellation): Class PrimeSearch init
+         *
+         * @param bitLength    the bit length of the prime
+         * @param candidates   the number of candidate tasks
+         * @param cancellation the cancellation token
+         */
+        PrimeSearch(Integer bitLength, Integer candidates, Cancellation cancellation) {
+            this.bitLength = bitLength;
+            this.candidates = candidates;
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            List<CandidateSearch> tasks = new ArrayList<>();
+            for (int i = 0; i < this.candidates; i++) {
+                tasks.add(new CandidateSearch(this));
+            }
+            invokeAll(tasks);
+
+            return this.found.get();
+        }
+
+        /**
+         * todo Function isFinished(): the prime is found or the search is cancelled
+         *
+         * @return boolean
+         */
+        boolean isFinished() {
+            return this.found.get() != null || this.cancellation.isCancelled();
+        }
+    }
+
+    /**
+     * todo Private Static Class CandidateSearch: sieve its own candidate windows until its prime search is finished
+     */
+    private static class CandidateSearch extends RecursiveTask<Void> {
+        /**
+         * search: the prime search this task belongs to
+         */
+        private final PrimeSearch search;
+
+        /**
+         * todo Function CandidateSearch(PrimeSearch): Class CandidateSearch init
+         *
+         * @param search the prime search this task belongs to
+         */
+        CandidateSearch(PrimeSearch search) {
+            this.search = search;
+        }
+
+        @Override
+        protected Void compute() {
+            BigInteger prime = PrimeGenerator.generate(this.search.bitLength, this.search::isFinished);
+            if (prime != null) {
+                this.search.found.compareAndSet(null, prime);
+            }
+
+            return null;
+        }
+    }
+}
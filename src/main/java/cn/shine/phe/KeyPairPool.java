@@ -0,0 +1,452 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   KeyPairPool
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/17 23:30
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.AclEntry;
+import java.nio.file.attribute.AclEntryPermission;
+import java.nio.file.attribute.AclEntryType;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * todo Public Class KeyPairPool: ready-made key pairs per key length, refilled in the background
+ * <p>
+ * Every take() schedules a refill on a pool of low-priority daemon threads. If a file is given, the unused key pairs
+ * are written to it on close() and read back, then removed from it, by the next pool. The file holds private keys.
+ *
+ * @author Zhan Shi
+ */
+public class KeyPairPool implements AutoCloseable {
+    /**
+     * CLOSE_TIMEOUT_SECONDS: the longest time close() waits for the running generations to stop
+     */
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    /**
+     * capacity: the number of ready-made key pairs kept per key length
+     */
+    private final Integer capacity;
+    /**
+     * file: the file unused key pairs are saved to, or null
+     */
+    private final Path file;
+    /**
+     * executor: the low-priority fork-join pool which generates the key pairs
+     */
+    private final ForkJoinPool executor;
+    /**
+     * generator: the key generator running on executor
+     */
+    private final KeyGenerator generator;
+    /**
+     * slots: the ready-made key pairs and the counters of each key length
+     */
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+    /**
+     * cancellation: cancels the running generations on close
+     */
+    private final KeyGenerator.Cancellation cancellation = KeyGenerator.Cancellation.none();
+    /**
+     * closed: the pool is closed or not
+     */
+    private volatile boolean closed;
+
+    /**
+     * @param capacity the number of ready-made key pairs kept per key length
+     * @see KeyPairPool#KeyPairPool(Integer, Integer, Path)
+     */
+    public KeyPairPool(Integer capacity) {
+        this(capacity, 1, null);
+    }
+
+    /**
+     * todo Public Function KeyPairPool(Integer, Integer, Path): Class KeyPairPool init
+     *
+     * @param capacity    the number of ready-made key pairs kept per key length
+     * @param parallelism the number of background threads
+     * @param file        the file unused key pairs are saved to and loaded from, or null
+     * @throws Util.ValueErrorException if capacity or parallelism is not positive
+     * @throws UncheckedIOException     if file exists but could not be read
+     */
+    public KeyPairPool(@NotNull Integer capacity, @NotNull Integer parallelism, Path file)
+            throws Util.ValueErrorException, UncheckedIOException {
+        if (capacity <= 0 || parallelism <= 0) {
+            throw new Util.ValueErrorException("capacity and parallelism should be positive");
+        }
+
+        this.capacity = capacity;
+        this.file = file;
+        this.executor = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("phe-key-pair-pool-" + thread.getPoolIndex());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        this.generator = new KeyGenerator(this.executor, parallelism);
+        this.closed = false;
+
+        if (file != null && Files.exists(file)) {
+            load(file);
+        }
+    }
+
+    /**
+     * todo Public Function register(Integer): start keeping key pairs of nLength
+     *
+     * @param nLength the key pair length
+     */
+    public void register(@NotNull Integer nLength) {
+        refill(slot(nLength));
+    }
+
+    /**
+     * todo Public Function take(Integer, long, TimeUnit): take a ready-made key pair, it is never handed out twice
+     *
+     * @param nLength the key pair length, registered on first use
+     * @param timeout the longest time to wait for
+     * @param unit    the unit of timeout
+     * @return PaillierKeyPair
+     * @throws Util.TimeoutErrorException if no key pair was ready within timeout
+     * @throws InterruptedException       if interrupted while waiting
+     */
+    public Paillier.@NotNull PaillierKeyPair take(@NotNull Integer nLength, long timeout, @NotNull TimeUnit unit)
+            throws Util.TimeoutErrorException, InterruptedException {
+        Slot slot = slot(nLength);
+        refill(slot);
+
+        Paillier.PaillierKeyPair keyPair = slot.keyPairs.poll(timeout, unit);
+        if (keyPair == null) {
+            throw new Util.TimeoutErrorException(String.format("no key pair of length %s ready in time", nLength));
+        }
+        slot.taken.incrementAndGet();
+        refill(slot);
+
+        return keyPair;
+    }
+
+    /**
+     * todo Public Function depth(Integer): the number of ready-made key pairs of nLength
+     *
+     * @param nLength the key pair length
+     * @return Integer
+     */
+    public Integer depth(@NotNull Integer nLength) {
+        Slot slot = this.slots.get(nLength);
+
+        return slot == null ? 0 : slot.keyPairs.size();
+    }
+
+    /**
+     * todo Public Function metrics(Integer): the metrics of nLength
+     *
+     * @param nLength the key pair length
+     * @return Metrics
+     */
+    public @NotNull Metrics metrics(@NotNull Integer nLength) {
+        Slot slot = this.slots.get(nLength);
+        if (slot == null) {
+            return new Metrics(nLength, 0, 0, 0L, 0L, 0.);
+        }
+
+        long generated = slot.generated.get();
+        long busyNanos = slot.busyNanos.get();
+        // key pairs per second of generation time, which is what a refill costs
+        double refillRate = busyNanos == 0 ? 0. : generated / (busyNanos / 1e9);
+
+        return new Metrics(nLength, slot.keyPairs.size(), slot.pending.get(), generated, slot.taken.get(), refillRate);
+    }
+
+    /**
+     * todo Public Function close(): stop refilling, and save the unused key pairs if a file was given
+     * <p>
+     * The running generations are awaited for up to CLOSE_TIMEOUT_SECONDS, so a key pair finished while closing is
+     * saved too.
+     *
+     * @throws UncheckedIOException if the key pairs could not be saved
+     */
+    @Override
+    public void close() throws UncheckedIOException {
+        this.closed = true;
+        this.cancellation.cancel();
+        this.executor.shutdownNow();
+        try {
+            this.executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            // save what is ready, and leave the interrupt to the caller
+            Thread.currentThread().interrupt();
+        }
+
+        if (this.file != null) {
+            save(this.file);
+        }
+    }
+
+    /**
+     * todo Private Function slot(Integer): the slot of nLength, created on first use
+     *
+     * @param nLength the key pair length
+     * @return Slot
+     * @throws Util.ValueErrorException if nLength is smaller than KeyGenerator.MIN_KEY_LENGTH
+     */
+    private @NotNull Slot slot(@NotNull Integer nLength) throws Util.ValueErrorException {
+        if (nLength < KeyGenerator.MIN_KEY_LENGTH) {
+            throw new Util.ValueErrorException(String.format("key length should be at least %s",
+                    KeyGenerator.MIN_KEY_LENGTH));
+        }
+
+        return this.slots.computeIfAbsent(nLength, Slot::new);
+    }
+
+    /**
+     * todo Private Function refill(Slot): schedule generations until ready and pending key pairs reach capacity
+     *
+     * @param slot the slot to refill
+     */
+    private void refill(@NotNull Slot slot) {
+        while (!this.closed) {
+            int pending = slot.pending.get();
+            if (slot.keyPairs.size() + pending >= this.capacity) {
+                return;
+            }
+            if (slot.pending.compareAndSet(pending, pending + 1)) {
+                try {
+                    this.executor.execute(() -> generate(slot));
+                } catch (RejectedExecutionException e) {
+                    // closed in the meantime
+                    slot.pending.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * todo Private Function generate(Slot): generate one key pair into slot
+     *
+     * @param slot the slot to fill
+     */
+    private void generate(@NotNull Slot slot) {
+        try {
+            long start = System.nanoTime();
+            Paillier.PaillierKeyPair keyPair = this.generator.generate(slot.nLength, this.cancellation);
+            slot.busyNanos.addAndGet(System.nanoTime() - start);
+            slot.generated.incrementAndGet();
+            slot.keyPairs.offer(keyPair);
+        } catch (CancellationException e) {
+            // closed while generating
+        } finally {
+            slot.pending.decrementAndGet();
+        }
+        // a take() may have seen this generation still pending after its key pair was handed out
+        refill(slot);
+    }
+
+    /**
+     * todo Private Function load(Path): move the key pairs of file into the pool, so they are never loaded twice
+     * <p>
+     * A line that is malformed, or whose key is not of the length it is saved under, is skipped.
+     *
+     * @param file the file key pairs were saved to
+     * @throws UncheckedIOException if file could not be read or emptied
+     */
+    private void load(@NotNull Path file) throws UncheckedIOException {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length != 3) {
+                    continue;
+                }
+                try {
+                    Integer nLength = Integer.valueOf(fields[0]);
+                    BigInteger p = new BigInteger(fields[1], 16);
+                    BigInteger q = new BigInteger(fields[2], 16);
+                    BigInteger n = p.multiply(q);
+                    if (n.bitLength() != nLength) {
+                        continue;
+                    }
+                    Paillier.PaillierPublicKey publicKey = new Paillier.PaillierPublicKey(n);
+                    Paillier.PaillierPrivateKey privateKey = new Paillier.PaillierPrivateKey(publicKey, p, q);
+                    slot(nLength).keyPairs.offer(new Paillier.PaillierKeyPair(publicKey, privateKey));
+                } catch (NumberFormatException | Util.ValueErrorException | Util.ZeroDivisionErrorException e) {
+                    // not a key pair written by save()
+                }
+            }
+            Files.delete(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * todo Private Function save(Path): drain the unused key pairs into file, readable by the owner only
+     * <p>
+     * The file is created with POSIX permissions rw-------, or else with an ACL granting its owner alone. On a file
+     * system with neither, nothing is written.
+     *
+     * @param file the file to save the key pairs to
+     * @throws UncheckedIOException if file could not be restricted to its owner or written
+     */
+    private void save(@NotNull Path file) throws UncheckedIOException {
+        List<String> lines = new ArrayList<>();
+        for (Slot slot : this.slots.values()) {
+            List<Paillier.PaillierKeyPair> keyPairs = new ArrayList<>();
+            slot.keyPairs.drainTo(keyPairs);
+            for (Paillier.PaillierKeyPair keyPair : keyPairs) {
+                lines.add(String.format("%d %s %s", slot.nLength,
+                        keyPair.privateKey.p.toString(16), keyPair.privateKey.q.toString(16)));
+            }
+        }
+
+        try {
+            Files.deleteIfExists(file);
+            createPrivate(file);
+            Files.write(file, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * todo Private Static Function createPrivate(Path): create an empty file only its owner can access
+     *
+     * @param file the file to create
+     * @throws IOException if file could not be created, or its access could not be restricted
+     */
+    private static void createPrivate(@NotNull Path file) throws IOException {
+        Set<String> views = file.getFileSystem().supportedFileAttributeViews();
+        if (views.contains("posix")) {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            return;
+        }
+        if (!views.contains("acl")) {
+            throw new IOException(String.format("%s can not be restricted to its owner", file));
+        }
+
+        // the file stays empty until its ACL grants its owner alone
+        Files.createFile(file);
+        try {
+            AclFileAttributeView view = Files.getFileAttributeView(file, AclFileAttributeView.class);
+            AclEntry owner = AclEntry.newBuilder().setType(AclEntryType.ALLOW).setPrincipal(view.getOwner())
+                    .setPermissions(EnumSet.of(AclEntryPermission.READ_DATA, AclEntryPermission.WRITE_DATA,
+                            AclEntryPermission.APPEND_DATA, AclEntryPermission.READ_ATTRIBUTES,
+                            AclEntryPermission.WRITE_ATTRIBUTES, AclEntryPermission.READ_NAMED_ATTRS,
+                            AclEntryPermission.WRITE_NAMED_ATTRS, AclEntryPermission.READ_ACL,
+                            AclEntryPermission.WRITE_ACL, AclEntryPermission.DELETE, AclEntryPermission.SYNCHRONIZE))
+                    .build();
+            view.setAcl(List.of(owner));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * todo Private Static Class Slot: the ready-made key pairs and the counters of one key length
+     */
+    private static class Slot {
+        /**
+         * nLength: the key pair length
+         */
+        final Integer nLength;
+        /**
+         * keyPairs: the ready-made key pairs
+         */
+        final LinkedBlockingQueue<Paillier.PaillierKeyPair> keyPairs = new LinkedBlockingQueue<>();
+        /**
+         * pending: the number of scheduled generations
+         */
+        final AtomicInteger pending = new AtomicInteger();
+        /**
+         * generated: the number of generated key pairs
+         * taken:     the number of taken key pairs
+         * busyNanos: the time spent generating key pairs
+         */
+        final AtomicLong generated = new AtomicLong(), taken = new AtomicLong(), busyNanos = new AtomicLong();
+
+        /**
+         * todo Function Slot(Integer): Class Slot init
+         *
+         * @param nLength the key pair length
+         */
+        Slot(Integer nLength) {
+            this.nLength = nLength;
+        }
+    }
+
+    /**
+     * todo Public Static Class Metrics: a snapshot of the pool of one key length
+     */
+    public static class Metrics {
+        /**
+         * nLength: the key pair length
+         */
+        public final Integer nLength;
+        /**
+         * depth:   the number of ready-made key pairs
+         * pending: the number of scheduled generations
+         */
+        public final Integer depth, pending;
+        /**
+         * generated: the number of generated key pairs
+         * taken:     the number of taken key pairs
+         */
+        public final Long generated, taken;
+        /**
+         * refillRate: key pairs generated per second of generation time
+         */
+        public final Double refillRate;
+
+        /**
+         * todo Function Metrics(Integer, Integer, Integer, Long, Long, Double): Class Metrics init
+         *
+         * @param nLength    the key pair length
+         * @param depth      the number of ready-made key pairs
+         * @param pending    the number of scheduled generations
+         * @param generated  the number of generated key pairs
+         * @param taken      the number of taken key pairs
+         * @param refillRate key pairs generated per second of generation time
+         */
+        Metrics(Integer nLength, Integer depth, Integer pending, Long generated, Long taken, Double refillRate) {
+            this.nLength = nLength;
+            this.depth = depth;
+            this.pending = pending;
+            this.generated = generated;
+            this.taken = taken;
+            this.refillRate = refillRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("<KeyPairPool.Metrics %s depth=%s pending=%s generated=%s taken=%s refillRate=%.3f/s>",
+                    this.nLength, this.depth, this.pending, this.generated, this.taken, this.refillRate);
+        }
+    }
+}
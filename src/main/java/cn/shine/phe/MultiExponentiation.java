@@ -0,0 +1,430 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   MultiExponentiation
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 04:20
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * todo Public Class MultiExponentiation: the product of bases[i]^exponents[i] modulo a modulus
+ * <p>
+ * All exponents share one chain of squarings. A few bases use Straus' interleaved windows with a small table per base;
+ * many bases use Pippenger's buckets, where each window costs one multiplication per base plus two per bucket, and
+ * the windows run in parallel on the common fork-join pool. The bases of negative exponents are multiplied apart and
+ * inverted once. On E(x), the product of E(x[i])^w[i] mod n^2 is E(sum w[i] * x[i]).
+ *
+ * @author Zhan Shi
+ */
+public final class MultiExponentiation {
+    /**
+     * STRAUS_THRESHOLD: the number of bases below which Straus is used
+     */
+    public static final Integer STRAUS_THRESHOLD = 32;
+    /**
+     * STRAUS_WINDOW: the window width of Straus
+     */
+    private static final int STRAUS_WINDOW = 4;
+    /**
+     * MAX_WINDOW: the largest window width of Pippenger
+     */
+    static final int MAX_WINDOW = 16;
+
+    /**
+     * todo Private Function MultiExponentiation(): no instance
+     */
+    private MultiExponentiation() {
+    }
+
+    /**
+     * todo Public Static Function product(BigInteger[], BigInteger[], BigInteger): prod bases[i]^exponents[i] mod modulus
+     *
+     * @param bases     the bases, invertible modulo modulus where the exponent is negative
+     * @param exponents the exponents, of any sign
+     * @param modulus   the modulus
+     * @return BigInteger
+     * @throws Util.ValueErrorException if bases and exponents are not of one length
+     */
+    public static @NotNull BigInteger product(BigInteger @NotNull [] bases, BigInteger @NotNull [] exponents,
+                                              @NotNull BigInteger modulus) throws Util.ValueErrorException {
+        if (bases.length != exponents.length) {
+            throw new Util.ValueErrorException(String.format("%d bases and %d exponents are not match",
+                    bases.length, exponents.length));
+        }
+
+        List<BigInteger> positiveBases = new ArrayList<>(), positiveExponents = new ArrayList<>();
+        List<BigInteger> negativeBases = new ArrayList<>(), negativeExponents = new ArrayList<>();
+        for (int i = 0; i < bases.length; i++) {
+            if (exponents[i].signum() > 0) {
+                positiveBases.add(bases[i]);
+                positiveExponents.add(exponents[i]);
+            } else if (exponents[i].signum() < 0) {
+                negativeBases.add(bases[i]);
+                negativeExponents.add(exponents[i].negate());
+            }
+        }
+
+        BigInteger positive = unsigned(positiveBases, positiveExponents, modulus);
+        if (negativeBases.isEmpty()) {
+            return positive;
+        }
+        // prod b^-e = (prod b^e)^-1, one inversion for all negative exponents
+        BigInteger negative = unsigned(negativeBases, negativeExponents, modulus);
+
+        return Util.mulMod(positive, Util.invert(negative, modulus), modulus);
+    }
+
+    /**
+     * todo Public Static Function prepare(BigInteger[], BigInteger, Integer): bases prepared for many products
+     *
+     * @param bases   the bases, invertible modulo modulus
+     * @param modulus the modulus
+     * @param window  the window width, the table of a base holds 2^window - 1 powers
+     * @return Prepared
+     * @throws Util.ValueErrorException if window is not in [1, MAX_WINDOW]
+     */
+    public static @NotNull Prepared prepare(BigInteger @NotNull [] bases, @NotNull BigInteger modulus,
+                                            @NotNull Integer window) throws Util.ValueErrorException {
+        if (window <= 0 || window > MAX_WINDOW) {
+            throw new Util.ValueErrorException(String.format("window should be in [1, %d]", MAX_WINDOW));
+        }
+
+        return new Prepared(bases, modulus, window);
+    }
+
+    /**
+     * todo Private Static Function unsigned(List, List, BigInteger): the product for positive exponents
+     *
+     * @param bases     the bases
+     * @param exponents the positive exponents
+     * @param modulus   the modulus
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger unsigned(@NotNull List<BigInteger> bases, @NotNull List<BigInteger> exponents,
+                                                @NotNull BigInteger modulus) {
+        if (bases.isEmpty()) {
+            return BigInteger.ONE.mod(modulus);
+        } else if (bases.size() == 1) {
+            return bases.get(0).modPow(exponents.get(0), modulus);
+        }
+
+        BigInteger[] b = bases.toArray(new BigInteger[0]), e = exponents.toArray(new BigInteger[0]);
+        int bits = 0;
+        for (BigInteger exponent : e) {
+            bits = Math.max(bits, exponent.bitLength());
+        }
+
+        return b.length < STRAUS_THRESHOLD ? straus(b, e, bits, modulus) : pippenger(b, e, bits, modulus);
+    }
+
+    /**
+     * todo Private Static Function straus(BigInteger[], BigInteger[], int, BigInteger): interleaved windows
+     * <p>
+     * A table of base^d for every digit d per base, then per window STRAUS_WINDOW squarings and one multiplication
+     * per base.
+     *
+     * @param bases     the bases
+     * @param exponents the positive exponents
+     * @param bits      the longest exponent in bits
+     * @param modulus   the modulus
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger straus(BigInteger @NotNull [] bases, BigInteger @NotNull [] exponents,
+                                              int bits, @NotNull BigInteger modulus) {
+        int digits = (1 << STRAUS_WINDOW) - 1;
+        BigInteger[][] tables = new BigInteger[bases.length][digits];
+        Batch.forEach(null, bases.length, 1, i -> {
+            tables[i][0] = bases[i].mod(modulus);
+            for (int d = 1; d < digits; d++) {
+                tables[i][d] = Util.mulMod(tables[i][d - 1], tables[i][0], modulus);
+            }
+        });
+
+        BigInteger result = BigInteger.ONE;
+        for (int offset = (bits - 1) / STRAUS_WINDOW * STRAUS_WINDOW; offset >= 0; offset -= STRAUS_WINDOW) {
+            for (int s = 0; s < STRAUS_WINDOW && !result.equals(BigInteger.ONE); s++) {
+                result = Util.mulMod(result, result, modulus);
+            }
+            for (int i = 0; i < bases.length; i++) {
+                int digit = digit(exponents[i], offset, STRAUS_WINDOW);
+                if (digit != 0) {
+                    result = Util.mulMod(result, tables[i][digit - 1], modulus);
+                }
+            }
+        }
+
+        return result.mod(modulus);
+    }
+
+    /**
+     * todo Private Static Function pippenger(BigInteger[], BigInteger[], int, BigInteger): bucketed windows
+     * <p>
+     * For each window, base i goes to the bucket of its digit, and prod bucket[d]^d is a running product of running
+     * products. The windows are then joined by squarings.
+     *
+     * @param bases     the bases
+     * @param exponents the positive exponents
+     * @param bits      the longest exponent in bits
+     * @param modulus   the modulus
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger pippenger(BigInteger @NotNull [] bases, BigInteger @NotNull [] exponents,
+                                                 int bits, @NotNull BigInteger modulus) {
+        int window = window(bases.length, bits);
+        int windows = (bits + window - 1) / window;
+        BigInteger[] sums = new BigInteger[windows];
+        Batch.forEach(null, windows, 1, j -> {
+            BigInteger[] buckets = new BigInteger[1 << window];
+            for (int i = 0; i < bases.length; i++) {
+                int digit = digit(exponents[i], j * window, window);
+                if (digit != 0) {
+                    buckets[digit] = buckets[digit] == null ? bases[i] : Util.mulMod(buckets[digit], bases[i], modulus);
+                }
+            }
+
+            // sum = prod_d bucket[d]^d = prod_d running, running = prod_{d' >= d} bucket[d']
+            BigInteger running = null, sum = BigInteger.ONE;
+            for (int d = buckets.length - 1; d > 0; d--) {
+                if (buckets[d] != null) {
+                    running = running == null ? buckets[d] : Util.mulMod(running, buckets[d], modulus);
+                }
+                if (running != null) {
+                    sum = Util.mulMod(sum, running, modulus);
+                }
+            }
+            sums[j] = sum;
+        });
+
+        BigInteger result = BigInteger.ONE;
+        for (int j = windows - 1; j >= 0; j--) {
+            for (int s = 0; s < window && !result.equals(BigInteger.ONE); s++) {
+                result = Util.mulMod(result, result, modulus);
+            }
+            result = Util.mulMod(result, sums[j], modulus);
+        }
+
+        return result.mod(modulus);
+    }
+
+    /**
+     * todo Static Function pippengerCost(int, int): the multiplications of one Pippenger product
+     *
+     * @param count the number of bases
+     * @param bits  the longest exponent in bits
+     * @return long
+     */
+    static long pippengerCost(int count, int bits) {
+        int window = window(count, bits);
+
+        return (long) (bits + window - 1) / window * (count + (2L << window)) + bits;
+    }
+
+    /**
+     * todo Private Static Function window(int, int): the Pippenger window with the fewest multiplications
+     *
+     * @param count the number of bases
+     * @param bits  the longest exponent in bits
+     * @return int
+     */
+    private static int window(int count, int bits) {
+        int best = 1;
+        long bestCost = Long.MAX_VALUE;
+        for (int window = 1; window <= MAX_WINDOW; window++) {
+            // per window one multiplication per base and two per bucket
+            long cost = (long) (bits + window - 1) / window * (count + (2L << window));
+            if (cost < bestCost) {
+                best = window;
+                bestCost = cost;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * todo Static Function digit(BigInteger, int, int): the width bits of a positive exponent from offset
+     *
+     * @param exponent the positive exponent
+     * @param offset   the lowest bit
+     * @param width    the number of bits, at most 31
+     * @return int
+     */
+    static int digit(@NotNull BigInteger exponent, int offset, int width) {
+        int digit = 0;
+        for (int b = width - 1; b >= 0; b--) {
+            digit = (digit << 1) | (exponent.testBit(offset + b) ? 1 : 0);
+        }
+
+        return digit;
+    }
+
+    /**
+     * todo Public Static Class Prepared: Straus tables of fixed bases, shared by every product over them
+     * <p>
+     * Each product then costs one multiplication per base and window plus the squarings, with no table to build. Rows
+     * of exponents are evaluated in blocks: per window, the tables of a block of bases serve every row of the block
+     * while they are in cache. Positive and negative exponents keep two accumulators, joined by one inversion per row.
+     */
+    public static final class Prepared {
+        /**
+         * COLUMN_BLOCK: the number of bases whose tables serve a block of rows at once
+         */
+        private static final int COLUMN_BLOCK = 64;
+        /**
+         * modulus: the modulus
+         */
+        public final BigInteger modulus;
+        /**
+         * window: the window width
+         */
+        public final Integer window;
+        /**
+         * tables: tables[i][d - 1] = bases[i]^d mod modulus
+         */
+        private final BigInteger[][] tables;
+
+        /**
+         * todo Function Prepared(BigInteger[], BigInteger, Integer): Class Prepared init
+         *
+         * @param bases   the bases
+         * @param modulus the modulus
+         * @param window  the window width
+         */
+        Prepared(BigInteger @NotNull [] bases, @NotNull BigInteger modulus, @NotNull Integer window) {
+            this.modulus = modulus;
+            this.window = window;
+
+            int digits = (1 << window) - 1;
+            this.tables = new BigInteger[bases.length][digits];
+            Batch.forEach(null, bases.length, 1, i -> {
+                this.tables[i][0] = bases[i].mod(modulus);
+                for (int d = 1; d < digits; d++) {
+                    this.tables[i][d] = Util.mulMod(this.tables[i][d - 1], this.tables[i][0], modulus);
+                }
+            });
+        }
+
+        /**
+         * todo Public Function size(): the number of bases
+         *
+         * @return int
+         */
+        public int size() {
+            return this.tables.length;
+        }
+
+        /**
+         * todo Public Function memoryBytes(): an estimate of the memory held by the tables
+         *
+         * @return long
+         */
+        public long memoryBytes() {
+            // magnitude words plus the BigInteger and int[] headers of each residue
+            long residueBytes = (this.modulus.bitLength() + 31) / 32 * 4L + 56;
+
+            return (long) this.tables.length * ((1 << this.window) - 1) * (residueBytes + 4);
+        }
+
+        /**
+         * todo Public Function product(BigInteger[]): prod bases[i]^exponents[i] mod modulus
+         *
+         * @param exponents the exponents, of any sign
+         * @return BigInteger
+         * @throws Util.ValueErrorException if there is not one exponent per base
+         */
+        public @NotNull BigInteger product(BigInteger @NotNull [] exponents) throws Util.ValueErrorException {
+            BigInteger[] results = new BigInteger[1];
+            products(new BigInteger[][]{exponents}, 0, 1, results);
+
+            return results[0];
+        }
+
+        /**
+         * todo Function products(BigInteger[][], int, int, BigInteger[]): the products of rows [from, to)
+         *
+         * @param exponents the rows of exponents, of any sign
+         * @param from      the first row
+         * @param to        the row after the last one
+         * @param results   results[r] = prod bases[i]^exponents[r][i] mod modulus
+         * @throws Util.ValueErrorException if there is not one exponent per base
+         */
+        void products(BigInteger @NotNull [] @NotNull [] exponents, int from, int to, BigInteger @NotNull [] results)
+                throws Util.ValueErrorException {
+            int rows = to - from, bases = this.tables.length, bits = 0;
+            BigInteger[][] magnitudes = new BigInteger[rows][];
+            for (int r = 0; r < rows; r++) {
+                if (exponents[from + r].length != bases) {
+                    throw new Util.ValueErrorException(String.format("%d bases and %d exponents are not match",
+                            bases, exponents[from + r].length));
+                }
+                magnitudes[r] = new BigInteger[bases];
+                for (int i = 0; i < bases; i++) {
+                    magnitudes[r][i] = exponents[from + r][i].abs();
+                    bits = Math.max(bits, magnitudes[r][i].bitLength());
+                }
+            }
+
+            BigInteger[] positive = new BigInteger[rows], negative = new BigInteger[rows];
+            Arrays.fill(positive, BigInteger.ONE);
+            Arrays.fill(negative, BigInteger.ONE);
+            for (int offset = (Math.max(bits, 1) - 1) / this.window * this.window; offset >= 0;
+                 offset -= this.window) {
+                for (int r = 0; r < rows; r++) {
+                    positive[r] = square(positive[r]);
+                    negative[r] = square(negative[r]);
+                }
+                for (int block = 0; block < bases; block += COLUMN_BLOCK) {
+                    for (int r = 0; r < rows; r++) {
+                        BigInteger[] row = exponents[from + r];
+                        for (int i = block; i < Math.min(bases, block + COLUMN_BLOCK); i++) {
+                            int digit = digit(magnitudes[r][i], offset, this.window);
+                            if (digit == 0) {
+                                continue;
+                            }
+                            if (row[i].signum() > 0) {
+                                positive[r] = Util.mulMod(positive[r], this.tables[i][digit - 1], this.modulus);
+                            } else {
+                                negative[r] = Util.mulMod(negative[r], this.tables[i][digit - 1], this.modulus);
+                            }
+                        }
+                    }
+                }
+            }
+
+            for (int r = 0; r < rows; r++) {
+                results[from + r] = negative[r].equals(BigInteger.ONE) ? positive[r].mod(this.modulus)
+                        : Util.mulMod(positive[r], Util.invert(negative[r], this.modulus), this.modulus);
+            }
+        }
+
+        /**
+         * todo Private Function square(BigInteger): x^(2^window) mod modulus
+         *
+         * @param x the accumulator
+         * @return BigInteger
+         */
+        private @NotNull BigInteger square(@NotNull BigInteger x) {
+            for (int s = 0; s < this.window && !x.equals(BigInteger.ONE); s++) {
+                x = Util.mulMod(x, x, this.modulus);
+            }
+
+            return x;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("<MultiExponentiation.Prepared size=%d window=%d>", size(), this.window);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   ObfuscatorPool
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 00:50
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * todo Public Class ObfuscatorPool: precomputed obfuscators r^n mod n^2 of one public key (online/offline encryption)
+ * <p>
+ * Background threads keep the bounded pool full, so encrypt and obfuscate only pay one multiplication mod n^2 online.
+ * Attach it with PaillierPublicKey#setObfuscatorPool(ObfuscatorPool). A pool built from the private key computes the
+ * obfuscators by Chinese-remaindering.
+ *
+ * @author Zhan Shi
+ */
+public class ObfuscatorPool implements AutoCloseable {
+    /**
+     * publicKey: the public key of the obfuscators
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * policy: what take() does when the pool runs dry
+     */
+    public final Policy policy;
+    /**
+     * obfuscators: the precomputed obfuscators
+     */
+    private final ArrayBlockingQueue<BigInteger> obfuscators;
+    /**
+     * generator: computes one fresh obfuscator
+     */
+    private final Supplier<BigInteger> generator;
+    /**
+     * executor: the refill threads
+     */
+    private final ExecutorService executor;
+    /**
+     * refilling: the number of refill threads still running
+     */
+    private final AtomicInteger refilling = new AtomicInteger();
+    /**
+     * hits:   the number of obfuscators taken from the pool
+     * misses: the number of obfuscators the pool did not have ready
+     */
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    /**
+     * todo Public Function ObfuscatorPool(PaillierPublicKey, Integer, Integer, Policy): Class ObfuscatorPool init
+     *
+     * @param publicKey   the public key of the obfuscators
+     * @param capacity    the largest number of precomputed obfuscators
+     * @param parallelism the number of refill threads
+     * @param policy      what take() does when the pool runs dry
+     * @throws Util.ValueErrorException if capacity or parallelism is not positive
+     */
+    public ObfuscatorPool(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull Integer capacity,
+                          @NotNull Integer parallelism, @NotNull Policy policy) throws Util.ValueErrorException {
+        this(publicKey, publicKey::newObfuscator, capacity, parallelism, policy);
+    }
+
+    /**
+     * todo Public Function ObfuscatorPool(PaillierPrivateKey, Integer, Integer, Policy): Class ObfuscatorPool init
+     *
+     * @param privateKey  the private key of the obfuscators, which are computed by Chinese-remaindering
+     * @param capacity    the largest number of precomputed obfuscators
+     * @param parallelism the number of refill threads
+     * @param policy      what take() does when the pool runs dry
+     * @throws Util.ValueErrorException if capacity or parallelism is not positive
+     */
+    public ObfuscatorPool(@NotNull Paillier.PaillierPrivateKey privateKey, @NotNull Integer capacity,
+                          @NotNull Integer parallelism, @NotNull Policy policy) throws Util.ValueErrorException {
+        this(privateKey.publicKey, privateKey::newObfuscator, capacity, parallelism, policy);
+    }
+
+    /**
+     * todo Private Function ObfuscatorPool(PaillierPublicKey, Supplier, Integer, Integer, Policy): Class ObfuscatorPool init
+     *
+     * @param publicKey   the public key of the obfuscators
+     * @param generator   computes one fresh obfuscator
+     * @param capacity    the largest number of precomputed obfuscators
+     * @param parallelism the number of refill threads
+     * @param policy      what take() does when the pool runs dry
+     * @throws Util.ValueErrorException if capacity or parallelism is not positive
+     */
+    private ObfuscatorPool(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull Supplier<BigInteger> generator,
+                           @NotNull Integer capacity, @NotNull Integer parallelism, @NotNull Policy policy)
+            throws Util.ValueErrorException {
+        if (capacity <= 0 || parallelism <= 0) {
+            throw new Util.ValueErrorException("capacity and parallelism should be positive");
+        }
+
+        this.publicKey = publicKey;
+        this.generator = generator;
+        this.policy = policy;
+        this.obfuscators = new ArrayBlockingQueue<>(capacity);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "phe-obfuscator-pool-" + threads.getAndIncrement());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refilling.set(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            this.executor.execute(this::refill);
+        }
+    }
+
+    /**
+     * todo Public Function take(): a precomputed obfuscator, or per policy one computed inline or waited for
+     * <p>
+     * Once no refill thread is running, the obfuscator is computed inline whatever the policy, so a generator that
+     * failed in the background fails again on the calling thread.
+     *
+     * @return BigInteger r^n mod n^2
+     */
+    public @NotNull BigInteger take() {
+        BigInteger obfuscator = this.obfuscators.poll();
+        if (obfuscator != null) {
+            this.hits.incrementAndGet();
+            return obfuscator;
+        }
+
+        this.misses.incrementAndGet();
+        try {
+            // the refill threads may be stopped, or die on a failing generator, while waiting
+            while (this.policy == Policy.BLOCK && this.refilling.get() > 0) {
+                obfuscator = this.obfuscators.poll(10, TimeUnit.MILLISECONDS);
+                if (obfuscator != null) {
+                    return obfuscator;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return this.generator.get();
+    }
+
+    /**
+     * todo Public Function depth(): the number of precomputed obfuscators
+     *
+     * @return Integer
+     */
+    public Integer depth() {
+        return this.obfuscators.size();
+    }
+
+    /**
+     * todo Public Function metrics(): a snapshot of the pool
+     *
+     * @return Metrics
+     */
+    public @NotNull Metrics metrics() {
+        long hits = this.hits.get(), misses = this.misses.get();
+        double hitRate = hits + misses == 0 ? 0. : (double) hits / (hits + misses);
+
+        return new Metrics(this.obfuscators.size(), this.obfuscators.remainingCapacity() + this.obfuscators.size(),
+                hits, misses, hitRate);
+    }
+
+    /**
+     * todo Public Function close(): stop the refill threads, take() then computes inline
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * todo Private Function refill(): keep the pool full until closed, or until the generator fails
+     */
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                this.obfuscators.put(this.generator.get());
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } finally {
+            this.refilling.decrementAndGet();
+        }
+    }
+
+    /**
+     * todo Public Enum Policy: what take() does when the pool runs dry
+     */
+    public enum Policy {
+        /**
+         * BLOCK: wait for the refill threads
+         */
+        BLOCK,
+        /**
+         * INLINE: compute the obfuscator on the calling thread
+         */
+        INLINE
+    }
+
+    /**
+     * todo Public Static Class Metrics: a snapshot of the pool
+     */
+    public static class Metrics {
+        /**
+         * depth:    the number of precomputed obfuscators
+         * capacity: the largest number of precomputed obfuscators
+         */
+        public final Integer depth, capacity;
+        /**
+         * hits:   the number of obfuscators taken from the pool
+         * misses: the number of obfuscators the pool did not have ready
+         */
+        public final Long hits, misses;
+        /**
+         * hitRate: hits / (hits + misses)
+         */
+        public final Double hitRate;
+
+        /**
+         * todo Function Metrics(Integer, Integer, Long, Long, Double): Class Metrics init
+         *
+         * @param depth    the number of precomputed obfuscators
+         * @param capacity the largest number of precomputed obfuscators
+         * @param hits     the number of obfuscators taken from the pool
+         * @param misses   the number of obfuscators the pool did not have ready
+         * @param hitRate  hits / (hits + misses)
+         */
+        Metrics(Integer depth, Integer capacity, Long hits, Long misses, Double hitRate) {
+            this.depth = depth;
+            this.capacity = capacity;
+            this.hits = hits;
+            this.misses = misses;
+            this.hitRate = hitRate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("<ObfuscatorPool.Metrics depth=%s/%s hits=%s misses=%s hitRate=%.3f>",
+                    this.depth, this.capacity, this.hits, this.misses, this.hitRate);
+        }
+    }
+}
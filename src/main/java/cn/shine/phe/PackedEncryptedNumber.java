@@ -0,0 +1,142 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   PackedEncryptedNumber
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 03:10
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * todo Public Class PackedEncryptedNumber: an encrypted number holding the slots of a PackingScheme
+ * <p>
+ * Additions and scalar multiplications act on every slot. The magnitude bound of the slots is tracked, and an
+ * operation that could carry out of a slot throws instead of corrupting the slot above.
+ *
+ * @author Zhan Shi
+ */
+public class PackedEncryptedNumber {
+    /**
+     * scheme: the packing scheme
+     */
+    public final PackingScheme scheme;
+    /**
+     * encryptedNumber: the encrypted plaintext of all slots
+     */
+    public final Paillier.EncryptedNumber encryptedNumber;
+    /**
+     * size: the number of slots in use
+     */
+    public final Integer size;
+    /**
+     * magnitude: a bound on the magnitude of every slot
+     */
+    public final Long magnitude;
+
+    /**
+     * todo Function PackedEncryptedNumber(PackingScheme, EncryptedNumber, Integer, Long): Class PackedEncryptedNumber init
+     *
+     * @param scheme          the packing scheme
+     * @param encryptedNumber the encrypted plaintext of all slots
+     * @param size            the number of slots in use
+     * @param magnitude       a bound on the magnitude of every slot
+     */
+    PackedEncryptedNumber(@NotNull PackingScheme scheme, @NotNull Paillier.EncryptedNumber encryptedNumber,
+                          @NotNull Integer size, @NotNull Long magnitude) {
+        this.scheme = scheme;
+        this.encryptedNumber = encryptedNumber;
+        this.size = size;
+        this.magnitude = magnitude;
+    }
+
+    /**
+     * todo Public Function add(PackedEncryptedNumber): add slot by slot
+     *
+     * @param other the other packed number
+     * @return PackedEncryptedNumber this + other
+     * @throws Util.ValueErrorException    if schemes are not match
+     * @throws Util.OverflowErrorException if a slot could exceed the headroom
+     */
+    public @NotNull PackedEncryptedNumber add(@NotNull PackedEncryptedNumber other)
+            throws Util.ValueErrorException, Util.OverflowErrorException {
+        if (this.scheme != other.scheme) {
+            throw new Util.ValueErrorException("Attempted to add numbers packed by different schemes");
+        }
+
+        long magnitude = checked(this.magnitude + other.magnitude);
+        Paillier.EncryptedNumber sum = this.encryptedNumber.add(other.encryptedNumber);
+
+        return new PackedEncryptedNumber(this.scheme, sum, Math.max(this.size, other.size), magnitude);
+    }
+
+    /**
+     * todo Public Function add(long[]): add plaintext values slot by slot
+     *
+     * @param values at most slots values within slotBits
+     * @return PackedEncryptedNumber this + values
+     * @throws Util.ValueErrorException    if there are more values than slots, or some value is wider than slotBits
+     * @throws Util.OverflowErrorException if a slot could exceed the headroom
+     */
+    public @NotNull PackedEncryptedNumber add(long @NotNull [] values)
+            throws Util.ValueErrorException, Util.OverflowErrorException {
+        EncodedNumber encoded = this.scheme.pack(values);
+        long magnitude = checked(this.magnitude + PackingScheme.magnitude(values));
+        Paillier.EncryptedNumber sum = this.encryptedNumber.add(encoded);
+
+        return new PackedEncryptedNumber(this.scheme, sum, Math.max(this.size, values.length), magnitude);
+    }
+
+    /**
+     * todo Public Function multiply(long): multiply every slot by scalar
+     *
+     * @param scalar the scalar
+     * @return PackedEncryptedNumber this * scalar
+     * @throws Util.OverflowErrorException if a slot could exceed the headroom
+     */
+    public @NotNull PackedEncryptedNumber multiply(long scalar) throws Util.OverflowErrorException {
+        long magnitude;
+        try {
+            magnitude = checked(Math.multiplyExact(this.magnitude, Math.abs(scalar)));
+        } catch (ArithmeticException e) {
+            throw new Util.OverflowErrorException(String.format("slot magnitude %d * %d overflows", this.magnitude,
+                    scalar));
+        }
+        Paillier.EncryptedNumber product = this.encryptedNumber.multiply(scalar);
+
+        return new PackedEncryptedNumber(this.scheme, product, this.size, magnitude);
+    }
+
+    /**
+     * todo Public Function obfuscate(): obfuscate the ciphertext
+     */
+    public void obfuscate() {
+        this.encryptedNumber.obfuscate();
+    }
+
+    /**
+     * todo Private Function checked(long): magnitude, if it stays within the slot width
+     *
+     * @param magnitude a bound on the magnitude of every slot
+     * @return long
+     * @throws Util.OverflowErrorException if magnitude reaches 2^(slotWidth - 1)
+     */
+    private long checked(long magnitude) throws Util.OverflowErrorException {
+        // magnitudes stay below 2^61, their sum is a long, only |Long.MIN_VALUE| scalars turn it negative
+        if (magnitude < 0 || magnitude >= this.scheme.limit) {
+            throw new Util.OverflowErrorException(String.format("slot magnitude %d exceeds %d bits", magnitude,
+                    this.scheme.slotWidth));
+        }
+
+        return magnitude;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<PackedEncryptedNumber size=%d magnitude=%d>", this.size, this.magnitude);
+    }
+}
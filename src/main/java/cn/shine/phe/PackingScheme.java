@@ -0,0 +1,260 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   PackingScheme
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 03:10
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+
+/**
+ * todo Public Class PackingScheme: k signed integer slots in one plaintext
+ * <p>
+ * Slot i of values v holds v[i] * 2^(slotWidth * i), and the plaintext is the signed sum, so adding two plaintexts or
+ * multiplying one by an integer acts on every slot at once. A slot is read back as the balanced residue of its
+ * slotWidth bits, which is exact while |v[i]| < 2^(slotWidth - 1). Values are packed within slotBits, the headroomBits
+ * guard bits above them absorb the growth of additions and scalar multiplications, which PackedEncryptedNumber
+ * tracks. The plaintext stays within maxInt, so slots = (bitLength(maxInt) - 1) / slotWidth.
+ *
+ * @author Zhan Shi
+ */
+public class PackingScheme {
+    /**
+     * MAX_SLOT_WIDTH: the widest slot, a slot is unpacked in long arithmetic with one bit to spare for the carry
+     */
+    public static final Integer MAX_SLOT_WIDTH = 62;
+    /**
+     * publicKey: the public key of the packed numbers
+     */
+    public final Paillier.PaillierPublicKey publicKey;
+    /**
+     * slotBits:     the signed width of a packed value
+     * headroomBits: the guard bits above a packed value
+     * slotWidth:    slotBits + headroomBits
+     * slots:        the number of slots in one plaintext
+     */
+    public final Integer slotBits, headroomBits, slotWidth, slots;
+    /**
+     * limit: 2^(slotWidth - 1), every slot magnitude stays below it
+     */
+    final long limit;
+
+    /**
+     * todo Public Function PackingScheme(PaillierPublicKey, Integer, Integer): Class PackingScheme init
+     *
+     * @param publicKey    the public key of the packed numbers
+     * @param slotBits     the signed width of a packed value
+     * @param headroomBits the guard bits above a packed value, about log2 of the number of additions
+     * @throws Util.ValueErrorException if slotBits is not positive, headroomBits is negative, the slot is wider than
+     *                                  MAX_SLOT_WIDTH, or not one slot fits the public key
+     */
+    public PackingScheme(@NotNull Paillier.PaillierPublicKey publicKey, @NotNull Integer slotBits,
+                         @NotNull Integer headroomBits) throws Util.ValueErrorException {
+        if (slotBits <= 0 || headroomBits < 0) {
+            throw new Util.ValueErrorException("slotBits should be positive and headroomBits not negative");
+        }
+        if (slotBits + headroomBits > MAX_SLOT_WIDTH) {
+            throw new Util.ValueErrorException(String.format("slotBits + headroomBits should be at most %d",
+                    MAX_SLOT_WIDTH));
+        }
+
+        this.publicKey = publicKey;
+        this.slotBits = slotBits;
+        this.headroomBits = headroomBits;
+        this.slotWidth = slotBits + headroomBits;
+        this.slots = (publicKey.maxInt.bitLength() - 1) / this.slotWidth;
+        this.limit = 1L << (this.slotWidth - 1);
+
+        if (this.slots == 0) {
+            throw new Util.ValueErrorException("not one slot fits the public key");
+        }
+    }
+
+    /**
+     * todo Public Function pack(long[]): the plaintext of values, one value per slot
+     *
+     * @param values at most slots values within slotBits
+     * @return EncodedNumber
+     * @throws Util.ValueErrorException if there are more values than slots, or some value is wider than slotBits
+     */
+    public @NotNull EncodedNumber pack(long @NotNull [] values) throws Util.ValueErrorException {
+        return EncodedNumber.encode(this.publicKey, packed(values));
+    }
+
+    /**
+     * todo Public Function encrypt(long[]): encrypt values, one value per slot, in one ciphertext
+     *
+     * @param values at most slots values within slotBits
+     * @return PackedEncryptedNumber
+     * @throws Util.ValueErrorException if there are more values than slots, or some value is wider than slotBits
+     */
+    public @NotNull PackedEncryptedNumber encrypt(long @NotNull [] values) throws Util.ValueErrorException {
+        Paillier.EncryptedNumber encryptedNumber = this.publicKey.encryptEncoded(pack(values));
+
+        return new PackedEncryptedNumber(this, encryptedNumber, values.length, magnitude(values));
+    }
+
+    /**
+     * todo Public Function unpack(BigInteger, int): the slots of a signed plaintext
+     *
+     * @param plaintext the signed plaintext
+     * @param size      the number of slots to read
+     * @return long[]
+     */
+    public long @NotNull [] unpack(@NotNull BigInteger plaintext, int size) {
+        long[] words = words(plaintext, size * this.slotWidth);
+        long mask = (1L << this.slotWidth) - 1, half = this.limit;
+        long[] values = new long[size];
+
+        // plaintext = sum v[i] * 2^(slotWidth * i), the balanced v[i] borrows one from the slot above when negative
+        long carry = 0;
+        for (int i = 0, offset = 0; i < size; i++, offset += this.slotWidth) {
+            long bits = (bits(words, offset) & mask) + carry;
+            long value = (bits & mask) >= half ? (bits & mask) - (mask + 1) : bits & mask;
+            carry = (bits - value) >> this.slotWidth;
+            values[i] = value;
+        }
+
+        return values;
+    }
+
+    /**
+     * todo Public Function decrypt(PaillierPrivateKey, PackedEncryptedNumber): the slots of a packed number
+     *
+     * @param privateKey   the private key
+     * @param packedNumber the packed number
+     * @return long[]
+     * @throws Util.ValueErrorException    if public keys are not match
+     * @throws Util.OverflowErrorException if the plaintext is out of the range of maxInt
+     */
+    public long @NotNull [] decrypt(@NotNull Paillier.PaillierPrivateKey privateKey,
+                                    @NotNull PackedEncryptedNumber packedNumber)
+            throws Util.ValueErrorException, Util.OverflowErrorException {
+        return decryptAll(privateKey, new PackedEncryptedNumber[]{packedNumber})[0];
+    }
+
+    /**
+     * todo Public Function decryptAll(PaillierPrivateKey, PackedEncryptedNumber[]): the slots of packed numbers
+     * <p>
+     * The ciphertexts are decrypted in parallel by PaillierPrivateKey#decryptAll(EncryptedNumber[], BigInteger[]).
+     *
+     * @param privateKey    the private key
+     * @param packedNumbers the packed numbers
+     * @return long[][] the slots of each packed number
+     * @throws Util.ValueErrorException    if public keys or schemes are not match
+     * @throws Util.OverflowErrorException if some plaintext is out of the range of maxInt
+     */
+    public long @NotNull [] @NotNull [] decryptAll(@NotNull Paillier.PaillierPrivateKey privateKey,
+                                                   PackedEncryptedNumber @NotNull [] packedNumbers)
+            throws Util.ValueErrorException, Util.OverflowErrorException {
+        Paillier.EncryptedNumber[] src = new Paillier.EncryptedNumber[packedNumbers.length];
+        for (int i = 0; i < src.length; i++) {
+            if (packedNumbers[i].scheme != this) {
+                throw new Util.ValueErrorException("packed_number was packed by a different scheme");
+            }
+            src[i] = packedNumbers[i].encryptedNumber;
+        }
+
+        BigInteger[] plaintexts = new BigInteger[src.length];
+        BitSet overflows = privateKey.decryptAll(src, plaintexts);
+        if (!overflows.isEmpty()) {
+            throw new Util.OverflowErrorException(String.format("Overflow detected in packed numbers %s", overflows));
+        }
+
+        long[][] values = new long[src.length][];
+        for (int i = 0; i < src.length; i++) {
+            values[i] = unpack(plaintexts[i], packedNumbers[i].size);
+        }
+
+        return values;
+    }
+
+    /**
+     * todo Function packed(long[]): the signed plaintext of values
+     *
+     * @param values at most slots values within slotBits
+     * @return BigInteger
+     * @throws Util.ValueErrorException if there are more values than slots, or some value is wider than slotBits
+     */
+    @NotNull BigInteger packed(long @NotNull [] values) throws Util.ValueErrorException {
+        if (values.length > this.slots) {
+            throw new Util.ValueErrorException(String.format("%d values do not fit %d slots", values.length,
+                    this.slots));
+        }
+
+        BigInteger plaintext = BigInteger.ZERO;
+        for (int i = values.length - 1; i >= 0; i--) {
+            // the high bits of a signed value are all copies of the sign bit
+            if (values[i] >> (this.slotBits - 1) != 0 && values[i] >> (this.slotBits - 1) != -1) {
+                throw new Util.ValueErrorException(String.format("value %d is wider than %d bits", values[i],
+                        this.slotBits));
+            }
+            plaintext = plaintext.shiftLeft(this.slotWidth).add(BigInteger.valueOf(values[i]));
+        }
+
+        return plaintext;
+    }
+
+    /**
+     * todo Static Function magnitude(long[]): the largest magnitude of values
+     *
+     * @param values the values
+     * @return long
+     */
+    static long magnitude(long @NotNull [] values) {
+        long magnitude = 0;
+        for (long value : values) {
+            // |Long.MIN_VALUE| is not a long, but it is never within a slot
+            magnitude = Math.max(magnitude, Math.abs(value));
+        }
+
+        return magnitude;
+    }
+
+    /**
+     * todo Private Static Function words(BigInteger, int): the two's complement of x in little-endian 64 bit words
+     *
+     * @param x    the number
+     * @param bits the number of low bits to read
+     * @return long[] with one more word, so reads across a word boundary stay in the array
+     */
+    private static long @NotNull [] words(@NotNull BigInteger x, int bits) {
+        byte[] bytes = x.toByteArray();
+        long[] words = new long[(bits + 63) / 64 + 1];
+        long sign = x.signum() < 0 ? -1L : 0L;
+        for (int i = 0; i < words.length * 8; i++) {
+            long octet = i < bytes.length ? bytes[bytes.length - 1 - i] & 0xFFL : sign & 0xFFL;
+            words[i / 8] |= octet << (8 * (i % 8));
+        }
+
+        return words;
+    }
+
+    /**
+     * todo Private Static Function bits(long[], int): the 64 bits of words from offset
+     *
+     * @param words  the little-endian words
+     * @param offset the bit offset
+     * @return long
+     */
+    private static long bits(long @NotNull [] words, int offset) {
+        int word = offset >>> 6, shift = offset & 63;
+        long low = words[word] >>> shift;
+
+        return shift == 0 ? low : low | words[word + 1] << (64 - shift);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<PackingScheme slotBits=%d headroomBits=%d slots=%d>", this.slotBits,
+                this.headroomBits, this.slots);
+    }
+}
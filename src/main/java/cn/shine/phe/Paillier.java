@@ -10,12 +10,16 @@ package cn.shine.phe;
  * @License MIT
  */
 
-import org.apache.commons.math3.util.FastMath;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * todo Public Class Paillier: Paillier Homomorphic Encryption
@@ -50,28 +54,15 @@ public class Paillier {
         /**
          * @param nLength the key pair length
          * @return PaillierKeyPair
-         * @see PaillierKeyPair#generate(PaillierPrivateKeyring, Integer)
+         * @throws Util.ValueErrorException if nLength is smaller than KeyGenerator.MIN_KEY_LENGTH
+         * @see KeyGenerator#generate(Integer)
          */
         public static @NotNull PaillierKeyPair generate(Integer nLength) throws Util.ValueErrorException {
             if (nLength == 0) {
                 throw new Util.ValueErrorException("key length should not be zero");
             }
 
-            BigInteger p = null, q = null, n = null;
-            Integer nLen = 0;
-            while (!nLen.equals(nLength)) {
-                p = Util.getPrimeOver(nLength / 2);
-                q = p;
-                while (q.equals(p)) {
-                    q = Util.getPrimeOver(nLength / 2);
-                }
-                n = p.multiply(q);
-                nLen = n.bitLength();
-            }
-            PaillierPublicKey publicKey = new PaillierPublicKey(n);
-            PaillierPrivateKey privateKey = new PaillierPrivateKey(publicKey, p, q);
-
-            return new PaillierKeyPair(publicKey, privateKey);
+            return KeyGenerator.getDefault().generate(nLength);
         }
 
         /**
@@ -93,19 +84,38 @@ public class Paillier {
      * todo Public Static Class PaillierPublicKey: Paillier Public Key
      */
     public static class PaillierPublicKey {
+        /**
+         * SHORT_EXPONENT_BITS: the length of a in the fixed-base obfuscator h^a, twice a 128 bit security level
+         */
+        public static final Integer SHORT_EXPONENT_BITS = 256;
         /**
          * n: the n param of public key
          */
         public BigInteger n;
         /**
-         * g:       the g param of public key
+         * g: the g param of public key
+         */
+        private final BigInteger g;
+        /**
          * nSquare: the square of n
          */
-        private final BigInteger g, nSquare;
+        final BigInteger nSquare;
         /**
          * maxInt: the max number of plaintext
          */
         final BigInteger maxInt;
+        /**
+         * obfuscatorPool: the precomputed obfuscators, or null to compute them inline
+         */
+        private volatile ObfuscatorPool obfuscatorPool;
+        /**
+         * obfuscationTable: the table of h = x^n mod n^2 for obfuscators h^a, or null for obfuscators r^n mod n^2
+         */
+        private volatile FixedBaseTable obfuscationTable;
+        /**
+         * lazyObfuscation: fresh encryptions are left bare until they are exported
+         */
+        private volatile boolean lazyObfuscation;
 
         /**
          * todo Public Function PaillierPublicKey(BigInteger): Class PaillierPublicKey init
@@ -146,27 +156,18 @@ public class Paillier {
          * todo Public Function rawEncrypt(Object, Integer): number encryption with obfuscator
          *
          * @param plaintext the number of plaintext
-         * @param rValue    obfuscator
+         * @param rValue    obfuscator, 0 for none: the result is then the bare 1 + n * plaintext, without any modPow
          * @return BigInteger
          */
         public @NotNull BigInteger rawEncrypt(Object plaintext, Integer rValue) {
             plaintext = Util.wrapBig(plaintext);
-            BigInteger nudeCiphertext = BigInteger.ZERO;
-
             if (plaintext instanceof BigInteger) {
-                BigInteger pBigInteger = (BigInteger) plaintext;
+                return rawEncrypt((BigInteger) plaintext, rValue);
+            }
 
-                if (this.n.subtract(this.maxInt).compareTo(pBigInteger) <= 0 && (pBigInteger).compareTo(this.n) < 0) {
-                    // very large plaintext, take a sneaky shortcut using inverses
-                    BigInteger negPlaintext = this.n.subtract(pBigInteger);
-                    // n * plaintext + 1 mod n^2
-                    BigInteger negCiphertext = (this.n.multiply(negPlaintext).add(BigInteger.ONE)).mod(this.nSquare);
-                    nudeCiphertext = Util.invert(negCiphertext, this.nSquare);
-                } else {
-                    nudeCiphertext = (this.n.multiply(pBigInteger).add(BigInteger.ONE)).mod(this.nSquare);
-                }
-            } else if (plaintext instanceof BigDecimal) {
-                // see plaintext instanceof BigInteger
+            BigInteger nudeCiphertext = BigInteger.ZERO;
+            if (plaintext instanceof BigDecimal) {
+                // very large plaintext, take a sneaky shortcut using inverses
                 BigDecimal pBigDecimal = (BigDecimal) plaintext;
                 BigDecimal nBigDecimal = new BigDecimal(this.n);
                 if (nBigDecimal.subtract(new BigDecimal(this.maxInt)).compareTo(pBigDecimal) <= 0 &&
@@ -181,25 +182,227 @@ public class Paillier {
                 }
             }
 
-            BigInteger r = rValue == 0 ? BigInteger.ONE : this.getRandomLtN();
-            BigInteger obfuscator = r.modPow(this.n, this.nSquare);
-
-            return Util.mulMod(nudeCiphertext, obfuscator, this.nSquare);
+            if (rValue == 0) {
+                return nudeCiphertext;
+            }
+            return Util.mulMod(nudeCiphertext, this.getObfuscator(), this.nSquare);
         }
 
         /**
-         * todo Public Function getRandomLtN(): get random in (1, public.n)
+         * todo Public Function rawEncrypt(BigInteger, Integer): encoding encryption with obfuscator
          *
+         * @param plaintext the encoding of plaintext
+         * @param rValue    obfuscator, 0 for none: the result is then the bare 1 + n * plaintext, without any modPow
          * @return BigInteger
          */
-        public @NotNull BigInteger getRandomLtN() {
-            Random rand = new Random();
-            BigInteger result;
+        public @NotNull BigInteger rawEncrypt(@NotNull BigInteger plaintext, Integer rValue) {
+            // n * plaintext + 1 mod n^2, large plaintexts need no inverse as 1 + n * (n - x) = (1 + n * x)^-1 mod n^2
+            BigInteger nudeCiphertext = this.n.multiply(plaintext).add(BigInteger.ONE).mod(this.nSquare);
+
+            if (rValue == 0) {
+                return nudeCiphertext;
+            }
+            return Util.mulMod(nudeCiphertext, this.getObfuscator(), this.nSquare);
+        }
+
+        /**
+         * todo Public Function getObfuscator(): take an obfuscator from the pool, or compute it if there is none
+         *
+         * @return BigInteger r^n mod n^2
+         */
+        public @NotNull BigInteger getObfuscator() {
+            ObfuscatorPool pool = this.obfuscatorPool;
+
+            return pool == null ? this.newObfuscator() : pool.take();
+        }
+
+        /**
+         * todo Public Function newObfuscator(): compute a fresh obfuscator
+         *
+         * @return BigInteger r^n mod n^2
+         */
+        public @NotNull BigInteger newObfuscator() {
+            FixedBaseTable table = this.obfuscationTable;
+            if (table == null) {
+                return this.getRandomLtN().modPow(this.n, this.nSquare);
+            }
+
+            BigInteger a;
             do {
-                result = new BigInteger(this.n.bitLength(), rand).abs();
-            } while (result.equals(BigInteger.ZERO));
+                a = RandomSource.getDefault().nextBits(table.exponentBits);
+            } while (a.signum() == 0);
+
+            return table.pow(a);
+        }
+
+        /**
+         * todo Public Function getObfuscationMode(): how fresh obfuscators are computed
+         *
+         * @return ObfuscationMode
+         */
+        public @NotNull ObfuscationMode getObfuscationMode() {
+            return this.obfuscationTable == null ? ObfuscationMode.FULL : ObfuscationMode.FIXED_BASE;
+        }
+
+        /**
+         * todo Public Function getObfuscationTable(): the table of the fixed base h
+         *
+         * @return FixedBaseTable, or null in ObfuscationMode.FULL
+         */
+        public FixedBaseTable getObfuscationTable() {
+            return this.obfuscationTable;
+        }
+
+        /**
+         * todo Public Function setObfuscationTable(FixedBaseTable): obfuscate with h^a of table from now on
+         *
+         * @param table the table of h = x^n mod n^2, or null to obfuscate with r^n mod n^2
+         * @throws Util.ValueErrorException if the modulus of table is not n^2, or its base is not coprime to n
+         */
+        public void setObfuscationTable(FixedBaseTable table) throws Util.ValueErrorException {
+            if (table != null
+                    && (!this.nSquare.equals(table.modulus) || !table.base.gcd(this.n).equals(BigInteger.ONE))) {
+                throw new Util.ValueErrorException("obfuscation table does not belong to this public key");
+            }
+
+            this.obfuscationTable = table;
+        }
+
+        /**
+         * @return FixedBaseTable
+         * @see PaillierPublicKey#newObfuscationTable(Integer, Integer)
+         */
+        public @NotNull FixedBaseTable newObfuscationTable() {
+            return newObfuscationTable(SHORT_EXPONENT_BITS, FixedBaseTable.DEFAULT_WINDOW);
+        }
+
+        /**
+         * todo Public Function newObfuscationTable(Integer, Integer): the table of a fresh fixed base h = x^n mod n^2
+         *
+         * @param exponentBits the length of the short exponent a
+         * @param window       the window width of the table
+         * @return FixedBaseTable
+         */
+        public @NotNull FixedBaseTable newObfuscationTable(@NotNull Integer exponentBits, @NotNull Integer window) {
+            BigInteger h = this.getRandomLtN().modPow(this.n, this.nSquare);
+
+            return new FixedBaseTable(h, this.nSquare, exponentBits, window);
+        }
+
+        /**
+         * todo Public Function toJson(): the public key as JWK, with the obfuscation mode its ciphertexts use
+         *
+         * @return String
+         */
+        public @NotNull String toJson() {
+            JsonObject jwk = new JsonObject();
+            jwk.addProperty("kty", "DAJ");
+            jwk.addProperty("alg", "PAI-GN1");
+            JsonArray keyOps = new JsonArray();
+            keyOps.add("encrypt");
+            jwk.add("key_ops", keyOps);
+            jwk.addProperty("n", Util.intToBase64(this.n));
+
+            FixedBaseTable table = this.obfuscationTable;
+            JsonObject obfuscation = new JsonObject();
+            obfuscation.addProperty("mode", this.getObfuscationMode().name());
+            if (table != null) {
+                obfuscation.addProperty("h", Util.intToBase64(table.base));
+                obfuscation.addProperty("exponent_bits", table.exponentBits);
+                obfuscation.addProperty("window", table.window);
+            }
+            jwk.add("obfuscation", obfuscation);
+
+            return jwk.toString();
+        }
+
+        /**
+         * todo Public Static Function fromJson(String): the public key of a JWK written by toJson()
+         * <p>
+         * A JWK without obfuscation is read in ObfuscationMode.FULL.
+         *
+         * @param json JWK of the public key
+         * @return PaillierPublicKey
+         * @throws Util.ValueErrorException if json is not a Paillier public key
+         */
+        public static @NotNull PaillierPublicKey fromJson(@NotNull String json) throws Util.ValueErrorException {
+            try {
+                JsonObject jwk = JsonParser.parseString(json).getAsJsonObject();
+                if (!"DAJ".equals(jwk.get("kty").getAsString()) || !"PAI-GN1".equals(jwk.get("alg").getAsString())) {
+                    throw new Util.ValueErrorException("not a Paillier public key");
+                }
+
+                PaillierPublicKey publicKey = new PaillierPublicKey(Util.base64ToInt(jwk.get("n").getAsString()));
+                JsonObject obfuscation = jwk.getAsJsonObject("obfuscation");
+                if (obfuscation != null) {
+                    ObfuscationMode mode = ObfuscationMode.valueOf(obfuscation.get("mode").getAsString());
+                    if (mode == ObfuscationMode.FIXED_BASE) {
+                        BigInteger h = Util.base64ToInt(obfuscation.get("h").getAsString());
+                        publicKey.setObfuscationTable(new FixedBaseTable(h, publicKey.nSquare,
+                                obfuscation.get("exponent_bits").getAsInt(), obfuscation.get("window").getAsInt()));
+                    }
+                }
+
+                return publicKey;
+            } catch (JsonParseException | IllegalStateException | IllegalArgumentException | NullPointerException e) {
+                throw new Util.ValueErrorException("invalid public key JWK: " + e.getMessage());
+            }
+        }
+
+        /**
+         * todo Public Function getObfuscatorPool(): the precomputed obfuscators
+         *
+         * @return ObfuscatorPool, or null if obfuscators are computed inline
+         */
+        public ObfuscatorPool getObfuscatorPool() {
+            return this.obfuscatorPool;
+        }
+
+        /**
+         * todo Public Function setObfuscatorPool(ObfuscatorPool): draw the obfuscators from pool
+         *
+         * @param pool the precomputed obfuscators, or null to compute them inline
+         * @throws Util.ValueErrorException if pool belongs to a different public key
+         */
+        public void setObfuscatorPool(ObfuscatorPool pool) throws Util.ValueErrorException {
+            if (pool != null && !this.equals(pool.publicKey)) {
+                throw new Util.ValueErrorException("obfuscator pool belongs to a different public key");
+            }
+
+            this.obfuscatorPool = pool;
+        }
+
+        /**
+         * todo Public Function isLazyObfuscation(): fresh encryptions are left bare or not
+         *
+         * @return boolean
+         */
+        public boolean isLazyObfuscation() {
+            return this.lazyObfuscation;
+        }
+
+        /**
+         * todo Public Function setLazyObfuscation(boolean): leave fresh encryptions bare until they are exported
+         * <p>
+         * Encryptions of this key are then the bare 1 + n * m, as every derived result already is, and are
+         * re-randomized only on export: by ciphertext(true), or in a batch by EncryptedNumber#obfuscateAll. A pipeline
+         * of many intermediates and one exported aggregate then pays for a single obfuscation. A bare ciphertext
+         * reveals its plaintext to anyone holding the public key, so it must not leave the process.
+         *
+         * @param lazy leave fresh encryptions bare or not
+         */
+        public void setLazyObfuscation(boolean lazy) {
+            this.lazyObfuscation = lazy;
+        }
 
-            return result;
+        /**
+         * todo Public Function getRandomLtN(): get random in [1, public.n)
+         *
+         * @return BigInteger
+         * @see RandomSource#nextBelow(BigInteger)
+         */
+        public @NotNull BigInteger getRandomLtN() {
+            return RandomSource.getDefault().nextBelow(this.n);
         }
 
         /**
@@ -230,19 +433,7 @@ public class Paillier {
          * @return EncryptedNumber
          */
         public EncryptedNumber encrypt(Object value, Double precision, Integer rValue) {
-            EncodedNumber encoding;
-            value = Util.wrapBig(value);
-
-            if (value instanceof EncodedNumber) {
-                encoding = ((EncodedNumber) value);
-            } else {
-                if (precision == null) {
-                    encoding = EncodedNumber.encode(this, value);
-                } else {
-                    encoding = EncodedNumber.encode(this, value, precision);
-                }
-
-            }
+            EncodedNumber encoding = encode(value, precision);
             if (rValue == null) {
                 return encryptEncoded(encoding);
             } else {
@@ -250,15 +441,97 @@ public class Paillier {
             }
         }
 
+        /**
+         * @param value number to be encrypted
+         * @return EncryptedNumber
+         * @see PaillierPublicKey#encrypt(long, Double)
+         */
+        public @NotNull EncryptedNumber encrypt(long value) {
+            return encryptEncoded(EncodedNumber.encode(this, value));
+        }
+
+        /**
+         * todo Public Function encrypt(long, Double): long to encrypting, without going through Object
+         *
+         * @param value     number to be encrypted
+         * @param precision the precision of encryption
+         * @return EncryptedNumber
+         */
+        public @NotNull EncryptedNumber encrypt(long value, Double precision) {
+            return encryptEncoded(EncodedNumber.encode(this, value, precision));
+        }
+
+        /**
+         * @param value number to be encrypted
+         * @return EncryptedNumber
+         * @see PaillierPublicKey#encrypt(double, Double)
+         */
+        public @NotNull EncryptedNumber encrypt(double value) {
+            return encryptEncoded(EncodedNumber.encode(this, value));
+        }
+
+        /**
+         * todo Public Function encrypt(double, Double): double to encrypting, without going through Object
+         *
+         * @param value     number to be encrypted
+         * @param precision the precision of encryption
+         * @return EncryptedNumber
+         */
+        public @NotNull EncryptedNumber encrypt(double value, Double precision) {
+            return encryptEncoded(EncodedNumber.encode(this, value, precision));
+        }
+
+        /**
+         * @param value number to be encrypted
+         * @return EncryptedNumber
+         * @see PaillierPublicKey#encrypt(BigInteger, Double)
+         */
+        public @NotNull EncryptedNumber encrypt(@NotNull BigInteger value) {
+            return encryptEncoded(EncodedNumber.encode(this, value));
+        }
+
+        /**
+         * todo Public Function encrypt(BigInteger, Double): BigInteger to encrypting, without going through Object
+         *
+         * @param value     number to be encrypted
+         * @param precision the precision of encryption
+         * @return EncryptedNumber
+         */
+        public @NotNull EncryptedNumber encrypt(@NotNull BigInteger value, Double precision) {
+            return encryptEncoded(EncodedNumber.encode(this, value, precision));
+        }
+
+        /**
+         * @param value number to be encrypted
+         * @return EncryptedNumber
+         * @see PaillierPublicKey#encrypt(BigDecimal, Double)
+         */
+        public @NotNull EncryptedNumber encrypt(@NotNull BigDecimal value) {
+            return encryptEncoded(EncodedNumber.encode(this, value));
+        }
+
+        /**
+         * todo Public Function encrypt(BigDecimal, Double): BigDecimal to encrypting, without going through Object
+         *
+         * @param value     number to be encrypted
+         * @param precision the precision of encryption
+         * @return EncryptedNumber
+         */
+        public @NotNull EncryptedNumber encrypt(@NotNull BigDecimal value, Double precision) {
+            return encryptEncoded(EncodedNumber.encode(this, value, precision));
+        }
+
         /**
          * @param encoding encoded number
          * @return EncryptedNumber
          * @see PaillierPublicKey#encryptEncoded(EncodedNumber, Integer)
          */
         public @NotNull EncryptedNumber encryptEncoded(@NotNull EncodedNumber encoding) {
-            Integer rValue = 0;
-            EncryptedNumber encryptedNumber = encryptEncoded(encoding, rValue);
-            encryptedNumber.obfuscate();
+            // the bare ciphertext is obfuscated exactly once, or on export if obfuscation is lazy
+            EncryptedNumber encryptedNumber = encryptBare(encoding);
+            if (!this.lazyObfuscation) {
+                encryptedNumber.obfuscate();
+            }
 
             return encryptedNumber;
         }
@@ -267,14 +540,68 @@ public class Paillier {
          * todo Public Function encryptEncoded(EncodedNumber): encrypted number encode
          *
          * @param encoding encoded number
-         * @param rValue   obfuscator
+         * @param rValue   obfuscator, 0 is read as 1: the ciphertext is always randomized
          * @return EncryptedNumber
          */
         public @NotNull EncryptedNumber encryptEncoded(@NotNull EncodedNumber encoding, Integer rValue) {
             Integer obfuscator = rValue == 0 ? 1 : rValue;
             BigInteger ciphertext = rawEncrypt(encoding.encoding, obfuscator);
+            EncryptedNumber encryptedNumber = new EncryptedNumber(this, ciphertext, encoding.exponent);
+            encryptedNumber.isObfuscated = true;
+
+            return encryptedNumber;
+        }
+
+        /**
+         * todo Function encryptBare(EncodedNumber): the bare, deterministic encryption 1 + n * encoding
+         * <p>
+         * The result reveals the plaintext to anyone holding the public key until it is obfuscated.
+         *
+         * @param encoding encoded number
+         * @return EncryptedNumber not yet obfuscated
+         */
+        @NotNull EncryptedNumber encryptBare(@NotNull EncodedNumber encoding) {
+            return new EncryptedNumber(this, encryptBare(encoding.encoding), encoding.exponent);
+        }
+
+        /**
+         * todo Function encryptBare(BigInteger): the bare ciphertext 1 + n * encoding mod n^2, without any modPow
+         *
+         * @param encoding the encoding of plaintext
+         * @return BigInteger
+         */
+        @NotNull BigInteger encryptBare(@NotNull BigInteger encoding) {
+            Integer rValue = 0;
+            return rawEncrypt(encoding, rValue);
+        }
+
+        /**
+         * todo Function encode(Object, Double): the encoding of a plaintext or an EncodedNumber
+         *
+         * @param value     number to be encrypted
+         * @param precision the precision of encryption, null for the default
+         * @return EncodedNumber
+         */
+        @NotNull EncodedNumber encode(Object value, Double precision) {
+            if (value instanceof EncodedNumber) {
+                return (EncodedNumber) value;
+            }
 
-            return new EncryptedNumber(this, ciphertext, encoding.exponent);
+            return precision == null ? EncodedNumber.encode(this, value) : EncodedNumber.encode(this, value, precision);
+        }
+
+        /**
+         * todo Public Enum ObfuscationMode: how fresh obfuscators are computed
+         */
+        public enum ObfuscationMode {
+            /**
+             * FULL: r^n mod n^2 for a random r in [1, n)
+             */
+            FULL,
+            /**
+             * FIXED_BASE: h^a mod n^2 for the published h = x^n mod n^2 and a random short exponent a
+             */
+            FIXED_BASE
         }
     }
 
@@ -295,10 +622,18 @@ public class Paillier {
          * pSquare:   the square of p
          * qSquare:   the square of q
          * pInverse:  the inverse of p
-         * hp:        hFunction h(p)
-         * hq:        hFunction h(q)
          */
-        private final BigInteger pSquare, qSquare, pInverse, hp, hq;
+        private final BigInteger pSquare, qSquare, pInverse;
+        /**
+         * nModPhiPSquare: n reduced modulo phi(p^2) = p * (p - 1)
+         * nModPhiQSquare: n reduced modulo phi(q^2) = q * (q - 1)
+         * pSquareInverse: the inverse of p^2 modulo q^2
+         */
+        private final BigInteger nModPhiPSquare, nModPhiQSquare, pSquareInverse;
+        /**
+         * decryptor: the precomputed decryption of the private key
+         */
+        private final Decryptor decryptor;
 
         /**
          * todo Public Function PaillierPrivateKey(PaillierPublicKey, BigInteger, BigInteger): Class PaillierPrivateKey init
@@ -332,8 +667,12 @@ public class Paillier {
             this.qSquare = this.q.pow(2);
             this.pInverse = Util.invert(this.p, this.q);
 
-            this.hp = hFunction(this.p, this.pSquare);
-            this.hq = hFunction(this.q, this.qSquare);
+            BigInteger n = this.publicKey.n;
+            this.nModPhiPSquare = n.mod(this.pSquare.subtract(this.p));
+            this.nModPhiQSquare = n.mod(this.qSquare.subtract(this.q));
+            this.pSquareInverse = Util.invert(this.pSquare, this.qSquare);
+
+            this.decryptor = new Decryptor(this);
         }
 
         @Override
@@ -410,22 +749,164 @@ public class Paillier {
             return new EncodedNumber(this.publicKey, encoded, encryptedNumber.exponent);
         }
 
+        /**
+         * todo Public Function decryptBounded(EncryptedNumber, BigInteger): decrypt a number no larger than bound
+         * <p>
+         * With |plaintext| <= bound, small enough against p, only the p-half of the decryption is computed.
+         *
+         * @param encryptedNumber the encrypted number
+         * @param bound           the largest magnitude of the plaintext
+         * @return Object -> BigInteger or BigDecimal
+         * @throws Util.ValueErrorException if public keys are not match, or bound is negative
+         * @see Decryptor#rawDecryptBounded(BigInteger, BigInteger)
+         */
+        public Object decryptBounded(@NotNull EncryptedNumber encryptedNumber, @NotNull BigInteger bound)
+                throws Util.ValueErrorException {
+            if (this.publicKey != encryptedNumber.publicKey) {
+                throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+            }
+
+            // |mantissa| = |plaintext| * BASE^-exponent
+            int shift = EncodedNumber.LOG2_BASE * encryptedNumber.exponent.intValueExact();
+            BigInteger mantissaBound = shift <= 0 ? bound.shiftLeft(-shift) : bound.shiftRight(shift);
+            boolean beSecure = false;
+            BigInteger encoded = this.decryptor.rawDecryptBounded(encryptedNumber.ciphertext(beSecure),
+                    mantissaBound);
+
+            return new EncodedNumber(this.publicKey, encoded, encryptedNumber.exponent).decode();
+        }
+
         /**
          * todo Public Function rawDecrypt(BigInteger): number decryption with obfuscator
          *
          * @param ciphertext the ciphertext
          * @return BigInteger
+         * @see Decryptor#rawDecrypt(BigInteger)
          */
         public @NotNull BigInteger rawDecrypt(@NotNull BigInteger ciphertext) {
-            BigInteger lFuncP = lFunction(ciphertext.modPow(this.p.subtract(BigInteger.ONE), this.pSquare), this.p);
-            BigInteger decryptToP = Util.mulMod(lFuncP, this.hp, this.p);
+            return this.decryptor.rawDecrypt(ciphertext);
+        }
+
+        /**
+         * todo Public Function decryptAll(EncryptedNumber[], long[]): decrypt src in parallel into dst
+         *
+         * @param src the encrypted numbers
+         * @param dst the plaintexts, rounded half up
+         * @return BitSet the indices of overflows
+         * @see Decryptor#decryptAll(EncryptedNumber[], long[])
+         */
+        public @NotNull BitSet decryptAll(EncryptedNumber @NotNull [] src, long @NotNull [] dst) {
+            return this.decryptor.decryptAll(src, dst);
+        }
+
+        /**
+         * todo Public Function decryptAll(EncryptedNumber[], double[]): decrypt src in parallel into dst
+         *
+         * @param src the encrypted numbers
+         * @param dst the plaintexts, nearest
+         * @return BitSet the indices of overflows
+         * @see Decryptor#decryptAll(EncryptedNumber[], double[])
+         */
+        public @NotNull BitSet decryptAll(EncryptedNumber @NotNull [] src, double @NotNull [] dst) {
+            return this.decryptor.decryptAll(src, dst);
+        }
+
+        /**
+         * todo Public Function decryptAll(EncryptedNumber[], BigInteger[]): decrypt src in parallel into dst
+         *
+         * @param src the encrypted numbers
+         * @param dst the plaintexts, rounded half up
+         * @return BitSet the indices of overflows
+         * @see Decryptor#decryptAll(EncryptedNumber[], BigInteger[])
+         */
+        public @NotNull BitSet decryptAll(EncryptedNumber @NotNull [] src, BigInteger @NotNull [] dst) {
+            return this.decryptor.decryptAll(src, dst);
+        }
+
+        /**
+         * @param value number to be encrypted
+         * @return EncryptedNumber
+         * @see PaillierPrivateKey#encrypt(Object, Double)
+         */
+        public EncryptedNumber encrypt(Object value) {
+            return encrypt(value, null);
+        }
+
+        /**
+         * todo Public Function encrypt(Object, Double): plaintext to encrypting with the CRT obfuscator
+         * <p>
+         * The result is a normal EncryptedNumber of the public key.
+         *
+         * @param value     number to be encrypted
+         * @param precision the precision of encryption
+         * @return EncryptedNumber
+         */
+        public EncryptedNumber encrypt(Object value, Double precision) {
+            return encryptEncoded(this.publicKey.encode(value, precision));
+        }
+
+        /**
+         * todo Public Function encryptEncoded(EncodedNumber): encoded number to encrypting with the CRT obfuscator
+         *
+         * @param encoding encoded number
+         * @return EncryptedNumber
+         */
+        public @NotNull EncryptedNumber encryptEncoded(@NotNull EncodedNumber encoding) {
+            EncryptedNumber encryptedNumber = this.publicKey.encryptBare(encoding);
+            if (!this.publicKey.isLazyObfuscation()) {
+                obfuscate(encryptedNumber);
+            }
+
+            return encryptedNumber;
+        }
+
+        /**
+         * todo Public Function obfuscate(EncryptedNumber): obfuscate encryptedNumber with the CRT obfuscator
+         *
+         * @param encryptedNumber the encrypted number
+         * @throws Util.ValueErrorException if public keys are not match
+         */
+        public void obfuscate(@NotNull EncryptedNumber encryptedNumber) throws Util.ValueErrorException {
+            if (!this.publicKey.equals(encryptedNumber.publicKey)) {
+                throw new Util.ValueErrorException("encrypted_number was encrypted against a different key");
+            }
 
-            BigInteger lFuncQ = lFunction(ciphertext.modPow(this.q.subtract(BigInteger.ONE), this.qSquare), this.q);
-            BigInteger decryptToQ = Util.mulMod(lFuncQ, this.hq, this.q);
+            BigInteger rPowN = newObfuscator();
+            encryptedNumber.ciphertext = Util.mulMod(encryptedNumber.ciphertext, rPowN, this.publicKey.nSquare);
+            encryptedNumber.isObfuscated = true;
+            encryptedNumber.inverse = null;
+        }
 
-            return crt(decryptToP, decryptToQ);
+        /**
+         * todo Public Function newObfuscator(): compute a fresh obfuscator by Chinese-remaindering
+         *
+         * @return BigInteger r^n mod n^2
+         */
+        public @NotNull BigInteger newObfuscator() {
+            BigInteger r;
+            // the reduced exponents need r coprime to n, anything else would reveal a factor
+            do {
+                r = this.publicKey.getRandomLtN();
+            } while (r.mod(this.p).signum() == 0 || r.mod(this.q).signum() == 0);
+
+            return rawObfuscator(r);
         }
 
+        /**
+         * todo Public Function rawObfuscator(BigInteger): r^n mod n^2 by Chinese-remaindering
+         * <p>
+         * Each half is a modPow of half the width with an exponent of at most half the length of n.
+         *
+         * @param r a number coprime to n
+         * @return BigInteger r^n mod n^2
+         */
+        public @NotNull BigInteger rawObfuscator(@NotNull BigInteger r) {
+            BigInteger xp = r.mod(this.pSquare).modPow(this.nModPhiPSquare, this.pSquare);
+            BigInteger xq = r.mod(this.qSquare).modPow(this.nModPhiQSquare, this.qSquare);
+            BigInteger u = Util.mulMod(xq.subtract(xp), this.pSquareInverse, this.qSquare);
+
+            return xp.add(u.multiply(this.pSquare));
+        }
 
         /**
          * todo Public Function hFunction(BigInteger, BigInteger): Decryption using Chinese-remaindering
@@ -553,6 +1034,10 @@ public class Paillier {
      * todo Public Static Class EncryptedNumber: Encrypted number
      */
     public static class EncryptedNumber {
+        /**
+         * OBFUSCATE_GRAIN: the number of obfuscations of one task of obfuscateAll
+         */
+        private static final int OBFUSCATE_GRAIN = 4;
         /**
          * publicKey: the public key of the encrypted number
          */
@@ -569,6 +1054,10 @@ public class Paillier {
          * isObfuscated: the encrypted number is confused or not
          */
         private boolean isObfuscated;
+        /**
+         * inverse: the cached inverse of the ciphertext mod n^2, null until a negation needs it
+         */
+        private BigInteger inverse;
 
         /**
          * @param publicKey  the public key of the encrypted number
@@ -606,11 +1095,74 @@ public class Paillier {
             } else if (other instanceof EncodedNumber) {
                 return addEncoded((EncodedNumber) other);
             } else {
-                other = Util.wrapBig(other);
                 return addScalar(other);
             }
         }
 
+        /**
+         * todo Public Function add(long): add a long
+         *
+         * @param other other number
+         * @return EncryptedNumber this + other
+         */
+        public @NotNull EncryptedNumber add(long other) {
+            Integer maxExponent = this.exponent.intValue();
+            return addEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function add(double): add a double
+         *
+         * @param other other number
+         * @return EncryptedNumber this + other
+         */
+        public @NotNull EncryptedNumber add(double other) {
+            Integer maxExponent = this.exponent.intValue();
+            return addEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function add(BigInteger): add a BigInteger
+         *
+         * @param other other number
+         * @return EncryptedNumber this + other
+         */
+        public @NotNull EncryptedNumber add(@NotNull BigInteger other) {
+            Integer maxExponent = this.exponent.intValue();
+            return addEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function add(BigDecimal): add a BigDecimal
+         *
+         * @param other other number
+         * @return EncryptedNumber this + other
+         */
+        public @NotNull EncryptedNumber add(@NotNull BigDecimal other) {
+            Integer maxExponent = this.exponent.intValue();
+            return addEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function add(Object, boolean): add, then re-randomize the sum if asked to
+         * <p>
+         * Adding a plaintext costs a single multiplication mod n^2 and keeps the randomness of this, re-randomizing
+         * costs one more obfuscation and is only needed if the sum must not be linkable to this.
+         *
+         * @param other     other number -> int, float, EncryptedNumber or EncodedNumber
+         * @param obfuscate re-randomize the sum or not
+         * @return EncryptedNumber this + other
+         * @throws Util.ValueErrorException if public key is not match
+         */
+        public EncryptedNumber add(Object other, boolean obfuscate) throws Util.ValueErrorException {
+            EncryptedNumber sum = add(other);
+            if (obfuscate) {
+                sum.obfuscate();
+            }
+
+            return sum;
+        }
+
         /**
          * todo Public Function multiply(Object): multiply an int, float or EncodedNumber
          *
@@ -619,21 +1171,53 @@ public class Paillier {
          * @throws Util.NotImplementedErrorException if other is EncryptedNumber
          */
         public EncryptedNumber multiply(Object other) throws Util.NotImplementedErrorException {
-            EncodedNumber encoding;
-
             if (other instanceof EncryptedNumber) {
                 throw new Util.NotImplementedErrorException("good luck with that...");
             } else if (other instanceof EncodedNumber) {
-                encoding = (EncodedNumber) other;
+                return multiplyEncoded((EncodedNumber) other);
             } else {
-                other = Util.wrapBig(other);
-                encoding = EncodedNumber.encode(this.publicKey, other);
+                return multiplyEncoded(EncodedNumber.encode(this.publicKey, other));
             }
+        }
 
-            BigInteger product = rawMul(encoding.encoding);
-            BigInteger exponent = this.exponent.add(encoding.exponent);
+        /**
+         * todo Public Function multiply(long): multiply a long
+         *
+         * @param other other number
+         * @return EncryptedNumber this * other
+         */
+        public @NotNull EncryptedNumber multiply(long other) {
+            return multiplyEncoded(EncodedNumber.encode(this.publicKey, other));
+        }
 
-            return new EncryptedNumber(this.publicKey, product, exponent);
+        /**
+         * todo Public Function multiply(double): multiply a double
+         *
+         * @param other other number
+         * @return EncryptedNumber this * other
+         */
+        public @NotNull EncryptedNumber multiply(double other) {
+            return multiplyEncoded(EncodedNumber.encode(this.publicKey, other));
+        }
+
+        /**
+         * todo Public Function multiply(BigInteger): multiply a BigInteger
+         *
+         * @param other other number
+         * @return EncryptedNumber this * other
+         */
+        public @NotNull EncryptedNumber multiply(@NotNull BigInteger other) {
+            return multiplyEncoded(EncodedNumber.encode(this.publicKey, other));
+        }
+
+        /**
+         * todo Public Function multiply(BigDecimal): multiply a BigDecimal
+         *
+         * @param other other number
+         * @return EncryptedNumber this * other
+         */
+        public @NotNull EncryptedNumber multiply(@NotNull BigDecimal other) {
+            return multiplyEncoded(EncodedNumber.encode(this.publicKey, other));
         }
 
         /**
@@ -645,19 +1229,140 @@ public class Paillier {
          */
         public EncryptedNumber subtract(Object other) throws Util.ValueErrorException {
             if (other instanceof EncryptedNumber) {
-                return this.add(((EncryptedNumber) other).multiply(-1));
+                return this.add(((EncryptedNumber) other).negate());
             } else if (other instanceof EncodedNumber) {
-                EncryptedNumber encryptedNumber = this.publicKey.encrypt(other);
-
-                return this.add(encryptedNumber.multiply(-1));
+                return subtractEncoded((EncodedNumber) other);
             } else {
-                other = Util.wrapBig(other);
-                if (other instanceof BigInteger) {
-                    return this.add(((BigInteger) other).multiply(BigInteger.valueOf(-1)));
-                } else {
-                    return this.add(((BigDecimal) other).multiply(BigDecimal.valueOf(-1)));
+                return subtractEncoded(EncodedNumber.encode(this.publicKey, other, null, this.exponent.intValue()));
+            }
+        }
+
+        /**
+         * todo Public Function subtract(long): subtract a long
+         *
+         * @param other other number
+         * @return EncryptedNumber this - other
+         */
+        public @NotNull EncryptedNumber subtract(long other) {
+            Integer maxExponent = this.exponent.intValue();
+            return subtractEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function subtract(double): subtract a double
+         *
+         * @param other other number
+         * @return EncryptedNumber this - other
+         */
+        public @NotNull EncryptedNumber subtract(double other) {
+            Integer maxExponent = this.exponent.intValue();
+            return subtractEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function subtract(BigInteger): subtract a BigInteger
+         *
+         * @param other other number
+         * @return EncryptedNumber this - other
+         */
+        public @NotNull EncryptedNumber subtract(@NotNull BigInteger other) {
+            Integer maxExponent = this.exponent.intValue();
+            return subtractEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function subtract(BigDecimal): subtract a BigDecimal
+         *
+         * @param other other number
+         * @return EncryptedNumber this - other
+         */
+        public @NotNull EncryptedNumber subtract(@NotNull BigDecimal other) {
+            Integer maxExponent = this.exponent.intValue();
+            return subtractEncoded(EncodedNumber.encode(this.publicKey, other, null, maxExponent));
+        }
+
+        /**
+         * todo Public Function negate(): -this
+         * <p>
+         * The inverse of the ciphertext is cached on both numbers, so negating or subtracting the same number again
+         * costs no further modInverse.
+         *
+         * @return EncryptedNumber -this
+         */
+        public @NotNull EncryptedNumber negate() {
+            EncryptedNumber negated = new EncryptedNumber(this.publicKey, inverse(), this.exponent);
+            negated.inverse = this.ciphertext;
+
+            return negated;
+        }
+
+        /**
+         * todo Public Static Function negateAll(EncryptedNumber[]): -numbers[i] for many numbers at once
+         * <p>
+         * The ciphertexts without a cached inverse are inverted together by Util#invertAll, one modInverse for the
+         * whole batch instead of one per number.
+         *
+         * @param numbers the numbers
+         * @return EncryptedNumber[] -numbers[i]
+         * @throws Util.ValueErrorException if public keys are not match
+         */
+        public static EncryptedNumber @NotNull [] negateAll(EncryptedNumber @NotNull [] numbers)
+                throws Util.ValueErrorException {
+            int missing = 0;
+            for (EncryptedNumber number : numbers) {
+                if (number.publicKey != numbers[0].publicKey) {
+                    String exception = "Attempted to negate numbers encoded against different public keys";
+                    throw new Util.ValueErrorException(exception);
+                }
+                if (number.inverse == null) {
+                    missing++;
+                }
+            }
+            if (missing > 0) {
+                int[] indices = new int[missing];
+                BigInteger[] ciphertexts = new BigInteger[missing];
+                for (int i = 0, j = 0; i < numbers.length; i++) {
+                    if (numbers[i].inverse == null) {
+                        indices[j] = i;
+                        ciphertexts[j++] = numbers[i].ciphertext;
+                    }
+                }
+                BigInteger[] inverses = Util.invertAll(ciphertexts, numbers[0].publicKey.nSquare);
+                for (int j = 0; j < missing; j++) {
+                    numbers[indices[j]].inverse = inverses[j];
                 }
             }
+
+            EncryptedNumber[] negated = new EncryptedNumber[numbers.length];
+            for (int i = 0; i < numbers.length; i++) {
+                negated[i] = numbers[i].negate();
+            }
+
+            return negated;
+        }
+
+        /**
+         * todo Public Static Function subtractAll(EncryptedNumber[], EncryptedNumber[]): a[i] - b[i] for many pairs
+         *
+         * @param a the minuends
+         * @param b the subtrahends, negated together by negateAll
+         * @return EncryptedNumber[] a[i] - b[i]
+         * @throws Util.ValueErrorException if lengths or public keys are not match
+         */
+        public static EncryptedNumber @NotNull [] subtractAll(EncryptedNumber @NotNull [] a,
+                                                               EncryptedNumber @NotNull [] b)
+                throws Util.ValueErrorException {
+            if (a.length != b.length) {
+                String exception = "Attempted to subtract %d numbers from %d numbers";
+                throw new Util.ValueErrorException(String.format(exception, b.length, a.length));
+            }
+            EncryptedNumber[] negated = negateAll(b);
+            EncryptedNumber[] difference = new EncryptedNumber[a.length];
+            for (int i = 0; i < a.length; i++) {
+                difference[i] = a[i].add(negated[i]);
+            }
+
+            return difference;
         }
 
         /**
@@ -673,16 +1378,54 @@ public class Paillier {
                 throw new Util.NotImplementedErrorException("good luck with that...");
             } else if (other instanceof EncodedNumber) {
                 throw new Util.TypeErrorException("should not be EncodedNumber");
+            } else if (other instanceof Number) {
+                return divide(((Number) other).doubleValue());
             } else {
-                other = Util.wrapBig(other);
-                if (other instanceof BigInteger) {
-                    return this.multiply(BigDecimal.valueOf(1 / ((BigInteger) other).doubleValue()));
-                } else {
-                    return this.multiply(BigDecimal.valueOf(1 / ((BigDecimal) other).doubleValue()));
-                }
+                String exception = "Don't know how to divide by type %s";
+                throw new Util.TypeErrorException(String.format(exception, other == null ? null : other.getClass()));
             }
         }
 
+        /**
+         * todo Public Function divide(long): divide a long
+         *
+         * @param other other number
+         * @return EncryptedNumber this / other
+         */
+        public @NotNull EncryptedNumber divide(long other) {
+            return divide((double) other);
+        }
+
+        /**
+         * todo Public Function divide(double): divide a double
+         *
+         * @param other other number
+         * @return EncryptedNumber this / other
+         */
+        public @NotNull EncryptedNumber divide(double other) {
+            return multiply(1 / other);
+        }
+
+        /**
+         * todo Public Function divide(BigInteger): divide a BigInteger
+         *
+         * @param other other number
+         * @return EncryptedNumber this / other
+         */
+        public @NotNull EncryptedNumber divide(@NotNull BigInteger other) {
+            return divide(other.doubleValue());
+        }
+
+        /**
+         * todo Public Function divide(BigDecimal): divide a BigDecimal
+         *
+         * @param other other number
+         * @return EncryptedNumber this / other
+         */
+        public @NotNull EncryptedNumber divide(@NotNull BigDecimal other) {
+            return divide(other.doubleValue());
+        }
+
         /**
          * todo Public Function ciphertext(boolean): set the obfuscated of the ciphertext
          *
@@ -708,21 +1451,70 @@ public class Paillier {
                 String exception = "New exponent %s should be more negative than old exponent %s";
                 throw new Util.ValueErrorException(String.format(exception, newExp, this.exponent));
             }
-            double baseExp = FastMath.pow(EncodedNumber.BASE, this.exponent.subtract(newExp).intValue());
-            EncryptedNumber multiplied = this.multiply(new BigDecimal(Double.toString(baseExp)));
+            // BASE^(exponent - newExp) is an exact power of two
+            int shift = EncodedNumber.LOG2_BASE * this.exponent.subtract(newExp).intValueExact();
+            EncryptedNumber multiplied = this.multiply(BigInteger.ONE.shiftLeft(shift));
             multiplied.exponent = newExp;
 
             return multiplied;
         }
 
+        /**
+         * todo Public Function isObfuscated(): the ciphertext is re-randomized or not
+         *
+         * @return boolean
+         */
+        public boolean isObfuscated() {
+            return this.isObfuscated;
+        }
+
+        /**
+         * todo Static Function obfuscated(PaillierPublicKey, BigInteger, BigInteger): an imported encrypted number
+         *
+         * @param publicKey  the public key of the encrypted number
+         * @param ciphertext the ciphertext, already re-randomized before it was exported
+         * @param exponent   the exponent of the encrypted number
+         * @return EncryptedNumber that ciphertext(true) exports unchanged
+         */
+        static @NotNull EncryptedNumber obfuscated(PaillierPublicKey publicKey, BigInteger ciphertext,
+                                                   BigInteger exponent) {
+            EncryptedNumber encryptedNumber = new EncryptedNumber(publicKey, ciphertext, exponent);
+            encryptedNumber.isObfuscated = true;
+
+            return encryptedNumber;
+        }
+
+        /**
+         * @param numbers the encrypted numbers
+         * @see EncryptedNumber#obfuscateAll(Collection, ForkJoinPool)
+         */
+        public static void obfuscateAll(@NotNull Collection<EncryptedNumber> numbers) {
+            obfuscateAll(numbers, null);
+        }
+
+        /**
+         * todo Public Static Function obfuscateAll(Collection, ForkJoinPool): obfuscate many numbers in parallel
+         * <p>
+         * Numbers that are already obfuscated are skipped, as ciphertext(true) would skip them. The obfuscators are
+         * drawn through getObfuscator(), from the ObfuscatorPool of the key if it has one.
+         *
+         * @param numbers the encrypted numbers, each in the collection once
+         * @param pool    the fork-join pool, null for the common pool
+         */
+        public static void obfuscateAll(@NotNull Collection<EncryptedNumber> numbers, ForkJoinPool pool) {
+            EncryptedNumber[] bare = numbers.stream().filter(number -> !number.isObfuscated)
+                    .toArray(EncryptedNumber[]::new);
+            Batch.forEach(pool, bare.length, OBFUSCATE_GRAIN, i -> bare[i].obfuscate());
+        }
+
         /**
          * todo Public Function obfuscate(): the obfuscate function
          */
         public void obfuscate() {
-            BigInteger r = this.publicKey.getRandomLtN();
-            BigInteger rPowN = r.modPow(this.publicKey.n, this.publicKey.nSquare);
+            BigInteger rPowN = this.publicKey.getObfuscator();
             this.ciphertext = this.ciphertext.multiply(rPowN).mod(this.publicKey.nSquare);
             this.isObfuscated = true;
+            this.inverse = null;
         }
 
         /**
@@ -733,7 +1525,6 @@ public class Paillier {
          * @throws Util.ValueErrorException if public key is not match
          */
         private @NotNull EncryptedNumber addScalar(Object scalar) throws Util.ValueErrorException {
-            scalar = Util.wrapBig(scalar);
             EncodedNumber encoded = EncodedNumber.encode(this.publicKey, scalar, null, this.exponent.intValue());
             return addEncoded(encoded);
         }
@@ -758,13 +1549,42 @@ public class Paillier {
                 b = b.decreaseExponentTo(a.exponent);
             }
 
-            BigInteger encryptedScalar = a.publicKey.rawEncrypt(b.encoding, 1);
+            // 1 + n * b, a plaintext needs no obfuscator of its own
+            BigInteger encryptedScalar = a.publicKey.encryptBare(b.encoding);
             boolean beSecure = false;
             BigInteger sumCiphertext = a.rawAdd(a.ciphertext(beSecure), encryptedScalar);
 
             return new EncryptedNumber(a.publicKey, sumCiphertext, a.exponent);
         }
 
+        /**
+         * todo Private Function subtractEncoded(EncodedNumber): subtract EncodedNumber
+         *
+         * @param encoded EncodedNumber
+         * @return EncryptedNumber
+         * @throws Util.ValueErrorException if public key is not match
+         */
+        private @NotNull EncryptedNumber subtractEncoded(@NotNull EncodedNumber encoded) throws Util.ValueErrorException {
+            // -x is encoded as n - x
+            BigInteger negEncoding = encoded.encoding.signum() == 0
+                    ? encoded.encoding : encoded.publicKey.n.subtract(encoded.encoding);
+
+            return addEncoded(new EncodedNumber(encoded.publicKey, negEncoding, encoded.exponent));
+        }
+
+        /**
+         * todo Private Function multiplyEncoded(EncodedNumber): multiply EncodedNumber
+         *
+         * @param encoding EncodedNumber
+         * @return EncryptedNumber
+         */
+        private @NotNull EncryptedNumber multiplyEncoded(@NotNull EncodedNumber encoding) {
+            BigInteger product = rawMul(encoding.encoding);
+            BigInteger exponent = this.exponent.add(encoding.exponent);
+
+            return new EncryptedNumber(this.publicKey, product, exponent);
+        }
+
         /**
          * todo Private Function addEncrypted(EncryptedNumber): add EncryptedNumber
          *
@@ -809,19 +1629,25 @@ public class Paillier {
          * @return BigInteger E(a) * b
          */
         private @NotNull BigInteger rawMul(@NotNull BigInteger plaintext) {
-            if (plaintext.compareTo(BigInteger.ZERO) < 0 || plaintext.compareTo(this.publicKey.n) >= 0) {
-                throw new Util.ValueErrorException(String.format("Scalar out of bounds: %s", plaintext));
-            }
+            BigInteger scalar = ScalarMultiplication.signed(this.publicKey, plaintext);
 
             boolean beSecure = false;
-            if (this.publicKey.n.subtract(this.publicKey.maxInt).compareTo(plaintext) <= 0) {
-                BigInteger negC = Util.invert(this.ciphertext(beSecure), this.publicKey.nSquare);
-                BigInteger negScalar = this.publicKey.n.subtract(plaintext);
+            BigInteger inverse = scalar.signum() < 0 ? inverse() : null;
 
-                return negC.modPow(negScalar, this.publicKey.nSquare);
-            } else {
-                return this.ciphertext(beSecure).modPow(plaintext, this.publicKey.nSquare);
+            return ScalarMultiplication.power(this.publicKey, this.ciphertext(beSecure), inverse, scalar);
+        }
+
+        /**
+         * todo Private Function inverse(): the inverse of the ciphertext mod n^2, computed once
+         *
+         * @return BigInteger ciphertext ** -1 mod n^2
+         */
+        private @NotNull BigInteger inverse() {
+            if (this.inverse == null) {
+                this.inverse = ScalarMultiplication.inverse(this.publicKey, this.ciphertext);
             }
+
+            return this.inverse;
         }
     }
 }
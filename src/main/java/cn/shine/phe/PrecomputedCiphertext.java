@@ -0,0 +1,208 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   PrecomputedCiphertext
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 06:40
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * todo Public Class PrecomputedCiphertext: an encrypted number to be multiplied by many plaintext scalars
+ * <p>
+ * A FixedBaseTable of the ciphertext c turns every later multiplication into table lookups and multiplications, with
+ * no squaring. The table is sized for the expected bit length of the scalar magnitudes, and its window balances the
+ * cost of building it against the expected number of multiplications. A negative scalar -k, 0 < k <= 2^b for b the
+ * scalar bit length, is served by the same table as c^(2^b - k) * c^(-2^b), where c^(-2^b) is computed on the first
+ * negative scalar. Scalars longer than the table fall back to EncryptedNumber#multiply.
+ *
+ * @author Zhan Shi
+ */
+public class PrecomputedCiphertext {
+    /**
+     * DEFAULT_SCALAR_BITS: the scalar bit length of the default table, a long or the mantissa of a double
+     */
+    public static final Integer DEFAULT_SCALAR_BITS = 64;
+    /**
+     * DEFAULT_USES: the expected number of multiplications of the default table
+     */
+    public static final Integer DEFAULT_USES = 256;
+    /**
+     * encryptedNumber: the encrypted number
+     */
+    public final Paillier.EncryptedNumber encryptedNumber;
+    /**
+     * scalarBits: the longest scalar magnitude served by the table
+     * window:     the window width of the table
+     */
+    public final Integer scalarBits, window;
+    /**
+     * table: the powers of c
+     */
+    private final FixedBaseTable table;
+    /**
+     * inverseTop: c^(-2^scalarBits) mod n^2, null until a negative scalar needs it
+     */
+    private volatile BigInteger inverseTop;
+
+    /**
+     * @param encryptedNumber the encrypted number
+     * @see PrecomputedCiphertext#PrecomputedCiphertext(Paillier.EncryptedNumber, Integer, Integer)
+     */
+    public PrecomputedCiphertext(@NotNull Paillier.EncryptedNumber encryptedNumber) {
+        this(encryptedNumber, DEFAULT_SCALAR_BITS, DEFAULT_USES);
+    }
+
+    /**
+     * todo Public Function PrecomputedCiphertext(EncryptedNumber, Integer, Integer): Class PrecomputedCiphertext init
+     *
+     * @param encryptedNumber the encrypted number
+     * @param scalarBits      the expected bit length of the scalar magnitudes
+     * @param uses            the expected number of multiplications
+     * @throws Util.ValueErrorException if scalarBits or uses is not positive
+     */
+    public PrecomputedCiphertext(@NotNull Paillier.EncryptedNumber encryptedNumber, @NotNull Integer scalarBits,
+                                 @NotNull Integer uses) throws Util.ValueErrorException {
+        if (uses <= 0) {
+            throw new Util.ValueErrorException("uses should be positive");
+        }
+
+        this.encryptedNumber = encryptedNumber;
+        this.scalarBits = scalarBits;
+        this.window = window(scalarBits, uses);
+        boolean beSecure = false;
+        this.table = new FixedBaseTable(encryptedNumber.ciphertext(beSecure), encryptedNumber.publicKey.nSquare,
+                scalarBits, this.window);
+    }
+
+    /**
+     * @param other other number
+     * @return EncryptedNumber encryptedNumber * other
+     * @see PrecomputedCiphertext#multiply(EncodedNumber)
+     */
+    public @NotNull Paillier.EncryptedNumber multiply(long other) {
+        return multiply(EncodedNumber.encode(this.encryptedNumber.publicKey, other));
+    }
+
+    /**
+     * @param other other number
+     * @return EncryptedNumber encryptedNumber * other
+     * @see PrecomputedCiphertext#multiply(EncodedNumber)
+     */
+    public @NotNull Paillier.EncryptedNumber multiply(double other) {
+        return multiply(EncodedNumber.encode(this.encryptedNumber.publicKey, other));
+    }
+
+    /**
+     * @param other other number
+     * @return EncryptedNumber encryptedNumber * other
+     * @see PrecomputedCiphertext#multiply(EncodedNumber)
+     */
+    public @NotNull Paillier.EncryptedNumber multiply(@NotNull BigInteger other) {
+        return multiply(EncodedNumber.encode(this.encryptedNumber.publicKey, other));
+    }
+
+    /**
+     * @param other other number
+     * @return EncryptedNumber encryptedNumber * other
+     * @see PrecomputedCiphertext#multiply(EncodedNumber)
+     */
+    public @NotNull Paillier.EncryptedNumber multiply(@NotNull BigDecimal other) {
+        return multiply(EncodedNumber.encode(this.encryptedNumber.publicKey, other));
+    }
+
+    /**
+     * todo Public Function multiply(EncodedNumber): encryptedNumber * encoded, from the table
+     *
+     * @param encoded the encoded scalar
+     * @return EncryptedNumber encryptedNumber * encoded
+     * @throws Util.ValueErrorException if public key is not match, or the encoding is out of bounds
+     */
+    public @NotNull Paillier.EncryptedNumber multiply(@NotNull EncodedNumber encoded) throws Util.ValueErrorException {
+        Paillier.PaillierPublicKey publicKey = this.encryptedNumber.publicKey;
+        if (publicKey != encoded.publicKey) {
+            throw new Util.ValueErrorException("Attempted to multiply numbers encoded against different public keys");
+        }
+
+        BigInteger scalar = ScalarMultiplication.signed(publicKey, encoded.encoding);
+        if (scalar.bitLength() > this.scalarBits) {
+            return this.encryptedNumber.multiply(encoded);
+        }
+        BigInteger product;
+        if (scalar.signum() < 0) {
+            // c^-k = c^(2^scalarBits - k) * c^(-2^scalarBits)
+            BigInteger complement = BigInteger.ONE.shiftLeft(this.scalarBits).add(scalar);
+            product = Util.mulMod(this.table.pow(complement), inverseTop(), publicKey.nSquare);
+        } else {
+            product = this.table.pow(scalar);
+        }
+
+        return new Paillier.EncryptedNumber(publicKey, product, this.encryptedNumber.exponent.add(encoded.exponent));
+    }
+
+    /**
+     * todo Public Function memoryBytes(): an estimate of the memory held by the table
+     *
+     * @return long
+     */
+    public long memoryBytes() {
+        return this.table.memoryBytes();
+    }
+
+    /**
+     * todo Static Function window(int, int): the window width for some scalar bit length and number of uses
+     * <p>
+     * A table of width w costs about rows * 2^w multiplications to build and rows multiplications per use, with
+     * rows = ceil(scalarBits / w); the width with the least cost per use is taken.
+     *
+     * @param scalarBits the expected bit length of the scalar magnitudes
+     * @param uses       the expected number of multiplications
+     * @return int the window width
+     */
+    static int window(int scalarBits, int uses) {
+        int best = 1;
+        double bestCost = Double.MAX_VALUE;
+        for (int window = 1; window <= FixedBaseTable.MAX_WINDOW; window++) {
+            int rows = (scalarBits + window - 1) / window;
+            double cost = (double) rows * ((1 << window) - 1) / uses + rows;
+            if (cost < bestCost) {
+                best = window;
+                bestCost = cost;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * todo Private Function inverseTop(): c^(-2^scalarBits) mod n^2, computed once
+     *
+     * @return BigInteger
+     */
+    private @NotNull BigInteger inverseTop() {
+        BigInteger inverse = this.inverseTop;
+        if (inverse == null) {
+            boolean beSecure = false;
+            BigInteger top = BigInteger.ONE.shiftLeft(this.scalarBits);
+            BigInteger nSquare = this.encryptedNumber.publicKey.nSquare;
+            inverse = this.encryptedNumber.negate().ciphertext(beSecure).modPow(top, nSquare);
+            this.inverseTop = inverse;
+        }
+
+        return inverse;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("<PrecomputedCiphertext scalarBits=%d window=%d memoryBytes=%d>", this.scalarBits,
+                this.window, memoryBytes());
+    }
+}
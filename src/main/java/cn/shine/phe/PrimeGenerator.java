@@ -0,0 +1,228 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   PrimeGenerator
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/17 22:10
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * todo Public Class PrimeGenerator: sieve-based incremental prime candidate generator
+ * <p>
+ * A random odd starting point is drawn from a byte array, then a window of odd candidates after it is sieved against
+ * a table of small primes. Only the survivors get the Miller-Rabin/Lucas test of BigInteger#isProbablePrime.
+ *
+ * @author Zhan Shi
+ */
+public class PrimeGenerator {
+    /**
+     * PRIME_CERTAINTY: the certainty handed to BigInteger#isProbablePrime, same as BigInteger#nextProbablePrime
+     */
+    public static final Integer PRIME_CERTAINTY = 100;
+    /**
+     * SIEVE_LIMIT: the small primes of the sieve table are below this limit
+     */
+    public static final Integer SIEVE_LIMIT = 1 << 16;
+    /**
+     * SIEVE_PRIMES_PER_BIT: the number of small primes sieved with per bit of the prime, beyond that the sieve costs
+     * more than the Miller-Rabin rounds it saves
+     */
+    public static final Integer SIEVE_PRIMES_PER_BIT = 3;
+    /**
+     * MIN_WINDOW: the smallest number of odd candidates sieved at once
+     */
+    public static final Integer MIN_WINDOW = 64;
+    /**
+     * SMALL_PRIMES: the odd primes below SIEVE_LIMIT
+     */
+    private static final int[] SMALL_PRIMES = smallPrimes(SIEVE_LIMIT);
+
+    /**
+     * @param bitLength length of prime
+     * @return BigInteger
+     * @see PrimeGenerator#generate(Integer, BooleanSupplier)
+     */
+    public static @NotNull BigInteger generate(@NotNull Integer bitLength) {
+        BigInteger prime = generate(bitLength, () -> false);
+        assert prime != null;
+
+        return prime;
+    }
+
+    /**
+     * todo Public Static Function generate(Integer, BooleanSupplier): random prime with its two top bits set
+     *
+     * @param bitLength length of prime, at least 3
+     * @param stop      checked between windows, the search gives up once it returns true
+     * @return BigInteger, or null if stop returned true first
+     * @throws Util.ValueErrorException if bitLength is smaller than 3
+     */
+    public static BigInteger generate(@NotNull Integer bitLength, @NotNull BooleanSupplier stop)
+            throws Util.ValueErrorException {
+        if (bitLength < 3) {
+            throw new Util.ValueErrorException("prime length should be at least 3");
+        }
+
+        int window = Math.max(MIN_WINDOW, bitLength);
+        // a small prime can only be sieved out if it is below every candidate, the top two bits are set
+        int primes = Math.min(countBelow(bitLength - 2), SIEVE_PRIMES_PER_BIT * Math.max(MIN_WINDOW, bitLength));
+        boolean[] composite = new boolean[window];
+
+        while (!stop.getAsBoolean()) {
+            BigInteger base = startingPoint(bitLength);
+            // slide the window until the candidates outgrow bitLength, then draw a new starting point
+            while (base.bitLength() == bitLength && !stop.getAsBoolean()) {
+                sieve(base, composite, primes);
+                for (int i = 0; i < window; i++) {
+                    if (composite[i]) {
+                        continue;
+                    }
+                    BigInteger candidate = base.add(BigInteger.valueOf(2L * i));
+                    if (candidate.bitLength() == bitLength && candidate.isProbablePrime(PRIME_CERTAINTY)) {
+                        return candidate;
+                    }
+                }
+                base = base.add(BigInteger.valueOf(2L * window));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * todo Private Static Function startingPoint(Integer): random odd number of bitLength bits, two top bits set
+     *
+     * @param bitLength length of starting point
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger startingPoint(int bitLength) {
+        byte[] bytes = new byte[(bitLength + 7) / 8];
+        RandomSource.getDefault().nextBytes(bytes);
+
+        // clear the excess bits of the leading byte, then set the two top bits and the lowest one
+        int excess = bytes.length * 8 - bitLength;
+        bytes[0] &= (byte) (0xff >>> excess);
+        if (bitLength % 8 == 1) {
+            bytes[0] |= 0x01;
+            bytes[1] |= (byte) 0x80;
+        } else {
+            bytes[0] |= (byte) (0xc0 >>> excess);
+        }
+        bytes[bytes.length - 1] |= 0x01;
+
+        return new BigInteger(1, bytes);
+    }
+
+    /**
+     * todo Private Static Function sieve(BigInteger, boolean[], int): mark base + 2i divisible by a small prime
+     *
+     * @param base      the odd start of the window
+     * @param composite composite[i] is set if base + 2i has a small factor
+     * @param primes    the number of small primes to sieve with
+     */
+    private static void sieve(@NotNull BigInteger base, boolean[] composite, int primes) {
+        Arrays.fill(composite, false);
+        int[] words = words(base);
+
+        for (int j = 0; j < primes; j++) {
+            int p = SMALL_PRIMES[j];
+            // base + 2i = 0 mod p  <=>  i = -base / 2 mod p
+            long r = residue(words, p);
+            int i = (int) ((p - r) % p * ((p + 1) / 2) % p);
+            for (; i < composite.length; i += p) {
+                composite[i] = true;
+            }
+        }
+    }
+
+    /**
+     * todo Private Static Function words(BigInteger): the magnitude as 32-bit words, most significant first
+     *
+     * @param x a non-negative number
+     * @return int[]
+     */
+    private static int @NotNull [] words(@NotNull BigInteger x) {
+        byte[] bytes = x.toByteArray();
+        int[] words = new int[(bytes.length + 3) / 4];
+        for (int i = 0; i < bytes.length; i++) {
+            // k counts the bytes from the least significant one
+            int k = bytes.length - 1 - i;
+            words[words.length - 1 - k / 4] |= (bytes[i] & 0xff) << (8 * (k % 4));
+        }
+
+        return words;
+    }
+
+    /**
+     * todo Private Static Function residue(int[], int): Horner reduction of the words modulo a small prime
+     *
+     * @param words the magnitude as 32-bit words, most significant first
+     * @param p     a prime below SIEVE_LIMIT
+     * @return long words mod p
+     */
+    private static long residue(int @NotNull [] words, int p) {
+        long r = 0;
+        for (int word : words) {
+            r = ((r << 32) | (word & 0xffffffffL)) % p;
+        }
+
+        return r;
+    }
+
+    /**
+     * todo Private Static Function countBelow(Integer): the number of small primes below 2^bits
+     *
+     * @param bits the bit length bound
+     * @return int
+     */
+    private static int countBelow(int bits) {
+        if (bits >= 31) {
+            return SMALL_PRIMES.length;
+        }
+        int bound = 1 << bits;
+        int count = 0;
+        while (count < SMALL_PRIMES.length && SMALL_PRIMES[count] < bound) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * todo Private Static Function smallPrimes(int): odd primes below limit, by the sieve of Eratosthenes
+     *
+     * @param limit the bound of the primes
+     * @return int[]
+     */
+    private static int @NotNull [] smallPrimes(int limit) {
+        boolean[] composite = new boolean[limit];
+        int count = 0;
+        for (int i = 3; i < limit; i += 2) {
+            if (!composite[i]) {
+                count++;
+                for (long j = (long) i * i; j < limit; j += 2L * i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+
+        int[] primes = new int[count];
+        for (int i = 3, j = 0; i < limit; i += 2) {
+            if (!composite[i]) {
+                primes[j++] = i;
+            }
+        }
+
+        return primes;
+    }
+}
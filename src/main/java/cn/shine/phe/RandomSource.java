@@ -0,0 +1,125 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   RandomSource
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/17 23:05
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * todo Public Abstract Class RandomSource: the randomness of r values and key material
+ * <p>
+ * Every use of randomness in the phe package goes through RandomSource#getDefault(), which can be replaced by
+ * RandomSource#setDefault(RandomSource).
+ *
+ * @author Zhan Shi
+ */
+public abstract class RandomSource {
+    /**
+     * defaultSource: the random source used by the phe package
+     */
+    private static volatile RandomSource defaultSource = new ThreadLocalSecureRandom();
+
+    /**
+     * todo Public Static Function getDefault(): the random source used by the phe package
+     *
+     * @return RandomSource
+     */
+    public static @NotNull RandomSource getDefault() {
+        return defaultSource;
+    }
+
+    /**
+     * todo Public Static Function setDefault(RandomSource): replace the random source used by the phe package
+     *
+     * @param source the new random source
+     */
+    public static void setDefault(@NotNull RandomSource source) {
+        defaultSource = source;
+    }
+
+    /**
+     * todo Public Abstract Function random(): the generator of the current thread
+     *
+     * @return Random
+     */
+    public abstract @NotNull Random random();
+
+    /**
+     * todo Public Function nextBytes(byte[]): fill bytes with random bytes
+     *
+     * @param bytes the bytes to fill
+     */
+    public void nextBytes(byte @NotNull [] bytes) {
+        random().nextBytes(bytes);
+    }
+
+    /**
+     * todo Public Function nextBits(Integer): uniform random number in [0, 2^numBits)
+     *
+     * @param numBits length of random bits
+     * @return BigInteger
+     */
+    public @NotNull BigInteger nextBits(@NotNull Integer numBits) {
+        return new BigInteger(numBits, random());
+    }
+
+    /**
+     * todo Public Function nextBelow(BigInteger): uniform random number in [1, n) by rejection
+     *
+     * @param n the exclusive upper bound, larger than 1
+     * @return BigInteger
+     */
+    public @NotNull BigInteger nextBelow(@NotNull BigInteger n) {
+        Random random = random();
+        int bitLength = n.bitLength();
+        BigInteger result;
+        // fewer than two draws are expected, as n >= 2^(bitLength - 1)
+        do {
+            result = new BigInteger(bitLength, random);
+        } while (result.signum() == 0 || result.compareTo(n) >= 0);
+
+        return result;
+    }
+
+    /**
+     * todo Public Static Class ThreadLocalSecureRandom: one non-blocking SecureRandom per thread
+     * <p>
+     * Threads never contend on a shared generator, DRBG is preferred and the platform default is the fallback.
+     */
+    public static class ThreadLocalSecureRandom extends RandomSource {
+        /**
+         * random: the generator of each thread
+         */
+        private final ThreadLocal<SecureRandom> random = ThreadLocal.withInitial(ThreadLocalSecureRandom::create);
+
+        /**
+         * todo Private Static Function create(): a new non-blocking SecureRandom
+         *
+         * @return SecureRandom
+         */
+        private static @NotNull SecureRandom create() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+
+        @Override
+        public @NotNull Random random() {
+            return this.random.get();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package cn.shine.phe;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.phe
+ * @Class   ScalarMultiplication
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 06:10
+ * @License MIT
+ */
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * todo Public Class ScalarMultiplication: E(x) * k, that is c^k mod n^2, for a signed plaintext scalar k
+ * <p>
+ * The scalar is read as a signed magnitude, an encoding n - k is the scalar -k, and c^-k is (c^-1)^k. The power is
+ * sized by the magnitude, never by the residue, so multiplying by -3 costs what multiplying by 3 costs plus one
+ * inverse of c, which is lifted from the inverse mod n instead of taken mod n^2.
+ *
+ * @author Zhan Shi
+ */
+public final class ScalarMultiplication {
+    /**
+     * todo Private Function ScalarMultiplication(): no instance
+     */
+    private ScalarMultiplication() {
+    }
+
+    /**
+     * todo Public Static Function signed(PaillierPublicKey, BigInteger): the signed scalar of an encoding
+     *
+     * @param publicKey the public key
+     * @param encoding  the encoding, 0 <= encoding < n
+     * @return BigInteger encoding - n if encoding >= n - maxInt, else encoding
+     * @throws Util.ValueErrorException if encoding is out of bounds
+     */
+    public static @NotNull BigInteger signed(@NotNull Paillier.PaillierPublicKey publicKey,
+                                             @NotNull BigInteger encoding) throws Util.ValueErrorException {
+        if (encoding.signum() < 0 || encoding.compareTo(publicKey.n) >= 0) {
+            throw new Util.ValueErrorException(String.format("Scalar out of bounds: %s", encoding));
+        }
+
+        return publicKey.n.subtract(publicKey.maxInt).compareTo(encoding) <= 0
+                ? encoding.subtract(publicKey.n) : encoding;
+    }
+
+    /**
+     * @param publicKey  the public key
+     * @param ciphertext the ciphertext c
+     * @param scalar     the scalar, of any sign
+     * @return BigInteger c^scalar mod n^2
+     * @see ScalarMultiplication#power(PaillierPublicKey, BigInteger, BigInteger, BigInteger)
+     */
+    public static @NotNull BigInteger power(@NotNull Paillier.PaillierPublicKey publicKey,
+                                            @NotNull BigInteger ciphertext, @NotNull BigInteger scalar) {
+        return power(publicKey, ciphertext, null, scalar);
+    }
+
+    /**
+     * todo Public Static Function power(PaillierPublicKey, BigInteger, BigInteger, BigInteger): c^scalar mod n^2
+     *
+     * @param publicKey  the public key
+     * @param ciphertext the ciphertext c
+     * @param inverse    c^-1 mod n^2 if already known, else null to lift it when the scalar is negative
+     * @param scalar     the scalar, of any sign
+     * @return BigInteger c^scalar mod n^2
+     * @throws Util.ZeroDivisionErrorException if the scalar is negative and c is not invertible
+     */
+    public static @NotNull BigInteger power(@NotNull Paillier.PaillierPublicKey publicKey,
+                                            @NotNull BigInteger ciphertext, BigInteger inverse,
+                                            @NotNull BigInteger scalar) throws Util.ZeroDivisionErrorException {
+        if (scalar.signum() >= 0) {
+            return ciphertext.modPow(scalar, publicKey.nSquare);
+        }
+        BigInteger base = inverse != null ? inverse : inverse(publicKey, ciphertext);
+
+        return base.modPow(scalar.negate(), publicKey.nSquare);
+    }
+
+    /**
+     * todo Public Static Function inverse(PaillierPublicKey, BigInteger): c^-1 mod n^2
+     * <p>
+     * With z = c^-1 mod n, c * z = 1 + t * n, so c * z * (2 - c * z) = 1 - t^2 * n^2: one modInverse at half the width
+     * and two multiplications instead of a modInverse mod n^2.
+     *
+     * @param publicKey  the public key
+     * @param ciphertext the ciphertext c
+     * @return BigInteger c^-1 mod n^2
+     * @throws Util.ZeroDivisionErrorException if c is not invertible
+     */
+    public static @NotNull BigInteger inverse(@NotNull Paillier.PaillierPublicKey publicKey,
+                                              @NotNull BigInteger ciphertext) throws Util.ZeroDivisionErrorException {
+        BigInteger z = Util.invert(ciphertext.mod(publicKey.n), publicKey.n);
+        BigInteger lift = BigInteger.TWO.subtract(ciphertext.multiply(z));
+
+        return Util.mulMod(z, lift, publicKey.nSquare);
+    }
+}
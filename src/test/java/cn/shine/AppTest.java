@@ -10,8 +10,29 @@ package cn.shine;
  * @License MIT
  */
 
+import cn.shine.phe.CiphertextCodec;
+import cn.shine.phe.CiphertextStore;
+import cn.shine.phe.Decryptor;
+import cn.shine.phe.EncodedNumber;
+import cn.shine.phe.EncryptedAccumulator;
+import cn.shine.phe.EncryptedFixed;
+import cn.shine.phe.EncryptedLinearAlgebra;
+import cn.shine.phe.EncryptedVector;
+import cn.shine.phe.FixedBaseTable;
+import cn.shine.phe.KeyGenerator;
+import cn.shine.phe.KeyPairPool;
+import cn.shine.phe.MultiExponentiation;
+import cn.shine.phe.ObfuscatorPool;
+import cn.shine.phe.PackedEncryptedNumber;
+import cn.shine.phe.PackingScheme;
 import cn.shine.phe.Paillier;
+import cn.shine.phe.PrecomputedCiphertext;
+import cn.shine.phe.PrimeGenerator;
+import cn.shine.phe.RandomSource;
+import cn.shine.phe.ScalarMultiplication;
+import cn.shine.phe.Util;
 import cn.shine.report.ZTestReport;
+import org.apache.commons.math3.util.FastMath;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.testng.annotations.DataProvider;
@@ -20,9 +41,22 @@ import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import static junit.framework.TestCase.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -55,6 +89,840 @@ public class AppTest {
         assertEquals(keyPair.publicKey, keyPair.privateKey.publicKey);
     }
 
+    /**
+     * todo Test generateKeypairLengthTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Generate Keypair Length Test", dataProvider = "keyLength")
+    public void generateKeypairLengthTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+
+        assertEquals(keyPair.publicKey.n.bitLength(), keyLength);
+        assertEquals(keyPair.privateKey.p.multiply(keyPair.privateKey.q), keyPair.publicKey.n);
+    }
+
+    /**
+     * todo Test primeGeneratorTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Prime Generator Test", dataProvider = "keyLength")
+    public void primeGeneratorTest(int keyLength) {
+        BigInteger prime = PrimeGenerator.generate(keyLength / 2);
+
+        assertEquals(prime.bitLength(), keyLength / 2);
+        assertTrue(prime.testBit(keyLength / 2 - 2));
+        assertTrue(prime.isProbablePrime(PrimeGenerator.PRIME_CERTAINTY));
+    }
+
+    /**
+     * todo Test randomSourceTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Random Source Test", dataProvider = "keyLength")
+    public void randomSourceTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+
+        for (int i = 0; i < 100; i++) {
+            BigInteger r = keyPair.publicKey.getRandomLtN();
+            assertTrue(r.signum() > 0 && r.compareTo(keyPair.publicKey.n) < 0);
+        }
+        assertEquals(Util.getRandBits(keyLength).bitLength(), keyLength);
+        assertEquals(RandomSource.getDefault().nextBelow(BigInteger.TWO), BigInteger.ONE);
+    }
+
+    /**
+     * todo Test generateKeypairCancelTest
+     */
+    @Test(description = "Generate Keypair Cancel Test", expectedExceptions = CancellationException.class)
+    public void generateKeypairCancelTest() {
+        KeyGenerator.Cancellation cancellation = KeyGenerator.Cancellation.none();
+        cancellation.cancel();
+
+        KeyGenerator.getDefault().generate(4096, cancellation);
+    }
+
+    /**
+     * todo Test generateKeypairTimeoutTest
+     */
+    @Test(description = "Generate Keypair Timeout Test", expectedExceptions = Util.TimeoutErrorException.class)
+    public void generateKeypairTimeoutTest() {
+        KeyGenerator.getDefault().generate(4096, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * todo Test keyPairPoolTest
+     *
+     * @throws Exception if the pool file could not be used
+     */
+    @Test(description = "Key Pair Pool Test", timeOut = 60000)
+    public void keyPairPoolTest() throws Exception {
+        Path file = Files.createTempFile("phe", ".keys");
+        Files.delete(file);
+
+        KeyPairPool pool = new KeyPairPool(2, 1, file);
+        Paillier.PaillierKeyPair keyPair = pool.take(256, 1, TimeUnit.MINUTES);
+        assertEquals(keyPair.publicKey.n.bitLength(), 256);
+        while (pool.depth(256) < 2) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.metrics(256).generated >= 2);
+        assertTrue(pool.metrics(256).refillRate > 0);
+        pool.close();
+
+        KeyPairPool restarted = new KeyPairPool(2, 1, file);
+        assertEquals(restarted.depth(256), Integer.valueOf(2));
+        assertTrue(!Files.exists(file));
+        Paillier.PaillierKeyPair restored = restarted.take(256, 0, TimeUnit.SECONDS);
+        assertEquals(restored.privateKey.p.multiply(restored.privateKey.q), restored.publicKey.n);
+        restarted.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * todo Test keyPairPoolFileTest
+     *
+     * @throws Exception if the pool file could not be used
+     */
+    @Test(description = "Key Pair Pool File Test", timeOut = 60000)
+    public void keyPairPoolFileTest() throws Exception {
+        Path file = Files.createTempFile("phe", ".keys");
+        Paillier.PaillierPrivateKey key = Paillier.PaillierKeyPair.generate(256).privateKey;
+        String p = key.p.toString(16), q = key.q.toString(16);
+        Files.write(file, Arrays.asList("256 " + p + " " + q, "512 " + p + " " + q, "256 " + p + " " + p,
+                "256 zz " + q), StandardCharsets.UTF_8);
+
+        KeyPairPool pool = new KeyPairPool(1, 1, file);
+        assertEquals(pool.depth(256), Integer.valueOf(1));
+        assertEquals(pool.depth(512), Integer.valueOf(0));
+        assertTrue(!Files.exists(file));
+        pool.close();
+        assertTrue(Files.exists(file));
+        assertEquals(Files.readAllLines(file, StandardCharsets.UTF_8).size(), 1);
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * todo Test encryptObfuscationTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Encrypt Obfuscation Test", dataProvider = "keyLength")
+    public void encryptObfuscationTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+
+        BigInteger m1 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber c1 = keyPair.publicKey.encrypt(m1);
+        Paillier.EncryptedNumber c2 = keyPair.publicKey.encrypt(m1);
+        assertTrue(!c1.ciphertext(false).equals(c2.ciphertext(false)));
+
+        EncodedNumber encoded = EncodedNumber.encode(keyPair.publicKey, m1);
+        BigInteger nude = keyPair.publicKey.n.multiply(encoded.encoding).add(BigInteger.ONE);
+        assertEquals(keyPair.publicKey.rawEncrypt(encoded.encoding, 0), nude);
+        Paillier.EncryptedNumber randomized = keyPair.publicKey.encryptEncoded(encoded, 0);
+        assertTrue(randomized.isObfuscated());
+        assertNotEquals(randomized.ciphertext(false), nude);
+        assertEquals(keyPair.privateKey.decrypt(randomized), m1);
+
+        BigInteger m2 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber sum = c1.add(m2, true);
+        assertTrue(!sum.ciphertext(false).equals(c1.add(m2).ciphertext(false)));
+        assertEquals(keyPair.privateKey.decrypt(sum), m1.add(m2));
+    }
+
+    /**
+     * todo Test obfuscatorPoolTest
+     *
+     * @param keyLength keypair length
+     * @throws InterruptedException if interrupted while waiting for the pool
+     */
+    @Test(description = "Obfuscator Pool Test", dataProvider = "keyLength", timeOut = 60000)
+    public void obfuscatorPoolTest(int keyLength) throws InterruptedException {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        ObfuscatorPool pool = new ObfuscatorPool(keyPair.publicKey, 4, 1, ObfuscatorPool.Policy.BLOCK);
+        keyPair.publicKey.setObfuscatorPool(pool);
+        while (pool.depth() < 4) {
+            Thread.sleep(10);
+        }
+
+        BigInteger m1 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber c1 = keyPair.publicKey.encrypt(m1);
+        BigInteger m2 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber c2 = keyPair.publicKey.encrypt(m2);
+        assertEquals(keyPair.privateKey.decrypt(c1.add(c2)), m1.add(m2));
+        assertEquals(pool.metrics().hits, Long.valueOf(2));
+
+        pool.close();
+        Paillier.EncryptedNumber c3 = keyPair.publicKey.encrypt(m1);
+        assertEquals(keyPair.privateKey.decrypt(c3), m1);
+        keyPair.publicKey.setObfuscatorPool(null);
+    }
+
+    /**
+     * todo Test obfuscatorPoolFailureTest: a failing generator surfaces in take() instead of blocking it forever
+     */
+    @Test(description = "Obfuscator Pool Failure Test", expectedExceptions = IllegalStateException.class,
+            timeOut = 60000)
+    public void obfuscatorPoolFailureTest() {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(128);
+        RandomSource source = RandomSource.getDefault();
+        RandomSource.setDefault(new RandomSource() {
+            @Override
+            public @NotNull Random random() {
+                throw new IllegalStateException("no entropy");
+            }
+        });
+
+        try (ObfuscatorPool pool = new ObfuscatorPool(keyPair.publicKey, 4, 1, ObfuscatorPool.Policy.BLOCK)) {
+            pool.take();
+        } finally {
+            RandomSource.setDefault(source);
+        }
+    }
+
+    /**
+     * todo Test privateKeyEncryptTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Private Key Encrypt Test", dataProvider = "keyLength")
+    public void privateKeyEncryptTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        BigInteger n = keyPair.publicKey.n, nSquare = n.pow(2);
+        BigInteger r = keyPair.publicKey.getRandomLtN();
+        if (r.gcd(n).equals(BigInteger.ONE)) {
+            assertEquals(keyPair.privateKey.rawObfuscator(r), r.modPow(n, nSquare));
+        }
+
+        BigInteger m1 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber c1 = keyPair.privateKey.encrypt(m1);
+        BigInteger m2 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber c2 = keyPair.publicKey.encrypt(m2);
+        assertEquals(keyPair.privateKey.decrypt(c1), m1);
+        assertEquals(keyPair.privateKey.decrypt(c1.add(c2)), m1.add(m2));
+        assertNotEquals(keyPair.privateKey.encrypt(m1).ciphertext(false), c1.ciphertext(false));
+    }
+
+    /**
+     * todo Test fixedBaseObfuscationTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Fixed Base Obfuscation Test", dataProvider = "keyLength")
+    public void fixedBaseObfuscationTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        FixedBaseTable table = publicKey.newObfuscationTable(64, 5);
+        for (int bits : new int[]{1, 5, 63, 64, 65}) {
+            BigInteger a = new BigInteger(bits, new Random());
+            assertEquals(table.pow(a), table.base.modPow(a, table.modulus));
+        }
+
+        publicKey.setObfuscationTable(table);
+        BigInteger m1 = randomInt(BigInteger.valueOf(keyLength));
+        Paillier.EncryptedNumber c1 = publicKey.encrypt(m1);
+        BigInteger m2 = randomInt(BigInteger.valueOf(keyLength));
+        assertEquals(keyPair.privateKey.decrypt(c1.add(publicKey.encrypt(m2))), m1.add(m2));
+
+        Paillier.PaillierPublicKey restored = Paillier.PaillierPublicKey.fromJson(publicKey.toJson());
+        assertEquals(restored, publicKey);
+        assertEquals(restored.getObfuscationMode(), Paillier.PaillierPublicKey.ObfuscationMode.FIXED_BASE);
+        assertEquals(restored.getObfuscationTable().base, table.base);
+        assertEquals(restored.getObfuscationTable().window, table.window);
+
+        publicKey.setObfuscationTable(null);
+        restored = Paillier.PaillierPublicKey.fromJson(publicKey.toJson());
+        assertEquals(restored.getObfuscationMode(), Paillier.PaillierPublicKey.ObfuscationMode.FULL);
+    }
+
+    /**
+     * todo Test typedOverloadTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Typed Overload Test", dataProvider = "keyLength")
+    public void typedOverloadTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        Random random = new Random();
+
+        long l = random.nextInt();
+        double d = random.nextDouble() * 1000 - 500;
+        assertEquals(keyPair.privateKey.decrypt(publicKey.encrypt(l)), BigInteger.valueOf(l));
+        assertEquals(keyPair.privateKey.decrypt(publicKey.encrypt((Object) l)), BigInteger.valueOf(l));
+        assertEquals(EncodedNumber.encode(publicKey, 3.0).exponent, BigInteger.ZERO);
+
+        // the typed double path reads the binary value, Util.wrapBig the decimal string, at most 2 units apart
+        EncodedNumber typed = EncodedNumber.encode(publicKey, d);
+        EncodedNumber wrapped = EncodedNumber.encode(publicKey, Util.wrapBig(d));
+        assertEquals(typed.exponent, wrapped.exponent);
+        assertTrue(typed.encoding.subtract(wrapped.encoding).abs().compareTo(BigInteger.valueOf(2)) <= 0);
+
+        // small operands, the product must fit the 128 bit key
+        long s = random.nextInt(1000) - 500;
+        Paillier.EncryptedNumber c = publicKey.encrypt(d);
+        BigDecimal resultL = (BigDecimal) keyPair.privateKey.decrypt(c.add(s).subtract(2.5).multiply(2L).divide(4.));
+        BigDecimal resultR = BigDecimal.valueOf((d + s - 2.5) * 2 / 4);
+        assertTrue(resultL.subtract(resultR).abs().compareTo(BigDecimal.valueOf(1e-6)) <= 0);
+    }
+
+    /**
+     * todo Test encodingPropertyTest: the shift-based encoding against the former Util.wrapBig encoding
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Encoding Property Test", dataProvider = "keyLength")
+    public void encodingPropertyTest(int keyLength) {
+        Paillier.PaillierPublicKey publicKey = Paillier.PaillierKeyPair.generate(keyLength).publicKey;
+        Random random = new Random();
+
+        for (int i = 0; i < 1000; i++) {
+            // normal inputs, |d| in [0.25, 2^51) where the former scaling by a double power of 16 was exact
+            double d = Math.scalb(1 + random.nextDouble(), random.nextInt(52) - 2) * (random.nextBoolean() ? 1 : -1);
+            EncodedNumber encoded = EncodedNumber.encode(publicKey, d);
+            int exponent = Math.abs(d) < 1e7 && d == Math.rint(d) ? 0 : Math.floorDiv(Math.getExponent(d) + 1 - 52, 4);
+            assertEquals(encoded.exponent, BigInteger.valueOf(exponent));
+            // the former encoder scaled the decimal string of d, which is within half an ulp of the binary value:
+            // at most 2 units once scaled, so the two roundings differ by at most 2
+            BigDecimal factor = BigDecimal.valueOf(FastMath.pow(16, -exponent));
+            BigInteger legacy = new BigDecimal(String.valueOf(d)).multiply(factor)
+                    .setScale(0, RoundingMode.HALF_UP).toBigInteger();
+            BigInteger intRep = encoded.encoding.compareTo(publicKey.n.shiftRight(1)) > 0
+                    ? encoded.encoding.subtract(publicKey.n) : encoded.encoding;
+            assertTrue(intRep.subtract(legacy).abs().compareTo(BigInteger.valueOf(2)) <= 0);
+            double decoded = intRep.doubleValue() / Math.pow(16, -exponent);
+            assertEquals(encoded.decodeDouble(), decoded);
+            assertEquals(encoded.decode(), exponent < 0 ? BigDecimal.valueOf(decoded) : intRep.shiftLeft(4 * exponent));
+
+            int lower = random.nextInt(10);
+            assertEquals(encoded.decreaseExponentTo(BigInteger.valueOf(exponent - lower)).encoding,
+                    intRep.multiply(BigInteger.valueOf(16).pow(lower)).mod(publicKey.n));
+
+            long l = random.nextLong() >> 16;
+            Integer maxExponent = -random.nextInt(4);
+            assertEquals(EncodedNumber.encode(publicKey, l, null, maxExponent).encoding,
+                    BigInteger.valueOf(l).multiply(BigInteger.valueOf(16).pow(-maxExponent)).mod(publicKey.n));
+        }
+    }
+
+    /**
+     * todo Test decryptorTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Decryptor Test", dataProvider = "keyLength")
+    public void decryptorTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Decryptor sequential = new Decryptor(keyPair.privateKey);
+        Decryptor parallel = new Decryptor(keyPair.privateKey, ForkJoinPool.commonPool());
+
+        BigInteger m = randomInt(BigInteger.valueOf(keyLength));
+        BigInteger c = keyPair.publicKey.encrypt(m).ciphertext(false);
+        BigInteger expected = m.mod(keyPair.publicKey.n);
+        assertEquals(sequential.rawDecrypt(c), expected);
+        assertEquals(parallel.rawDecrypt(c), expected);
+        assertEquals(keyPair.privateKey.decrypt(keyPair.publicKey.encrypt(m.negate())), m.negate());
+    }
+
+    /**
+     * todo Test decryptBoundedTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Decrypt Bounded Test", dataProvider = "keyLength")
+    public void decryptBoundedTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPrivateKey privateKey = keyPair.privateKey;
+        Decryptor decryptor = new Decryptor(privateKey);
+        BigInteger bound = BigInteger.valueOf(1000000);
+
+        BigInteger m = BigInteger.valueOf(123456);
+        assertEquals(privateKey.decryptBounded(keyPair.publicKey.encrypt(m), bound), m);
+        assertEquals(privateKey.decryptBounded(keyPair.publicKey.encrypt(m.negate()), bound), m.negate());
+        assertEquals(privateKey.decryptBounded(keyPair.publicKey.encrypt(-2.5), bound), BigDecimal.valueOf(-2.5));
+        // a bound that is not below p / 2, and a plaintext beyond the bound, take the full decryption
+        assertEquals(privateKey.decryptBounded(keyPair.publicKey.encrypt(m), privateKey.p), m);
+        assertEquals(privateKey.decryptBounded(keyPair.publicKey.encrypt(m.negate()), BigInteger.TEN), m.negate());
+
+        BigInteger c = keyPair.publicKey.encrypt(m.negate()).ciphertext(false);
+        assertEquals(decryptor.rawDecryptBounded(c, bound), decryptor.rawDecrypt(c));
+        assertEquals(decryptor.rawDecryptModP(c), m.negate().mod(privateKey.p));
+    }
+
+    /**
+     * todo Test decryptAllTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Decrypt All Test", dataProvider = "keyLength")
+    public void decryptAllTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+
+        BigInteger large = BigInteger.ONE.shiftLeft(70);
+        // n / 2 is neither a positive nor a negative encoding
+        Paillier.EncryptedNumber overflow = new Paillier.EncryptedNumber(publicKey,
+                publicKey.rawEncrypt(publicKey.n.shiftRight(1), 1), BigInteger.ZERO);
+        Paillier.EncryptedNumber[] src = {publicKey.encrypt(7L), publicKey.encrypt(-7L), publicKey.encrypt(2.5),
+                publicKey.encrypt(-2.5), publicKey.encrypt(1.75), publicKey.encrypt(large), overflow,
+                publicKey.encrypt(0L), publicKey.encrypt(123456789L), publicKey.encrypt(-0.0625)};
+
+        long[] longs = new long[src.length];
+        assertEquals(keyPair.privateKey.decryptAll(src, longs), BitSet.valueOf(new long[]{0b1100000}));
+        assertTrue(Arrays.equals(longs, new long[]{7, -7, 3, -3, 2, 0, 0, 0, 123456789, 0}));
+
+        double[] doubles = new double[src.length];
+        assertEquals(keyPair.privateKey.decryptAll(src, doubles), BitSet.valueOf(new long[]{0b1000000}));
+        assertTrue(Arrays.equals(doubles,
+                new double[]{7, -7, 2.5, -2.5, 1.75, 0x1p70, Double.NaN, 0, 123456789, -0.0625}));
+
+        BigInteger[] integers = new BigInteger[src.length];
+        assertEquals(new Decryptor(keyPair.privateKey, ForkJoinPool.commonPool()).decryptAll(src, integers),
+                BitSet.valueOf(new long[]{0b1000000}));
+        assertTrue(Arrays.equals(integers, new BigInteger[]{BigInteger.valueOf(7), BigInteger.valueOf(-7),
+                BigInteger.valueOf(3), BigInteger.valueOf(-3), BigInteger.valueOf(2), large, null, BigInteger.ZERO,
+                BigInteger.valueOf(123456789), BigInteger.ZERO}));
+    }
+
+    /**
+     * todo Test packingTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Packing Test", dataProvider = "keyLength")
+    public void packingTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        PackingScheme scheme = new PackingScheme(keyPair.publicKey, 32, 8);
+        assertTrue(scheme.slots >= (keyLength - 3) / 40);
+
+        Random random = new Random();
+        long[] a = new long[scheme.slots], b = new long[scheme.slots], d = new long[scheme.slots - 1];
+        for (int i = 0; i < scheme.slots; i++) {
+            a[i] = random.nextInt();
+            b[i] = random.nextInt();
+        }
+        a[0] = Integer.MIN_VALUE;
+        d[0] = Integer.MAX_VALUE;
+
+        PackedEncryptedNumber c = scheme.encrypt(a).add(scheme.encrypt(b)).multiply(-3).add(d);
+        long[] expected = new long[scheme.slots];
+        for (int i = 0; i < scheme.slots; i++) {
+            expected[i] = (a[i] + b[i]) * -3 + (i < d.length ? d[i] : 0);
+        }
+        assertTrue(Arrays.equals(scheme.decrypt(keyPair.privateKey, c), expected));
+        assertTrue(Arrays.equals(scheme.decryptAll(keyPair.privateKey,
+                new PackedEncryptedNumber[]{c, scheme.encrypt(b)})[1], b));
+    }
+
+    /**
+     * todo Test packingOverflowTest
+     */
+    @Test(description = "Packing Overflow Test", expectedExceptions = Util.OverflowErrorException.class)
+    public void packingOverflowTest() {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(128);
+        PackingScheme scheme = new PackingScheme(keyPair.publicKey, 32, 8);
+
+        scheme.encrypt(new long[]{Integer.MAX_VALUE}).multiply(1 << 9);
+    }
+
+    /**
+     * todo Test encryptedVectorTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Encrypted Vector Test", dataProvider = "keyLength")
+    public void encryptedVectorTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        double[] a = {1.5, -2.25, 3, 1e-3}, b = {0.5, 4, -7.75, 10}, c = {1, 2, 3, 4};
+        EncryptedVector encryptedA = EncryptedVector.encrypt(keyPair.publicKey, a);
+        EncryptedVector encryptedB = EncryptedVector.encrypt(keyPair.privateKey, b, null);
+        EncryptedVector encryptedC = EncryptedVector.encrypt(keyPair.publicKey, c);
+        assertEquals(encryptedC.exponent, BigInteger.ZERO);
+        assertTrue(encryptedA.exponent.compareTo(encryptedB.exponent) < 0);
+
+        double[] sum = encryptedA.add(encryptedB).decrypt(keyPair.privateKey);
+        double[] difference = encryptedC.subtract(encryptedA).decrypt(keyPair.privateKey);
+        double[] plainSum = encryptedB.add(a).subtract(c).decrypt(keyPair.privateKey);
+        double[] product = encryptedA.subtract(encryptedB).multiply(-2.5).decrypt(keyPair.privateKey);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(sum[i], a[i] + b[i], 1e-12);
+            assertEquals(difference[i], c[i] - a[i], 1e-12);
+            assertEquals(plainSum[i], b[i] + a[i] - c[i], 1e-12);
+            assertEquals(product[i], (a[i] - b[i]) * -2.5, 1e-12);
+        }
+        assertEquals(keyPair.privateKey.decrypt(encryptedA.get(1)), BigDecimal.valueOf(-2.25));
+    }
+
+    /**
+     * todo Test multiExponentiationTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Multi Exponentiation Test", dataProvider = "keyLength")
+    public void multiExponentiationTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        BigInteger nSquare = keyPair.publicKey.n.pow(2);
+
+        Random random = new Random();
+        for (int count : new int[]{0, 1, 5, 50}) {
+            BigInteger[] bases = new BigInteger[count], exponents = new BigInteger[count];
+            BigInteger expected = BigInteger.ONE;
+            for (int i = 0; i < count; i++) {
+                bases[i] = keyPair.publicKey.getRandomLtN().modPow(keyPair.publicKey.n, nSquare);
+                exponents[i] = new BigInteger(1 + random.nextInt(80), random).subtract(BigInteger.valueOf(i % 3));
+                expected = expected.multiply(bases[i].modPow(exponents[i], nSquare)).mod(nSquare);
+            }
+            assertEquals(MultiExponentiation.product(bases, exponents, nSquare), expected);
+        }
+
+        // the mantissas of x and w multiply, small enough for 128 bit keys
+        double[] x = {1.5, -2.25, 3, 0.125, 7}, w = {0.5, -4, 0.25, -7.75, 0};
+        Paillier.EncryptedNumber dot = EncryptedVector.encrypt(keyPair.publicKey, x).dot(w);
+        assertEquals(((BigDecimal) keyPair.privateKey.decrypt(dot)).doubleValue(),
+                1.5 * 0.5 + 2.25 * 4 + 3 * 0.25 - 0.125 * 7.75, 1e-12);
+    }
+
+    /**
+     * todo Test linearAlgebraTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Linear Algebra Test", dataProvider = "keyLength")
+    public void linearAlgebraTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        double[][] w = {{1, -2, 0.5, 3}, {-1.25, 0, 2, 1}, {4, 1, -3, -0.75}};
+        double[][] v = {{1, -1}, {0.5, 2}, {-2, 0}, {3, 0.25}};
+        double[] x = {2, -1.5, 0.25, 1};
+        double[][] y = {{1, 2, -1, 0.5}, {-2, 0.75, 3, 1}, {0, 1, 1, -1}};
+
+        EncryptedVector encryptedX = EncryptedVector.encrypt(publicKey, x);
+        EncryptedVector[] encryptedV = new EncryptedVector[v.length], encryptedY = new EncryptedVector[y.length];
+        for (int i = 0; i < v.length; i++) {
+            encryptedV[i] = EncryptedVector.encrypt(publicKey, v[i]);
+        }
+        for (int i = 0; i < y.length; i++) {
+            encryptedY[i] = EncryptedVector.encrypt(publicKey, y[i]);
+        }
+
+        assertMatrixEquals(new double[][]{EncryptedLinearAlgebra.multiply(w, encryptedX).decrypt(keyPair.privateKey)},
+                new double[][]{timesVector(w, x)});
+        assertMatrixEquals(new double[][]{EncryptedLinearAlgebra.multiply(encryptedX, v).decrypt(keyPair.privateKey)},
+                times(new double[][]{x}, v));
+        EncryptedVector[] wv = EncryptedLinearAlgebra.multiply(w, encryptedV, ForkJoinPool.commonPool());
+        EncryptedVector[] yv = EncryptedLinearAlgebra.multiply(encryptedY, v);
+        double[][] decryptedWv = new double[wv.length][], decryptedYv = new double[yv.length][];
+        for (int i = 0; i < wv.length; i++) {
+            decryptedWv[i] = wv[i].decrypt(keyPair.privateKey);
+            decryptedYv[i] = yv[i].decrypt(keyPair.privateKey);
+        }
+        assertMatrixEquals(decryptedWv, times(w, v));
+        assertMatrixEquals(decryptedYv, times(y, v));
+
+        BigInteger nSquare = publicKey.n.pow(2);
+        BigInteger[] bases = new BigInteger[40], exponents = new BigInteger[40];
+        Random random = new Random();
+        for (int i = 0; i < bases.length; i++) {
+            bases[i] = publicKey.getRandomLtN().modPow(publicKey.n, nSquare);
+            exponents[i] = BigInteger.valueOf(random.nextInt() >> (i % 20));
+        }
+        assertEquals(MultiExponentiation.prepare(bases, nSquare, 3).product(exponents),
+                MultiExponentiation.product(bases, exponents, nSquare));
+    }
+
+    /**
+     * todo Test negateAllTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Negate All Test", dataProvider = "keyLength")
+    public void negateAllTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        BigInteger nSquare = keyPair.publicKey.n.pow(2);
+        BigInteger[] ciphertexts = new BigInteger[7];
+        for (int i = 0; i < ciphertexts.length; i++) {
+            ciphertexts[i] = keyPair.publicKey.getRandomLtN().modPow(keyPair.publicKey.n, nSquare);
+        }
+        BigInteger[] inverses = Util.invertAll(ciphertexts, nSquare);
+        for (int i = 0; i < ciphertexts.length; i++) {
+            assertEquals(inverses[i], Util.invert(ciphertexts[i], nSquare));
+        }
+
+        double[] a = {1.5, -2.25, 3, 0}, b = {0.5, 4, -7.75, 10};
+        Paillier.EncryptedNumber[] encryptedA = new Paillier.EncryptedNumber[a.length];
+        Paillier.EncryptedNumber[] encryptedB = new Paillier.EncryptedNumber[b.length];
+        for (int i = 0; i < a.length; i++) {
+            encryptedA[i] = keyPair.publicKey.encrypt(a[i]);
+            encryptedB[i] = keyPair.publicKey.encrypt(b[i]);
+        }
+        // one cached inverse in the batch, and one subtraction through the cache
+        Paillier.EncryptedNumber first = encryptedA[0].subtract(encryptedB[0]);
+        assertEquals(((Number) keyPair.privateKey.decrypt(first)).doubleValue(), a[0] - b[0], 1e-12);
+        Paillier.EncryptedNumber[] difference = Paillier.EncryptedNumber.subtractAll(encryptedA, encryptedB);
+        Paillier.EncryptedNumber[] negated = Paillier.EncryptedNumber.negateAll(encryptedA);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(((Number) keyPair.privateKey.decrypt(difference[i])).doubleValue(), a[i] - b[i], 1e-12);
+            assertEquals(((Number) keyPair.privateKey.decrypt(negated[i])).doubleValue(), -a[i], 1e-12);
+            assertEquals(((Number) keyPair.privateKey.decrypt(negated[i].negate())).doubleValue(), a[i], 1e-12);
+        }
+    }
+
+    /**
+     * todo Test scalarMultiplicationTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Scalar Multiplication Test", dataProvider = "keyLength")
+    public void scalarMultiplicationTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        BigInteger nSquare = publicKey.n.pow(2);
+        BigInteger c = publicKey.encrypt(7).ciphertext(true);
+        assertEquals(ScalarMultiplication.inverse(publicKey, c), c.modInverse(nSquare));
+        assertEquals(ScalarMultiplication.signed(publicKey, publicKey.n.subtract(BigInteger.valueOf(3))),
+                BigInteger.valueOf(-3));
+        assertEquals(ScalarMultiplication.signed(publicKey, BigInteger.valueOf(3)), BigInteger.valueOf(3));
+        assertEquals(ScalarMultiplication.power(publicKey, c, BigInteger.valueOf(-3)),
+                c.modPow(BigInteger.valueOf(3), nSquare).modInverse(nSquare));
+
+        Paillier.EncryptedNumber x = publicKey.encrypt(7);
+        assertEquals(keyPair.privateKey.decrypt(x.multiply(-3L)), BigInteger.valueOf(-21));
+        assertEquals(keyPair.privateKey.decrypt(x.multiply(3L)), BigInteger.valueOf(21));
+        assertEquals(((Number) keyPair.privateKey.decrypt(x.multiply(-0.5))).doubleValue(), -3.5, 1e-12);
+    }
+
+    /**
+     * todo Test precomputedCiphertextTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Precomputed Ciphertext Test", dataProvider = "keyLength")
+    public void precomputedCiphertextTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        PrecomputedCiphertext x = new PrecomputedCiphertext(keyPair.publicKey.encrypt(2.5), 32, 16);
+        long memoryBytes = x.memoryBytes();
+        assertTrue(memoryBytes > 0);
+
+        assertEquals(((Number) keyPair.privateKey.decrypt(x.multiply(4L))).doubleValue(), 10.0, 1e-12);
+        assertEquals(((Number) keyPair.privateKey.decrypt(x.multiply(0.75))).doubleValue(), 1.875, 1e-12);
+        assertEquals(x.memoryBytes(), memoryBytes);
+        assertEquals(((Number) keyPair.privateKey.decrypt(x.multiply(-3L))).doubleValue(), -7.5, 1e-12);
+        assertEquals(x.memoryBytes(), memoryBytes);
+        // longer than the table
+        assertEquals(((Number) keyPair.privateKey.decrypt(x.multiply(-(1L << 40)))).doubleValue(),
+                -2.5 * (1L << 40), 1e-3);
+    }
+
+    /**
+     * todo Test encryptedAccumulatorTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Encrypted Accumulator Test", dataProvider = "keyLength")
+    public void encryptedAccumulatorTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        double[] values = {1.5, -2.25, 3, 1e-3, 7, -0.125, 42, 2.5e-4};
+        EncryptedAccumulator even = new EncryptedAccumulator(keyPair.publicKey);
+        EncryptedAccumulator odd = new EncryptedAccumulator(keyPair.publicKey);
+        Paillier.EncryptedNumber chained = null;
+        double expected = 0;
+        for (int i = 0; i < values.length; i++) {
+            Paillier.EncryptedNumber x = keyPair.publicKey.encrypt(values[i]);
+            (i % 2 == 0 ? even : odd).add(x);
+            chained = chained == null ? x : chained.add(x);
+            expected += values[i];
+        }
+        assertTrue(even.buckets() > 1);
+        Paillier.EncryptedNumber sum = even.merge(odd).result();
+        assertEquals(even.count(), values.length);
+        assertEquals(sum.exponent, chained.exponent);
+        assertEquals(((Number) keyPair.privateKey.decrypt(sum)).doubleValue(), expected, 1e-12);
+
+        Paillier.EncryptedNumber collected = Arrays.stream(values).parallel().mapToObj(keyPair.publicKey::encrypt)
+                .collect(EncryptedAccumulator.collector(keyPair.publicKey));
+        assertEquals(((Number) keyPair.privateKey.decrypt(collected)).doubleValue(), expected, 1e-12);
+        assertEquals(keyPair.privateKey.decrypt(new EncryptedAccumulator(keyPair.publicKey).result()),
+                BigInteger.ZERO);
+    }
+
+    /**
+     * todo Test encryptedFixedTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Encrypted Fixed Test", dataProvider = "keyLength")
+    public void encryptedFixedTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        EncryptedFixed balance = EncryptedFixed.encrypt(keyPair.publicKey, 2, 100.1);
+        EncryptedFixed fee = EncryptedFixed.encrypt(keyPair.publicKey, 2, new BigDecimal("-0.35"));
+        EncryptedFixed ledger = balance.add(fee).subtract(fee.multiply(3)).add(12L).subtract(0.005).add(0.015);
+        // 100.10 - 0.35 + 1.05 + 12 - 0.00 + 0.02, half even at two digits
+        assertEquals(ledger.decrypt(keyPair.privateKey), new BigDecimal("112.82"));
+        assertEquals(ledger.scale, 2);
+        assertEquals(balance.subtract(balance).decrypt(keyPair.privateKey), new BigDecimal("0.00"));
+    }
+
+    /**
+     * todo Test lazyObfuscationTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Lazy Obfuscation Test", dataProvider = "keyLength")
+    public void lazyObfuscationTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        publicKey.setLazyObfuscation(true);
+
+        List<Paillier.EncryptedNumber> exported = new ArrayList<>();
+        Paillier.EncryptedNumber sum = publicKey.encrypt(0L);
+        for (long i = 1; i <= 8; i++) {
+            Paillier.EncryptedNumber x = i % 2 == 0 ? publicKey.encrypt(i) : keyPair.privateKey.encrypt(i);
+            assertTrue(!x.isObfuscated());
+            assertEquals(x.ciphertext(false), publicKey.rawEncrypt(BigInteger.valueOf(i), 0));
+            sum = sum.add(x);
+            exported.add(x);
+        }
+        exported.add(sum);
+        BigInteger bare = sum.ciphertext(false);
+        Paillier.EncryptedNumber.obfuscateAll(exported);
+        for (Paillier.EncryptedNumber x : exported) {
+            assertTrue(x.isObfuscated());
+        }
+        assertNotEquals(sum.ciphertext(false), bare);
+        assertEquals(keyPair.privateKey.decrypt(sum), BigInteger.valueOf(36));
+
+        Paillier.EncryptedNumber exportedOnce = publicKey.encrypt(5L);
+        assertNotEquals(exportedOnce.ciphertext(true), publicKey.rawEncrypt(BigInteger.valueOf(5), 0));
+        publicKey.setLazyObfuscation(false);
+        assertTrue(publicKey.encrypt(5L).isObfuscated());
+    }
+
+    /**
+     * todo Test ciphertextCodecTest
+     *
+     * @param keyLength keypair length
+     */
+    @Test(description = "Ciphertext Codec Test", dataProvider = "keyLength")
+    public void ciphertextCodecTest(int keyLength) {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        CiphertextCodec codec = new CiphertextCodec(publicKey);
+        assertEquals(codec.width, (publicKey.n.pow(2).bitLength() + 7) / 8);
+
+        publicKey.setLazyObfuscation(true);
+        double[] values = {0, 1, -1, 0.5, -123.456, 1e-30, 1e20};
+        Paillier.EncryptedNumber[] numbers = new Paillier.EncryptedNumber[values.length];
+        for (int i = 0; i < values.length; i++) {
+            numbers[i] = publicKey.encrypt(values[i]);
+        }
+        numbers[0] = numbers[0].decreaseExponentTo(BigInteger.valueOf(-20));
+
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate((int) codec.size(numbers)),
+                ByteBuffer.allocateDirect((int) codec.size(numbers))}) {
+            codec.writeAll(buffer, numbers);
+            assertEquals(buffer.remaining(), 0);
+            buffer.flip();
+            Paillier.EncryptedNumber[] read = codec.readAll(buffer);
+            assertEquals(read.length, values.length);
+            for (int i = 0; i < values.length; i++) {
+                assertTrue(numbers[i].isObfuscated());
+                assertTrue(read[i].isObfuscated());
+                assertEquals(read[i].exponent, numbers[i].exponent);
+                assertEquals(read[i].ciphertext(true), numbers[i].ciphertext(false));
+                assertEquals(((Number) keyPair.privateKey.decrypt(read[i])).doubleValue(), values[i],
+                        Math.abs(values[i]) * 1e-12);
+            }
+        }
+
+        Paillier.EncryptedNumber single = publicKey.encrypt(42L);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(codec.size(single) + 3);
+        buffer.position(3);
+        codec.write(buffer, single);
+        buffer.position(3);
+        assertEquals(keyPair.privateKey.decrypt(codec.read(buffer)), BigInteger.valueOf(42));
+        assertEquals(buffer.remaining(), 0);
+    }
+
+    /**
+     * todo Test ciphertextStoreTest
+     *
+     * @param keyLength keypair length
+     * @throws Exception if the temporary file could not be created or removed
+     */
+    @Test(description = "Ciphertext Store Test", dataProvider = "keyLength")
+    public void ciphertextStoreTest(int keyLength) throws Exception {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        publicKey.setLazyObfuscation(true);
+        Path file = Files.createTempFile("ciphertexts", ".phec");
+        Files.delete(file);
+
+        List<Paillier.EncryptedNumber> numbers = new ArrayList<>();
+        double expected = 0;
+        for (int i = 0; i < 11; i++) {
+            double value = i % 3 == 0 ? -i * 1.5 : i;
+            numbers.add(publicKey.encrypt(value));
+            expected += value;
+        }
+        try (CiphertextStore store = CiphertextStore.open(file, publicKey, 4, 3)) {
+            assertEquals(store.appendAll(numbers.subList(0, 6)), 0);
+            for (Paillier.EncryptedNumber number : numbers.subList(6, numbers.size())) {
+                store.append(number);
+            }
+            assertEquals(store.size(), numbers.size());
+            for (int i = 0; i < numbers.size(); i++) {
+                assertTrue(numbers.get(i).isObfuscated());
+                assertEquals(store.get(i).ciphertext(false), numbers.get(i).ciphertext(false));
+                assertEquals(store.get(i).exponent, numbers.get(i).exponent);
+            }
+        }
+
+        try (CiphertextStore store = CiphertextStore.open(file, publicKey)) {
+            assertEquals(store.blockRows, 4);
+            assertEquals(store.size(), numbers.size());
+            assertEquals(((Number) keyPair.privateKey.decrypt(store.sum())).doubleValue(), expected, 1e-9);
+            double scanned = store.stream(true).mapToDouble(x -> ((Number) keyPair.privateKey.decrypt(x))
+                    .doubleValue()).sum();
+            assertEquals(scanned, expected, 1e-9);
+
+            store.append(publicKey.encrypt(100L));
+            assertEquals(((Number) keyPair.privateKey.decrypt(store.get(numbers.size()))).doubleValue(), 100.);
+            assertEquals(((Number) keyPair.privateKey.decrypt(store.sum())).doubleValue(), expected + 100, 1e-9);
+        }
+        try (CiphertextStore store = CiphertextStore.open(file, publicKey)) {
+            assertEquals(store.size(), numbers.size() + 1);
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * todo Test ciphertextCodecKeyTest
+     */
+    @Test(description = "Ciphertext Codec Key Test", expectedExceptions = Util.ValueErrorException.class)
+    public void ciphertextCodecKeyTest() {
+        Paillier.PaillierPublicKey publicKey = Paillier.PaillierKeyPair.generate(256).publicKey;
+        Paillier.PaillierPublicKey otherKey = Paillier.PaillierKeyPair.generate(256).publicKey;
+        CiphertextCodec codec = new CiphertextCodec(publicKey);
+        Paillier.EncryptedNumber x = publicKey.encrypt(7L);
+
+        ByteBuffer buffer = ByteBuffer.allocate(codec.size(x));
+        codec.write(buffer, x);
+        buffer.flip();
+        new CiphertextCodec(otherKey).read(buffer);
+    }
+
+    /**
+     * todo Test encryptedFixedScaleTest
+     */
+    @Test(description = "Encrypted Fixed Scale Test", expectedExceptions = Util.ValueErrorException.class)
+    public void encryptedFixedScaleTest() {
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(256);
+
+        EncryptedFixed.encrypt(keyPair.publicKey, 2, 1.5).add(EncryptedFixed.encrypt(keyPair.publicKey, 3, 1.5));
+    }
+
     /**
      * todo Test addIntCipherIntPlainTest
      *
@@ -588,4 +1456,60 @@ public class AppTest {
     private @NotNull BigDecimal randomDec(BigInteger n) {
         return new BigDecimal(randomInt(n));
     }
+
+    /**
+     * todo Private Function timesVector(double[][], double[]): matrix * x in plaintext
+     *
+     * @param matrix the matrix
+     * @param x      the vector
+     * @return double[]
+     */
+    private static double @NotNull [] timesVector(double @NotNull [] @NotNull [] matrix, double @NotNull [] x) {
+        double[] product = new double[matrix.length];
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < x.length; j++) {
+                product[i] += matrix[i][j] * x[j];
+            }
+        }
+
+        return product;
+    }
+
+    /**
+     * todo Private Function times(double[][], double[][]): a * b in plaintext
+     *
+     * @param a the left matrix
+     * @param b the right matrix
+     * @return double[][]
+     */
+    private static double @NotNull [] @NotNull [] times(double @NotNull [] @NotNull [] a,
+                                                        double @NotNull [] @NotNull [] b) {
+        double[][] product = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int c = 0; c < b[0].length; c++) {
+                for (int j = 0; j < b.length; j++) {
+                    product[i][c] += a[i][j] * b[j][c];
+                }
+            }
+        }
+
+        return product;
+    }
+
+    /**
+     * todo Private Function assertMatrixEquals(double[][], double[][]): entry-wise equality within 1e-9
+     *
+     * @param actual   the actual matrix
+     * @param expected the expected matrix
+     */
+    private static void assertMatrixEquals(double @NotNull [] @NotNull [] actual,
+                                           double @NotNull [] @NotNull [] expected) {
+        assertEquals(actual.length, expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(actual[i].length, expected[i].length);
+            for (int j = 0; j < expected[i].length; j++) {
+                assertEquals(actual[i][j], expected[i][j], 1e-9);
+            }
+        }
+    }
 }
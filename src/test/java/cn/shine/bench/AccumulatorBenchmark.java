@@ -0,0 +1,80 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   AccumulatorBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 07:20
+ * @License MIT
+ */
+
+import cn.shine.phe.EncodedNumber;
+import cn.shine.phe.EncryptedAccumulator;
+import cn.shine.phe.Paillier;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Accumulator Benchmark: the sum of many encrypted doubles of mixed exponents
+ * <p>
+ * The former sum is a chain of EncryptedNumber#add, one new EncryptedNumber per summand and one decreaseExponentTo
+ * whenever the exponents differ. EncryptedAccumulator multiplies each summand into the bucket of its exponent and
+ * aligns the buckets once. The summands are bare encryptions, their obfuscation is not part of the sum. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.AccumulatorBenchmark
+ * [-Dexec.args="keyLength summands"]}.
+ *
+ * @author Zhan Shi
+ */
+public class AccumulatorBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the former and bucketed sum
+     *
+     * @param args key length, 2048 by default, and number of summands, 10000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int summands = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Random random = new Random(42);
+        Paillier.EncryptedNumber[] numbers = new Paillier.EncryptedNumber[summands];
+        double expected = 0;
+        for (int i = 0; i < summands; i++) {
+            // amounts from cents to millions, so the exponents differ
+            double value = Math.scalb(random.nextDouble(), random.nextInt(28) - 7);
+            EncodedNumber encoded = EncodedNumber.encode(keyPair.publicKey, value);
+            BigInteger ciphertext = keyPair.publicKey.rawEncrypt(encoded.encoding, 0);
+            numbers[i] = new Paillier.EncryptedNumber(keyPair.publicKey, ciphertext, encoded.exponent);
+            expected += value;
+        }
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            Paillier.EncryptedNumber chained = numbers[0];
+            for (int i = 1; i < summands; i++) {
+                chained = chained.add(numbers[i]);
+            }
+            long legacy = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            EncryptedAccumulator accumulator = new EncryptedAccumulator(keyPair.publicKey);
+            for (Paillier.EncryptedNumber number : numbers) {
+                accumulator.add(number);
+            }
+            Paillier.EncryptedNumber sum = accumulator.result();
+            long bucketed = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, %s, expected %.6f%n", keyLength, accumulator, expected);
+                System.out.printf("%-26s %12s %16s%n", "sum", "ms", "decrypted");
+                System.out.printf("%-26s %12.1f %16s%n", "EncryptedNumber#add", legacy / 1e6,
+                        keyPair.privateKey.decrypt(chained));
+                System.out.printf("%-26s %12.1f %16s%n", "EncryptedAccumulator", bucketed / 1e6,
+                        keyPair.privateKey.decrypt(sum));
+            }
+        }
+    }
+}
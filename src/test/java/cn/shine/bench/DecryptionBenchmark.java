@@ -0,0 +1,103 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   DecryptionBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 02:50
+ * @License MIT
+ */
+
+import cn.shine.phe.Decryptor;
+import cn.shine.phe.Paillier;
+import cn.shine.phe.Util;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Decryption Benchmark: latency of one rawDecrypt, the former one against Decryptor with sequential and parallel halves
+ * <p>
+ * The former rawDecrypt is rebuilt from the public API of PaillierPrivateKey. The bounded column decrypts a plaintext
+ * declared below 2^32 with the p-half alone. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.DecryptionBenchmark
+ * [-Dexec.args=rounds]}.
+ *
+ * @author Zhan Shi
+ */
+public class DecryptionBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark decryption for 2048, 3072 and 4096 bit keys
+     *
+     * @param args rounds per key length, 50 by default
+     */
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        System.out.printf("parallelism %d%n", ForkJoinPool.commonPool().getParallelism());
+        System.out.printf("%8s %14s %14s %14s %14s%n", "key", "former ms", "sequential ms", "parallel ms",
+                "bounded ms");
+        for (int keyLength : new int[]{2048, 3072, 4096}) {
+            Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+            Paillier.PaillierPrivateKey privateKey = keyPair.privateKey;
+            BigInteger c = keyPair.publicKey.encrypt(BigInteger.valueOf(123456789)).ciphertext(false);
+            BigInteger pSquare = privateKey.p.pow(2), qSquare = privateKey.q.pow(2);
+            BigInteger hp = privateKey.hFunction(privateKey.p, pSquare), hq = privateKey.hFunction(privateKey.q, qSquare);
+            Decryptor sequential = new Decryptor(privateKey);
+            Decryptor parallel = new Decryptor(privateKey, ForkJoinPool.commonPool());
+
+            BigInteger bound = BigInteger.ONE.shiftLeft(32);
+
+            long former = 0, seq = 0, par = 0, bounded = 0;
+            for (int warmup = 0; warmup < 2; warmup++) {
+                former = time(rounds, () -> legacyRawDecrypt(privateKey, pSquare, qSquare, hp, hq, c));
+                seq = time(rounds, () -> sequential.rawDecrypt(c));
+                par = time(rounds, () -> parallel.rawDecrypt(c));
+                bounded = time(rounds, () -> sequential.rawDecryptBounded(c, bound));
+            }
+            System.out.printf("%8d %14.3f %14.3f %14.3f %14.3f%n", keyLength, former / 1e6, seq / 1e6, par / 1e6,
+                    bounded / 1e6);
+        }
+    }
+
+    /**
+     * todo Private Static legacyRawDecrypt(PaillierPrivateKey, BigInteger...): the former rawDecrypt
+     *
+     * @param privateKey the private key
+     * @param pSquare    p^2
+     * @param qSquare    q^2
+     * @param hp         h(p)
+     * @param hq         h(q)
+     * @param ciphertext the ciphertext
+     * @return BigInteger
+     */
+    private static BigInteger legacyRawDecrypt(Paillier.PaillierPrivateKey privateKey, BigInteger pSquare,
+                                               BigInteger qSquare, BigInteger hp, BigInteger hq,
+                                               BigInteger ciphertext) {
+        BigInteger p = privateKey.p, q = privateKey.q;
+        BigInteger lFuncP = privateKey.lFunction(ciphertext.modPow(p.subtract(BigInteger.ONE), pSquare), p);
+        BigInteger decryptToP = Util.mulMod(lFuncP, hp, p);
+        BigInteger lFuncQ = privateKey.lFunction(ciphertext.modPow(q.subtract(BigInteger.ONE), qSquare), q);
+        BigInteger decryptToQ = Util.mulMod(lFuncQ, hq, q);
+
+        return privateKey.crt(decryptToP, decryptToQ);
+    }
+
+    /**
+     * todo Private Static time(int, Runnable): average nanoseconds of operation
+     *
+     * @param rounds    number of runs
+     * @param operation the operation
+     * @return long
+     */
+    private static long time(int rounds, Runnable operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            operation.run();
+        }
+
+        return (System.nanoTime() - start) / rounds;
+    }
+}
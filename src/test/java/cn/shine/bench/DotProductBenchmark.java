@@ -0,0 +1,68 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   DotProductBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 04:40
+ * @License MIT
+ */
+
+import cn.shine.phe.EncryptedVector;
+import cn.shine.phe.Paillier;
+
+import java.util.Random;
+
+/**
+ * Dot Product Benchmark: score one encrypted record against plaintext weights
+ * <p>
+ * The former score is a chain of EncryptedNumber multiply and add, one modPow and one exponent alignment per feature.
+ * EncryptedVector#dot(double[]) encodes the weights at one exponent and runs one multi-exponentiation. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.DotProductBenchmark
+ * [-Dexec.args="keyLength features"]}.
+ *
+ * @author Zhan Shi
+ */
+public class DotProductBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the former and multi-exponentiation dot product
+     *
+     * @param args key length, 2048 by default, and number of features, 1000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int features = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Random random = new Random(42);
+        double[] x = random.doubles(features, -1, 1).toArray(), w = random.doubles(features, -1, 1).toArray();
+        EncryptedVector record = EncryptedVector.encrypt(keyPair.privateKey, x, null);
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            Paillier.EncryptedNumber former = record.get(0).multiply(w[0]);
+            for (int i = 1; i < features; i++) {
+                former = former.add(record.get(i).multiply(w[i]));
+            }
+            long legacy = System.nanoTime() - start;
+            start = System.nanoTime();
+            Paillier.EncryptedNumber dot = record.dot(w);
+            long multiExponentiation = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                double expected = 0;
+                for (int i = 0; i < features; i++) {
+                    expected += x[i] * w[i];
+                }
+                System.out.printf("key length %d, %d features, expected %.6f%n", keyLength, features, expected);
+                System.out.printf("%-26s %12s %12s%n", "dot product", "ms", "decrypted");
+                System.out.printf("%-26s %12.1f %12s%n", "multiply and add (former)", legacy / 1e6,
+                        keyPair.privateKey.decrypt(former));
+                System.out.printf("%-26s %12.1f %12s%n", "EncryptedVector#dot", multiExponentiation / 1e6,
+                        keyPair.privateKey.decrypt(dot));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   EncodingBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 02:10
+ * @License MIT
+ */
+
+import cn.shine.phe.EncodedNumber;
+import cn.shine.phe.Paillier;
+import cn.shine.phe.Util;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Encoding Benchmark: encode and encrypt a double[] through Util.wrapBig and through the typed double overloads
+ * <p>
+ * Encryption is measured without the obfuscator, whose modPow does not depend on the path and is served by
+ * ObfuscatorPool or a fixed-base table. The former path is rebuilt from the public API: Util.wrapBig, the Object
+ * encode, and the inverse mod n^2 rawEncrypt took for negative encodings. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.EncodingBenchmark
+ * [-Dexec.args="keyLength values"]}.
+ *
+ * @author Zhan Shi
+ */
+public class EncodingBenchmark {
+    /**
+     * LEGACY_SAMPLE: number of values the former encrypt is timed on, its total is extrapolated
+     */
+    private static final int LEGACY_SAMPLE = 10_000;
+
+    /**
+     * todo Public Static main(String[]): benchmark the former and typed encode and encrypt of a double[]
+     *
+     * @param args key length, 2048 by default, and number of values, 1000000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        Paillier.PaillierPublicKey publicKey = Paillier.PaillierKeyPair.generate(keyLength).publicKey;
+        BigInteger nSquare = publicKey.n.pow(2);
+        double[] values = new Random(42).doubles(count, -1e6, 1e6).toArray();
+        // the inverse of the former path takes about a millisecond, it is timed on a sample
+        double[] sample = Arrays.copyOf(values, Math.min(count, LEGACY_SAMPLE));
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long legacyEncode = time(values, value -> EncodedNumber.encode(publicKey, Util.wrapBig(value)));
+            long encode = time(values, value -> EncodedNumber.encode(publicKey, value));
+            long legacyEncrypt = time(sample, value -> {
+                EncodedNumber encoded = EncodedNumber.encode(publicKey, Util.wrapBig(value));
+                legacyRawEncrypt(publicKey, nSquare, encoded.encoding);
+            });
+            long encrypt = time(values,
+                    value -> publicKey.rawEncrypt(EncodedNumber.encode(publicKey, value).encoding, 0));
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, %d doubles%n", keyLength, count);
+                System.out.printf("%-32s %12s %12s%n", "operation", "total ms", "ns/value");
+                print("encode (former)", legacyEncode, count);
+                print("encode", encode, count);
+                print("encrypt, no obfuscator (former)", legacyEncrypt * count / sample.length, count);
+                print("encrypt, no obfuscator", encrypt, count);
+            }
+        }
+    }
+
+    /**
+     * todo Private Static legacyRawEncrypt(PaillierPublicKey, BigInteger, BigInteger): the former bare rawEncrypt
+     *
+     * @param publicKey the public key
+     * @param nSquare   n^2
+     * @param plaintext the encoding
+     * @return BigInteger 1 + n * plaintext mod n^2
+     */
+    private static BigInteger legacyRawEncrypt(Paillier.PaillierPublicKey publicKey, BigInteger nSquare,
+                                               BigInteger plaintext) {
+        BigInteger n = publicKey.n;
+        if (n.subtract(n.divide(BigInteger.valueOf(3)).subtract(BigInteger.ONE)).compareTo(plaintext) <= 0) {
+            BigInteger negCiphertext = n.multiply(n.subtract(plaintext)).add(BigInteger.ONE).mod(nSquare);
+            return Util.invert(negCiphertext, nSquare);
+        }
+
+        return n.multiply(plaintext).add(BigInteger.ONE).mod(nSquare);
+    }
+
+    /**
+     * todo Private Static time(double[], DoubleConsumer): total nanoseconds of operation over values
+     *
+     * @param values    the values
+     * @param operation the operation
+     * @return long
+     */
+    private static long time(double[] values, DoubleConsumer operation) {
+        long start = System.nanoTime();
+        for (double value : values) {
+            operation.accept(value);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * todo Private Static print(String, long, int): print one row
+     *
+     * @param name  the operation name
+     * @param nanos total nanoseconds of the operation
+     * @param count number of values
+     */
+    private static void print(String name, long nanos, int count) {
+        System.out.printf("%-32s %12.1f %12.1f%n", name, nanos / 1e6, (double) nanos / count);
+    }
+}
@@ -0,0 +1,102 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   EncryptionBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 00:20
+ * @License MIT
+ */
+
+import cn.shine.phe.EncodedNumber;
+import cn.shine.phe.FixedBaseTable;
+import cn.shine.phe.Paillier;
+import cn.shine.phe.Util;
+
+import java.math.BigInteger;
+
+/**
+ * Encryption Benchmark: cost of encrypt and of adding a plaintext, in modPow(r, n, n^2) equivalents
+ * <p>
+ * The former paths are rebuilt from the public API: encrypt drew a random obfuscator in rawEncrypt and then
+ * obfuscated again, and adding a plaintext drew a random obfuscator for the plaintext. The key owner encrypts with
+ * the CRT obfuscator of the private key, a fixed-base key with h^a for a short a. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.EncryptionBenchmark
+ * [-Dexec.args="keyLength rounds"]}.
+ *
+ * @author Zhan Shi
+ */
+public class EncryptionBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the former and current encrypt and plaintext addition
+     *
+     * @param args key length, 2048 by default, and rounds, 200 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        BigInteger nSquare = publicKey.n.pow(2);
+        EncodedNumber encoded = EncodedNumber.encode(publicKey, BigInteger.valueOf(123456789));
+        Paillier.EncryptedNumber c = publicKey.encrypt(BigInteger.ONE);
+        FixedBaseTable table = publicKey.newObfuscationTable();
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long modPow = time(rounds, () -> publicKey.getRandomLtN().modPow(publicKey.n, nSquare));
+            long legacyEncrypt = time(rounds, () -> {
+                BigInteger ciphertext = publicKey.rawEncrypt(encoded.encoding, 1);
+                new Paillier.EncryptedNumber(publicKey, ciphertext, encoded.exponent).obfuscate();
+            });
+            long encrypt = time(rounds, () -> publicKey.encryptEncoded(encoded));
+            long crtEncrypt = time(rounds, () -> keyPair.privateKey.encryptEncoded(encoded));
+            long legacyAdd = time(rounds,
+                    () -> Util.mulMod(c.ciphertext(false), publicKey.rawEncrypt(encoded.encoding, 1), nSquare));
+            long add = time(rounds, () -> c.add(encoded));
+            publicKey.setObfuscationTable(table);
+            long fixedBaseEncrypt = time(rounds, () -> publicKey.encryptEncoded(encoded));
+            publicKey.setObfuscationTable(null);
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, modPow(r, n, n^2) %.3f ms%n", keyLength, modPow / 1e6);
+                System.out.printf("%-22s %12s %12s%n", "operation", "ms/op", "modPow/op");
+                print("encrypt (former)", legacyEncrypt, modPow);
+                print("encrypt", encrypt, modPow);
+                print("encrypt (private key)", crtEncrypt, modPow);
+                print("encrypt (fixed base)", fixedBaseEncrypt, modPow);
+                print("add plaintext (former)", legacyAdd, modPow);
+                print("add plaintext", add, modPow);
+            }
+        }
+    }
+
+    /**
+     * todo Private Static time(int, Runnable): average nanoseconds of operation
+     *
+     * @param rounds    number of runs
+     * @param operation the operation
+     * @return long
+     */
+    private static long time(int rounds, Runnable operation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            operation.run();
+        }
+
+        return (System.nanoTime() - start) / rounds;
+    }
+
+    /**
+     * todo Private Static print(String, long, long): print one row
+     *
+     * @param name   the operation name
+     * @param nanos  average nanoseconds of the operation
+     * @param modPow average nanoseconds of one modPow(r, n, n^2)
+     */
+    private static void print(String name, long nanos, long modPow) {
+        System.out.printf("%-22s %12.3f %12.2f%n", name, nanos / 1e6, (double) nanos / modPow);
+    }
+}
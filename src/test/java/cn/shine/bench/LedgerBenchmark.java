@@ -0,0 +1,85 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   LedgerBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 07:50
+ * @License MIT
+ */
+
+import cn.shine.phe.EncodedNumber;
+import cn.shine.phe.EncryptedFixed;
+import cn.shine.phe.Paillier;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * Ledger Benchmark: the running balance of many monetary amounts with two decimal digits
+ * <p>
+ * As EncryptedNumber, every amount gets the exponent of its own double, and the balance pays a decreaseExponentTo
+ * whenever an amount has a smaller one. As EncryptedFixed, every amount is in cents and each posting is one
+ * multiplication. The amounts are bare encryptions, their obfuscation is not part of the balance. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.LedgerBenchmark
+ * [-Dexec.args="keyLength postings"]}.
+ *
+ * @author Zhan Shi
+ */
+public class LedgerBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the floating and fixed-point balance
+     *
+     * @param args key length, 2048 by default, and number of postings, 10000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int postings = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        Random random = new Random(42);
+        Paillier.EncryptedNumber[] floating = new Paillier.EncryptedNumber[postings];
+        EncryptedFixed[] fixed = new EncryptedFixed[postings];
+        long expected = 0;
+        for (int i = 0; i < postings; i++) {
+            long cents = random.nextInt(2000000) - 1000000;
+            double amount = BigDecimal.valueOf(cents, 2).doubleValue();
+            EncodedNumber encoded = EncodedNumber.encode(publicKey, amount);
+            floating[i] = new Paillier.EncryptedNumber(publicKey, publicKey.rawEncrypt(encoded.encoding, 0),
+                    encoded.exponent);
+            BigInteger encoding = BigInteger.valueOf(cents).mod(publicKey.n);
+            fixed[i] = new EncryptedFixed(publicKey, publicKey.rawEncrypt(encoding, 0), 2);
+            expected += cents;
+        }
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            Paillier.EncryptedNumber floatingBalance = floating[0];
+            for (int i = 1; i < postings; i++) {
+                floatingBalance = floatingBalance.add(floating[i]);
+            }
+            long legacy = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            EncryptedFixed fixedBalance = fixed[0];
+            for (int i = 1; i < postings; i++) {
+                fixedBalance = fixedBalance.add(fixed[i]);
+            }
+            long fixedPoint = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, %d postings, expected %s%n", keyLength, postings,
+                        BigDecimal.valueOf(expected, 2));
+                System.out.printf("%-26s %12s %24s%n", "balance", "ms", "decrypted");
+                System.out.printf("%-26s %12.1f %24s%n", "EncryptedNumber#add", legacy / 1e6,
+                        keyPair.privateKey.decrypt(floatingBalance));
+                System.out.printf("%-26s %12.1f %24s%n", "EncryptedFixed#add", fixedPoint / 1e6,
+                        fixedBalance.decrypt(keyPair.privateKey));
+            }
+        }
+    }
+}
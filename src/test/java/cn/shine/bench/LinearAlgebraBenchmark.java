@@ -0,0 +1,103 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   LinearAlgebraBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 05:20
+ * @License MIT
+ */
+
+import cn.shine.phe.EncryptedLinearAlgebra;
+import cn.shine.phe.EncryptedVector;
+import cn.shine.phe.Paillier;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Linear Algebra Benchmark: W * E(x) for a plaintext matrix W and an encrypted vector x
+ * <p>
+ * The former product is a nested loop of EncryptedNumber multiply and add, timed on LEGACY_ROWS rows and
+ * extrapolated. The dot rows take one multi-exponentiation per row, EncryptedLinearAlgebra shares the prepared
+ * ciphertexts across row blocks. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.LinearAlgebraBenchmark
+ * [-Dexec.args="keyLength rows columns"]}.
+ *
+ * @author Zhan Shi
+ */
+public class LinearAlgebraBenchmark {
+    /**
+     * LEGACY_ROWS: number of rows the former product is timed on, its total is extrapolated
+     */
+    private static final int LEGACY_ROWS = 2;
+
+    /**
+     * todo Public Static main(String[]): benchmark the former, per-row and blocked matrix-vector product
+     *
+     * @param args key length, 2048 by default, rows and columns, 1024 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int columns = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Random random = new Random(42);
+        double[] x = random.doubles(columns, -1, 1).toArray();
+        double[][] w = new double[rows][];
+        for (int i = 0; i < rows; i++) {
+            w[i] = random.doubles(columns, -1, 1).toArray();
+        }
+        EncryptedVector encryptedX = EncryptedVector.encrypt(keyPair.privateKey, x, null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < Math.min(rows, LEGACY_ROWS); i++) {
+            Paillier.EncryptedNumber sum = encryptedX.get(0).multiply(w[i][0]);
+            for (int j = 1; j < columns; j++) {
+                sum = sum.add(encryptedX.get(j).multiply(w[i][j]));
+            }
+        }
+        long legacy = (System.nanoTime() - start) / Math.min(rows, LEGACY_ROWS) * rows;
+
+        start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            encryptedX.dot(w[i]);
+        }
+        long dot = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        EncryptedVector product = EncryptedLinearAlgebra.multiply(w, encryptedX);
+        long blocked = System.nanoTime() - start;
+
+        double error = 0;
+        double[] decrypted = product.decrypt(keyPair.privateKey);
+        for (int i = 0; i < rows; i++) {
+            double expected = 0;
+            for (int j = 0; j < columns; j++) {
+                expected += w[i][j] * x[j];
+            }
+            error = Math.max(error, Math.abs(decrypted[i] - expected));
+        }
+
+        System.out.printf("key length %d, %d x %d, parallelism %d, max error %.3g%n", keyLength, rows, columns,
+                ForkJoinPool.commonPool().getParallelism(), error);
+        System.out.printf("%-28s %12s %12s%n", "W * E(x)", "total s", "ms/row");
+        print("multiply and add (former)", legacy, rows);
+        print("EncryptedVector#dot per row", dot, rows);
+        print("EncryptedLinearAlgebra", blocked, rows);
+    }
+
+    /**
+     * todo Private Static print(String, long, int): print one row
+     *
+     * @param name  the method name
+     * @param nanos total nanoseconds
+     * @param rows  number of rows
+     */
+    private static void print(String name, long nanos, int rows) {
+        System.out.printf("%-28s %12.1f %12.1f%n", name, nanos / 1e9, nanos / 1e6 / rows);
+    }
+}
@@ -0,0 +1,83 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   NegationBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 05:50
+ * @License MIT
+ */
+
+import cn.shine.phe.Paillier;
+
+import java.util.Random;
+
+/**
+ * Negation Benchmark: subtract a batch of encrypted numbers
+ * <p>
+ * The former difference is a + b * -1, one modInverse and one modPow by n - 1 per pair. EncryptedNumber#subtractAll
+ * inverts all subtrahends with one modInverse, and a repeated subtraction reuses the cached inverse. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.NegationBenchmark
+ * [-Dexec.args="keyLength count"]}.
+ *
+ * @author Zhan Shi
+ */
+public class NegationBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the former, batch and cached subtraction
+     *
+     * @param args key length, 2048 by default, and number of pairs, 1000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Random random = new Random(42);
+        Paillier.EncryptedNumber[] a = new Paillier.EncryptedNumber[count], b = new Paillier.EncryptedNumber[count];
+        for (int i = 0; i < count; i++) {
+            a[i] = keyPair.publicKey.encrypt(random.nextDouble());
+            b[i] = keyPair.publicKey.encrypt(random.nextDouble());
+        }
+
+        // copies without a cached inverse for the former difference
+        Paillier.EncryptedNumber[] copies = new Paillier.EncryptedNumber[count];
+        for (int i = 0; i < count; i++) {
+            copies[i] = new Paillier.EncryptedNumber(keyPair.publicKey, b[i].ciphertext(false), b[i].exponent);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            a[i].add(copies[i].multiply(-1));
+        }
+        long legacy = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Paillier.EncryptedNumber.subtractAll(a, b);
+        long batch = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            a[i].subtract(b[i]);
+        }
+        long cached = System.nanoTime() - start;
+
+        System.out.printf("key length %d, %d pairs%n", keyLength, count);
+        System.out.printf("%-28s %12s %12s%n", "a - b", "total ms", "us/pair");
+        print("a + b * -1 (former)", legacy, count);
+        print("EncryptedNumber#subtractAll", batch, count);
+        print("subtract, inverse cached", cached, count);
+    }
+
+    /**
+     * todo Private Static print(String, long, int): print one row
+     *
+     * @param name  the method name
+     * @param nanos total nanoseconds
+     * @param count number of pairs
+     */
+    private static void print(String name, long nanos, int count) {
+        System.out.printf("%-28s %12.1f %12.1f%n", name, nanos / 1e6, nanos / 1e3 / count);
+    }
+}
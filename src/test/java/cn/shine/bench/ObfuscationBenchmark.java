@@ -0,0 +1,60 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   ObfuscationBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 08:10
+ * @License MIT
+ */
+
+import cn.shine.phe.EncryptedAccumulator;
+import cn.shine.phe.Paillier;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Obfuscation Benchmark: encrypt many values, sum them, and export the sum
+ * <p>
+ * Eager obfuscation re-randomizes every fresh encryption. With lazy obfuscation the encryptions stay bare and only
+ * the exported sum is re-randomized, by EncryptedNumber#obfuscateAll. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.ObfuscationBenchmark
+ * [-Dexec.args="keyLength values"]}.
+ *
+ * @author Zhan Shi
+ */
+public class ObfuscationBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the eager and lazy pipeline
+     *
+     * @param args key length, 2048 by default, and number of values, 500 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int values = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        double[] x = new Random(42).doubles(values, -1000, 1000).toArray();
+
+        System.out.printf("key length %d, %d values%n", keyLength, values);
+        System.out.printf("%-26s %12s %16s%n", "encrypt, sum, export", "ms", "decrypted");
+        for (boolean lazy : new boolean[]{false, true}) {
+            publicKey.setLazyObfuscation(lazy);
+            long start = System.nanoTime();
+            EncryptedAccumulator accumulator = new EncryptedAccumulator(publicKey);
+            for (double value : x) {
+                accumulator.add(publicKey.encrypt(value));
+            }
+            Paillier.EncryptedNumber sum = accumulator.result();
+            Paillier.EncryptedNumber.obfuscateAll(Collections.singletonList(sum));
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("%-26s %12.1f %16s%n", lazy ? "lazy obfuscation" : "eager obfuscation", elapsed / 1e6,
+                    keyPair.privateKey.decrypt(sum));
+        }
+    }
+}
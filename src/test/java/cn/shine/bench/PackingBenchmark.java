@@ -0,0 +1,88 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   PackingBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 03:30
+ * @License MIT
+ */
+
+import cn.shine.phe.PackedEncryptedNumber;
+import cn.shine.phe.PackingScheme;
+import cn.shine.phe.Paillier;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Packing Benchmark: encrypt, add and decrypt 32 bit counters one per ciphertext and packed by PackingScheme
+ * <p>
+ * The packed counters keep 16 guard bits, room for 65536 additions. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.PackingBenchmark
+ * [-Dexec.args="keyLength counters"]}.
+ *
+ * @author Zhan Shi
+ */
+public class PackingBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark unpacked and packed counters
+     *
+     * @param args key length, 2048 by default, and number of counters, 1000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        PackingScheme scheme = new PackingScheme(keyPair.publicKey, 32, 16);
+        long[] counters = new Random(42).ints(count).asLongStream().toArray();
+        int ciphertexts = (count + scheme.slots - 1) / scheme.slots;
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            Paillier.EncryptedNumber[] unpacked = new Paillier.EncryptedNumber[count];
+            for (int i = 0; i < count; i++) {
+                unpacked[i] = keyPair.publicKey.encrypt(counters[i]);
+            }
+            long encrypt = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                unpacked[i] = unpacked[i].add(unpacked[i]);
+            }
+            long add = System.nanoTime() - start;
+            start = System.nanoTime();
+            keyPair.privateKey.decryptAll(unpacked, new long[count]);
+            long decrypt = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            PackedEncryptedNumber[] packed = new PackedEncryptedNumber[ciphertexts];
+            for (int i = 0; i < ciphertexts; i++) {
+                int from = i * scheme.slots;
+                packed[i] = scheme.encrypt(Arrays.copyOfRange(counters, from, Math.min(count, from + scheme.slots)));
+            }
+            long packedEncrypt = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < ciphertexts; i++) {
+                packed[i] = packed[i].add(packed[i]);
+            }
+            long packedAdd = System.nanoTime() - start;
+            start = System.nanoTime();
+            scheme.decryptAll(keyPair.privateKey, packed);
+            long packedDecrypt = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, %d counters, %d slots per ciphertext%n", keyLength, count,
+                        scheme.slots);
+                System.out.printf("%-10s %12s %12s %12s %12s%n", "layout", "ciphertexts", "encrypt ms", "add ms",
+                        "decrypt ms");
+                System.out.printf("%-10s %12d %12.1f %12.1f %12.1f%n", "unpacked", count, encrypt / 1e6, add / 1e6,
+                        decrypt / 1e6);
+                System.out.printf("%-10s %12d %12.1f %12.1f %12.1f%n", "packed", ciphertexts, packedEncrypt / 1e6,
+                        packedAdd / 1e6, packedDecrypt / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   PrecomputedBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 06:50
+ * @License MIT
+ */
+
+import cn.shine.phe.Paillier;
+import cn.shine.phe.PrecomputedCiphertext;
+
+import java.util.Random;
+
+/**
+ * Precomputed Benchmark: one encrypted feature multiplied by many plaintext weights
+ * <p>
+ * The former product is one EncryptedNumber#multiply, one modPow, per weight. PrecomputedCiphertext builds a fixed-base
+ * table of the ciphertext once and serves every weight from it; its build time is included. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.PrecomputedBenchmark
+ * [-Dexec.args="keyLength weights"]}.
+ *
+ * @author Zhan Shi
+ */
+public class PrecomputedBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the former and precomputed multiplications
+     *
+     * @param args key length, 2048 by default, and number of weights, 500 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int weights = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Random random = new Random(42);
+        double[] w = random.doubles(weights, -1, 1).toArray();
+        Paillier.EncryptedNumber feature = keyPair.publicKey.encrypt(0.25);
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            for (double weight : w) {
+                feature.multiply(weight);
+            }
+            long legacy = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            PrecomputedCiphertext precomputed = new PrecomputedCiphertext(feature, 64, weights);
+            long build = System.nanoTime() - start;
+            for (double weight : w) {
+                precomputed.multiply(weight);
+            }
+            long table = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, %d weights, %s%n", keyLength, weights, precomputed);
+                System.out.printf("%-28s %12s %12s%n", "feature * weight", "total ms", "us/weight");
+                System.out.printf("%-28s %12.1f %12.1f%n", "EncryptedNumber#multiply", legacy / 1e6,
+                        legacy / 1e3 / weights);
+                System.out.printf("%-28s %12.1f %12.1f%n", "PrecomputedCiphertext", table / 1e6,
+                        table / 1e3 / weights);
+                System.out.printf("%-28s %12.1f%n", "  of which tables", build / 1e6);
+            }
+        }
+    }
+}
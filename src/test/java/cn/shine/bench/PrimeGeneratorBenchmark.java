@@ -0,0 +1,92 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   PrimeGeneratorBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/17 22:40
+ * @License MIT
+ */
+
+import cn.shine.AppTest;
+import cn.shine.phe.PrimeGenerator;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * PrimeGenerator Benchmark: sieve-based PrimeGenerator against the former Util.getPrimeOver
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=cn.shine.bench.PrimeGeneratorBenchmark [-Dexec.args=rounds]}.
+ *
+ * @author Zhan Shi
+ */
+public class PrimeGeneratorBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark both generators for the key lengths of AppTest
+     *
+     * @param args rounds per key length, 5 by default
+     */
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        System.out.printf("%8s %8s %16s %16s %8s%n", "key", "prime", "getPrimeOver ms", "sieve ms", "speedup");
+        for (Object[] keyLength : new AppTest().keyLengthsProvider()) {
+            int bits = (Integer) keyLength[0] / 2;
+            // warm up both generators once per size
+            legacyGetPrimeOver(bits);
+            PrimeGenerator.generate(bits);
+
+            long legacy = 0, sieve = 0;
+            for (int i = 0; i < rounds; i++) {
+                long start = System.nanoTime();
+                legacyGetPrimeOver(bits);
+                legacy += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                PrimeGenerator.generate(bits);
+                sieve += System.nanoTime() - start;
+            }
+
+            double legacyMs = legacy / 1e6 / rounds, sieveMs = sieve / 1e6 / rounds;
+            System.out.printf("%8d %8d %16.2f %16.2f %7.2fx%n", bits * 2, bits, legacyMs, sieveMs, legacyMs / sieveMs);
+        }
+    }
+
+    /**
+     * todo Private Static legacyGetPrimeOver(int): Util.getPrimeOver before the sieve, kept as the baseline
+     *
+     * @param n length of prime
+     * @return BigInteger
+     */
+    private static BigInteger legacyGetPrimeOver(int n) {
+        BigInteger randBits = legacyGetRandBits(n);
+        BigInteger prime;
+        do {
+            prime = randBits.nextProbablePrime();
+        } while (prime.equals(randBits));
+
+        return prime;
+    }
+
+    /**
+     * todo Private Static legacyGetRandBits(int): Util.getRandBits before the sieve, kept as the baseline
+     *
+     * @param n length of random bits
+     * @return BigInteger
+     */
+    private static @NotNull BigInteger legacyGetRandBits(int n) {
+        StringBuilder bits = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            Integer bit = new Random().nextInt(2);
+            bits.append(bit);
+        }
+        bits.replace(n - 2, n - 1, "1");
+
+        return new BigInteger(String.valueOf(bits), 2);
+    }
+}
@@ -0,0 +1,90 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   StoreBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 09:20
+ * @License MIT
+ */
+
+import cn.shine.phe.CiphertextStore;
+import cn.shine.phe.EncryptedAccumulator;
+import cn.shine.phe.Paillier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Store Benchmark: sum a column of a CiphertextStore, from the mapped region or loaded as EncryptedNumber objects
+ * <p>
+ * A few obfuscated numbers are appended over and over, so the rows cost no encryption. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.StoreBenchmark
+ * [-Dexec.args="keyLength rows"]}.
+ *
+ * @author Zhan Shi
+ */
+public class StoreBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark the store
+     *
+     * @param args key length, 2048 by default, and rows, 100000 by default
+     * @throws Exception if the temporary file could not be created or removed
+     */
+    public static void main(String[] args) throws Exception {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Paillier.PaillierPublicKey publicKey = keyPair.publicKey;
+        Paillier.EncryptedNumber[] distinct = new Paillier.EncryptedNumber[64];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = publicKey.encrypt(i % 2 == 0 ? i : i * 0.5);
+        }
+
+        Path file = Files.createTempFile("ciphertexts", ".phec");
+        Files.delete(file);
+        System.out.printf("key length %d, %d rows%n", keyLength, rows);
+        try (CiphertextStore store = CiphertextStore.open(file, publicKey)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                store.append(distinct[i % distinct.length]);
+            }
+            store.sync();
+            System.out.printf("%-28s %10.1f ms, file %d MB%n", "append and sync", (System.nanoTime() - start) / 1e6,
+                    Files.size(file) >> 20);
+
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long before = runtime.totalMemory() - runtime.freeMemory();
+            start = System.nanoTime();
+            List<Paillier.EncryptedNumber> loaded = new ArrayList<>(rows);
+            for (long i = 0; i < rows; i++) {
+                loaded.add(store.get(i));
+            }
+            EncryptedAccumulator accumulator = new EncryptedAccumulator(publicKey);
+            loaded.forEach(accumulator::add);
+            Paillier.EncryptedNumber loadedSum = accumulator.result();
+            long elapsed = System.nanoTime() - start;
+            long heap = runtime.totalMemory() - runtime.freeMemory() - before;
+            System.out.printf("%-28s %10.1f ms, heap +%d MB, %s%n", "load objects, then sum", elapsed / 1e6,
+                    heap >> 20, keyPair.privateKey.decrypt(loadedSum));
+            loaded = null;
+
+            System.gc();
+            before = runtime.totalMemory() - runtime.freeMemory();
+            start = System.nanoTime();
+            Paillier.EncryptedNumber sum = store.sum();
+            elapsed = System.nanoTime() - start;
+            heap = runtime.totalMemory() - runtime.freeMemory() - before;
+            System.out.printf("%-28s %10.1f ms, heap +%d MB, %s%n", "sum from the mapped column", elapsed / 1e6,
+                    heap >> 20, keyPair.privateKey.decrypt(sum));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
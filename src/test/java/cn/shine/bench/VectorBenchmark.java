@@ -0,0 +1,72 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   VectorBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 04:00
+ * @License MIT
+ */
+
+import cn.shine.phe.EncryptedVector;
+import cn.shine.phe.Paillier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vector Benchmark: element-wise add of two encrypted double vectors, as List&lt;EncryptedNumber&gt; and as
+ * EncryptedVector
+ * <p>
+ * Each EncryptedNumber carries the exponent of its own value, so adding two lists aligns most pairs by a modPow.
+ * Vectors encrypted at one precision share the exponent and add by one multiplication per element. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.VectorBenchmark
+ * [-Dexec.args="keyLength size"]}.
+ *
+ * @author Zhan Shi
+ */
+public class VectorBenchmark {
+    /**
+     * todo Public Static main(String[]): benchmark list and vector add
+     *
+     * @param args key length, 2048 by default, and vector size, 1000 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        Paillier.PaillierKeyPair keyPair = Paillier.PaillierKeyPair.generate(keyLength);
+        Random random = new Random(42);
+        double[] a = random.doubles(size, -1e6, 1e6).toArray(), b = random.doubles(size, -1e6, 1e6).toArray();
+
+        List<Paillier.EncryptedNumber> listA = new ArrayList<>(), listB = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            listA.add(keyPair.privateKey.encrypt(a[i]));
+            listB.add(keyPair.privateKey.encrypt(b[i]));
+        }
+        Double precision = 1e-9;
+        EncryptedVector vectorA = EncryptedVector.encrypt(keyPair.privateKey, a, precision);
+        EncryptedVector vectorB = EncryptedVector.encrypt(keyPair.privateKey, b, precision);
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long start = System.nanoTime();
+            List<Paillier.EncryptedNumber> listSum = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                listSum.add(listA.get(i).add(listB.get(i)));
+            }
+            long list = System.nanoTime() - start;
+            start = System.nanoTime();
+            vectorA.add(vectorB);
+            long vector = System.nanoTime() - start;
+
+            if (warmup == 1) {
+                System.out.printf("key length %d, size %d%n", keyLength, size);
+                System.out.printf("%-32s %12.3f ms%n", "List<EncryptedNumber> add", list / 1e6);
+                System.out.printf("%-32s %12.3f ms%n", "EncryptedVector add", vector / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cn.shine.bench;
+
+/*
+ * @Project PHE-Maven
+ * @Package cn.shine.bench
+ * @Class   WireFormatBenchmark
+ * @Version 1.0.0
+ * @Author  Zhan Shi
+ * @Time    2026/10/18 08:50
+ * @License MIT
+ */
+
+import cn.shine.phe.CiphertextCodec;
+import cn.shine.phe.Paillier;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Wire Format Benchmark: ship many ciphertexts as decimal strings or through CiphertextCodec
+ * <p>
+ * The numbers are obfuscated before either path is timed. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=cn.shine.bench.WireFormatBenchmark
+ * [-Dexec.args="keyLength numbers rounds"]}.
+ *
+ * @author Zhan Shi
+ */
+public class WireFormatBenchmark {
+    /**
+     * sink: keeps the decoded numbers observable
+     */
+    private static volatile long sink;
+
+    /**
+     * todo Public Static main(String[]): benchmark the decimal strings and the binary format
+     *
+     * @param args key length, 2048 by default, number of ciphertexts, 2000 by default, and rounds, 10 by default
+     */
+    public static void main(String[] args) {
+        int keyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Paillier.PaillierPublicKey publicKey = Paillier.PaillierKeyPair.generate(keyLength).publicKey;
+        publicKey.setLazyObfuscation(true);
+        Paillier.EncryptedNumber[] numbers = new Paillier.EncryptedNumber[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = publicKey.encrypt(i * 0.25);
+        }
+        Paillier.EncryptedNumber.obfuscateAll(Arrays.asList(numbers));
+        CiphertextCodec codec = new CiphertextCodec(publicKey);
+
+        System.out.printf("key length %d, %d ciphertexts, best of %d rounds%n", keyLength, count, rounds);
+        System.out.printf("%-16s %12s %12s %12s%n", "format", "bytes", "write ms", "read ms");
+
+        long bestWrite = Long.MAX_VALUE, bestRead = Long.MAX_VALUE, bytes = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            StringBuilder text = new StringBuilder();
+            for (Paillier.EncryptedNumber number : numbers) {
+                text.append(number.ciphertext(true)).append(',').append(number.exponent).append('\n');
+            }
+            byte[] utf8 = text.toString().getBytes(StandardCharsets.UTF_8);
+            bestWrite = Math.min(bestWrite, System.nanoTime() - start);
+            bytes = utf8.length;
+
+            start = System.nanoTime();
+            long check = 0;
+            for (String line : new String(utf8, StandardCharsets.UTF_8).split("\n")) {
+                int comma = line.indexOf(',');
+                check += new Paillier.EncryptedNumber(publicKey, new BigInteger(line.substring(0, comma)),
+                        new BigInteger(line.substring(comma + 1))).exponent.signum();
+            }
+            bestRead = Math.min(bestRead, System.nanoTime() - start);
+            sink += check;
+        }
+        System.out.printf("%-16s %12d %12.2f %12.2f%n", "decimal string", bytes, bestWrite / 1e6, bestRead / 1e6);
+
+        for (boolean direct : new boolean[]{false, true}) {
+            int size = (int) codec.size(numbers);
+            ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+            bestWrite = Long.MAX_VALUE;
+            bestRead = Long.MAX_VALUE;
+            for (int round = 0; round < rounds; round++) {
+                buffer.clear();
+                long start = System.nanoTime();
+                codec.writeAll(buffer, numbers);
+                bestWrite = Math.min(bestWrite, System.nanoTime() - start);
+
+                buffer.flip();
+                start = System.nanoTime();
+                sink += codec.readAll(buffer).length;
+                bestRead = Math.min(bestRead, System.nanoTime() - start);
+            }
+            System.out.printf("%-16s %12d %12.2f %12.2f%n", direct ? "binary, direct" : "binary, heap", size,
+                    bestWrite / 1e6, bestRead / 1e6);
+        }
+    }
+}
@@ -14,8 +14,9 @@ import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Objects;
-import java.util.Random;
 
 /**
  * todo Public Class Util: the util of phe project
@@ -30,15 +31,8 @@ public class Util {
      * @return BigInteger
      */
     public static @NotNull BigInteger getRandBits(Integer n) {
-        StringBuilder bits = new StringBuilder();
-        for (int i = 0; i < n; i++) {
-            Integer bit = new Random().nextInt(2);
-            bits.append(bit);
-        }
-        // set the (n-1)th position to 1
-        bits.replace(n - 2, n - 1, "1");
-
-        return new BigInteger(String.valueOf(bits), 2);
+        // set the top bit, so the result is exactly n bits long
+        return RandomSource.getDefault().nextBits(n).setBit(n - 1);
     }
 
     /**
@@ -46,15 +40,10 @@ public class Util {
      *
      * @param n length of prime
      * @return BigInteger
+     * @see PrimeGenerator#generate(Integer)
      */
     public static BigInteger getPrimeOver(Integer n) {
-        BigInteger randBits = getRandBits(n);
-        BigInteger prime;
-        do {
-            prime = randBits.nextProbablePrime();
-        } while (prime.equals(randBits));
-
-        return prime;
+        return PrimeGenerator.generate(n);
     }
 
     /**
@@ -74,6 +63,40 @@ public class Util {
         return s;
     }
 
+    /**
+     * todo Public Static Function invertAll(BigInteger[], BigInteger): the inverses of many numbers at once
+     * <p>
+     * Montgomery's simultaneous inversion: the prefix products are inverted by a single modInverse, then unwound
+     * from the back, 3 * (length - 1) multiplications in all.
+     *
+     * @param a the numbers
+     * @param b the modulus
+     * @return BigInteger[] a[i] ** -1 mod b
+     * @throws ZeroDivisionErrorException if some a[i] has no inverse
+     */
+    public static BigInteger @NotNull [] invertAll(BigInteger @NotNull [] a, BigInteger b)
+            throws ZeroDivisionErrorException {
+        BigInteger[] inverses = new BigInteger[a.length];
+        if (a.length == 0) {
+            return inverses;
+        }
+        // inverses[i] = a[0] * ... * a[i - 1] until the unwinding
+        BigInteger prefix = a[0].mod(b);
+        for (int i = 1; i < a.length; i++) {
+            inverses[i] = prefix;
+            prefix = mulMod(prefix, a[i], b);
+        }
+        BigInteger inverse = invert(prefix, b);
+        for (int i = a.length - 1; i > 0; i--) {
+            BigInteger next = mulMod(inverse, a[i], b);
+            inverses[i] = mulMod(inverse, inverses[i], b);
+            inverse = next;
+        }
+        inverses[0] = inverse;
+
+        return inverses;
+    }
+
     /**
      * todo Public Static Function mulMod(BigInteger, BigInteger, BigInteger): multiplication modulo
      *
@@ -86,6 +109,37 @@ public class Util {
         return a.multiply(b).mod(c);
     }
 
+    /**
+     * todo Public Static Function intToBase64(BigInteger): unpadded base64url of a non-negative number, as in JWK
+     *
+     * @param n a non-negative number
+     * @return String
+     */
+    public static @NotNull String intToBase64(@NotNull BigInteger n) {
+        byte[] bytes = n.toByteArray();
+        // drop the sign byte
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * todo Public Static Function base64ToInt(String): the number of an unpadded base64url string
+     *
+     * @param source base64url string
+     * @return BigInteger
+     * @throws ValueErrorException if source is not base64url
+     */
+    public static @NotNull BigInteger base64ToInt(@NotNull String source) throws ValueErrorException {
+        try {
+            return new BigInteger(1, Base64.getUrlDecoder().decode(source));
+        } catch (IllegalArgumentException e) {
+            throw new ValueErrorException("invalid base64url number: " + source);
+        }
+    }
+
     /**
      * todo Public Static Class ValueErrorException: new ValueErrorException(str)
      */
@@ -156,6 +210,20 @@ public class Util {
         }
     }
 
+    /**
+     * todo Public Static Class TimeoutErrorException: new TimeoutErrorException(str)
+     */
+    public static class TimeoutErrorException extends Error {
+        /**
+         * TimeoutErrorException
+         *
+         * @param s exception description
+         */
+        TimeoutErrorException(String s) {
+            super(s);
+        }
+    }
+
     /**
      * todo Public Static Class Frexp: Class Frexp, like math.frexp() in python and frexp() in cpp
      *